@@ -0,0 +1,49 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.alarm.AlarmEvent;
+import org.metrolink.bas.core.alarm.AlarmRule;
+import org.metrolink.bas.core.alarm.LimitRule;
+import org.metrolink.bas.core.alarm.RateOfChangeRule;
+import org.metrolink.bas.core.alarm.RuleEngine;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/alarms")
+public class AlarmController {
+
+    private final RuleEngine rules;
+
+    public AlarmController(RuleEngine rules) {
+        this.rules = rules;
+    }
+
+    @GetMapping
+    public List<AlarmEvent> active() {
+        return rules.active();
+    }
+
+    @GetMapping("/rules")
+    public List<AlarmRule> list() {
+        return rules.rules();
+    }
+
+    @PutMapping("/rules/limit")
+    public LimitRule putLimit(@RequestBody LimitRule rule) {
+        rules.addRule(rule);
+        return rule;
+    }
+
+    @PutMapping("/rules/rate")
+    public RateOfChangeRule putRate(@RequestBody RateOfChangeRule rule) {
+        rules.addRule(rule);
+        return rule;
+    }
+
+    @DeleteMapping("/rules/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) {
+        return rules.removeRule(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
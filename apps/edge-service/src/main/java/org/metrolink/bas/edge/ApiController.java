@@ -3,12 +3,15 @@ package org.metrolink.bas.edge;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
 import org.metrolink.bas.core.Kernel;
 import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.registry.NodeQuery;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +20,8 @@ import java.util.Map;
 public class ApiController {
 
     private final Kernel kernel;
+    private final TelemetryIngest ingest;
+    private final ClusterReadRouter reads;
 
     // metrics
     private final Counter discoverCounter;
@@ -24,8 +29,10 @@ public class ApiController {
     private final Counter writeCounter;
     private final Timer readTimer;
 
-    public ApiController(Kernel kernel, MeterRegistry registry) {
+    public ApiController(Kernel kernel, TelemetryIngest ingest, ClusterReadRouter reads, MeterRegistry registry) {
         this.kernel = kernel;
+        this.ingest = ingest;
+        this.reads = reads;
 
         // counters/timer
         this.discoverCounter = registry.counter("bas_discover");
@@ -35,13 +42,14 @@ public class ApiController {
         this.readTimer = registry.timer("bas_read_latency_seconds");
 
         // gauge node count; Micrometer will call this function when scraping
-        registry.gauge("bas_nodes_total", this.kernel, k -> (double) k.nodes().size());
+        registry.gauge("bas_nodes_total", this.kernel, k -> (double) k.registry().size());
     }
 
     @PostMapping("/discover")
     public List<?> discover() throws Exception {
         var nodes = kernel.discoverAndRegister();
         discoverCounter.increment();
+        ingest.nodesChanged();
         return nodes;
     }
 
@@ -56,25 +64,44 @@ public class ApiController {
                 .toList();
     }
 
+    // filters are ANDed and answered from the registry's indexes; meta entries are "key:value"
     @GetMapping("/nodes")
-    public List<?> nodes() {
-        return kernel.nodes().stream().toList();
+    public List<?> nodes(@RequestParam(required = false) String deviceId,
+                         @RequestParam(required = false) String type,
+                         @RequestParam(required = false) Boolean writable,
+                         @RequestParam(required = false) List<String> meta) {
+        if (deviceId == null && type == null && writable == null && meta == null) {
+            return kernel.nodes().stream().toList();
+        }
+        var metaFilter = new LinkedHashMap<String, Object>();
+        if (meta != null) {
+            for (var kv : meta) {
+                int i = kv.indexOf(':');
+                if (i <= 0) throw new IllegalArgumentException("meta filter must be key:value, got " + kv);
+                metaFilter.put(kv.substring(0, i), kv.substring(i + 1));
+            }
+        }
+        return kernel.registry().query(new NodeQuery(deviceId, type, writable, metaFilter));
     }
 
     @GetMapping("/read")
-    public Map<String, Value> read(@RequestParam List<String> ids) throws Exception {
+    public Map<String, Value> read(@RequestParam List<String> ids,
+                                   @RequestHeader(name = ClusterReadRouter.FORWARDED_HEADER, defaultValue = "false")
+                                   boolean forwarded) throws Exception {
         readCounter.increment();
+        ingest.touch(ids);
         var sample = Timer.start();
         try {
-            return kernel.readNow(ids);
+            return reads.read(ids, forwarded);
         } finally {
             sample.stop(readTimer);
         }
     }
 
     @PostMapping("/write")
-    public ResponseEntity<Void> write(@RequestParam String id, @RequestParam double value) throws Exception {
-        kernel.writeNow(id, value);
+    public ResponseEntity<Void> write(@RequestParam String id, @RequestParam double value,
+                                      HttpServletRequest request) throws Exception {
+        kernel.writeNow(id, value, Map.of(Kernel.CALLER, AuditController.callerOf(request)));
         writeCounter.increment();
         return ResponseEntity.noContent().build();
     }
@@ -0,0 +1,43 @@
+package org.metrolink.bas.edge;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.metrolink.bas.core.audit.AuditJournal;
+import org.metrolink.bas.core.audit.AuditRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Audit trail of control writes over {@code [from, to)} (epoch ms; default: the last 24 h), optionally for one point.
+ */
+@RestController
+@RequestMapping("/api/audit")
+@ConditionalOnProperty(prefix = "bas.audit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AuditController {
+
+    private final AuditJournal journal;
+
+    public AuditController(AuditJournal journal) {
+        this.journal = journal;
+    }
+
+    @GetMapping
+    public List<AuditRecord> query(@RequestParam(required = false) Long from,
+                                   @RequestParam(required = false) Long to,
+                                   @RequestParam(required = false) String pointId,
+                                   @RequestParam(defaultValue = "1000") int limit) throws Exception {
+        long end = to != null ? to : System.currentTimeMillis() + 1;
+        long start = from != null ? from : end - 24 * 3600_000L;
+        return journal.query(start, end, pointId, Math.min(limit, 100_000));
+    }
+
+    // authenticated principal when there is one, otherwise the client address
+    static String callerOf(HttpServletRequest request) {
+        var p = request.getUserPrincipal();
+        return p != null ? p.getName() : "http:" + request.getRemoteAddr();
+    }
+}
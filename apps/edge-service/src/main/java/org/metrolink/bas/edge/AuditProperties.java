@@ -0,0 +1,82 @@
+package org.metrolink.bas.edge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bas.audit")
+public class AuditProperties {
+    /**
+     * Journal every control write (caller, point, old/new value, priority, result).
+     */
+    private boolean enabled = true;
+    private String dir = "./data/audit";
+    private long maxFileBytes = 64L * 1024 * 1024;
+    /**
+     * Oldest files beyond this count are deleted.
+     */
+    private int maxFiles = 32;
+    /**
+     * Records waiting for the writer thread; beyond this they are dropped (and counted), never blocking a write.
+     */
+    private int queueCapacity = 1_000_000;
+    private long syncIntervalMs = 1000;
+    /**
+     * Health reports DOWN for this long after a record was dropped (queue full) or failed to write.
+     */
+    private long lossHealthWindowMs = 300_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDir() {
+        return dir;
+    }
+
+    public void setDir(String dir) {
+        this.dir = dir;
+    }
+
+    public long getMaxFileBytes() {
+        return maxFileBytes;
+    }
+
+    public void setMaxFileBytes(long maxFileBytes) {
+        this.maxFileBytes = maxFileBytes;
+    }
+
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    public void setMaxFiles(int maxFiles) {
+        this.maxFiles = maxFiles;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getSyncIntervalMs() {
+        return syncIntervalMs;
+    }
+
+    public void setSyncIntervalMs(long syncIntervalMs) {
+        this.syncIntervalMs = syncIntervalMs;
+    }
+
+    public long getLossHealthWindowMs() {
+        return lossHealthWindowMs;
+    }
+
+    public void setLossHealthWindowMs(long lossHealthWindowMs) {
+        this.lossHealthWindowMs = lossHealthWindowMs;
+    }
+}
@@ -16,6 +16,9 @@ public class BacnetConnectorProperties {
     private int covRenewSec = 120;
     private double defaultCovIncrement = 0.1;
     private boolean bbmdEnabled = false;
+    private double networkRequestsPerSec = 40;   // ceiling per routed network (MS/TP trunk); AIMD stays below it
+    private int networkMaxInFlight = 8;
+    private int backfillParallelism = 4;
 
     // getters/setters
     public Integer getUdpPort() {
@@ -97,4 +100,28 @@ public class BacnetConnectorProperties {
     public void setBbmdEnabled(boolean bbmdEnabled) {
         this.bbmdEnabled = bbmdEnabled;
     }
+
+    public double getNetworkRequestsPerSec() {
+        return networkRequestsPerSec;
+    }
+
+    public void setNetworkRequestsPerSec(double networkRequestsPerSec) {
+        this.networkRequestsPerSec = networkRequestsPerSec;
+    }
+
+    public int getNetworkMaxInFlight() {
+        return networkMaxInFlight;
+    }
+
+    public void setNetworkMaxInFlight(int networkMaxInFlight) {
+        this.networkMaxInFlight = networkMaxInFlight;
+    }
+
+    public int getBackfillParallelism() {
+        return backfillParallelism;
+    }
+
+    public void setBackfillParallelism(int backfillParallelism) {
+        this.backfillParallelism = backfillParallelism;
+    }
 }
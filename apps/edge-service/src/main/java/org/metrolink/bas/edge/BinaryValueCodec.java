@@ -0,0 +1,182 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.model.Value;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Length-prefixed big-endian wire format for bulk endpoints ({@value #MEDIA_TYPE}).
+ * <pre>
+ * message  := u8 version(=1) · i32 count · record*
+ * id       := u16 byteLength · utf8
+ * value    := u8 tag · payload   (0 null | 1 f64 | 2 bool as u8 | 3 i64 | 4 string as u16+utf8)
+ * read req := id                          read resp := id · value · i64 tsEpochMs
+ * write req:= id · value · u8 priority (0 = none, 1..16 BACnet priority)
+ * </pre>
+ */
+public final class BinaryValueCodec {
+    public static final String MEDIA_TYPE = "application/x-bas-values";
+
+    private static final byte VERSION = 1;
+    private static final byte NULL = 0, F64 = 1, BOOL = 2, I64 = 3, STR = 4;
+    // smallest encoding of each record kind: empty id, null value
+    private static final int MIN_ID = 2, MIN_READ_RESP = MIN_ID + 1 + 8, MIN_WRITE = MIN_ID + 1 + 1;
+
+    private BinaryValueCodec() {
+    }
+
+    public static List<String> decodeIds(byte[] body) {
+        try {
+            var buf = open(body);
+            int n = count(buf, MIN_ID);
+            var out = new ArrayList<String>(n);
+            for (int i = 0; i < n; i++) out.add(getString(buf));
+            return out;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw truncated();
+        }
+    }
+
+    public static byte[] encodeIds(List<String> ids) {
+        var out = new Growable(16 + ids.size() * 16);
+        out.buf.put(VERSION).putInt(ids.size());
+        for (var id : ids) out.putString(id);
+        return out.toArray();
+    }
+
+    /** Inverse of {@link #encodeValues}; null-valued entries (not returned by the connector) are left out. */
+    public static Map<String, Value> decodeValues(byte[] body) {
+        try {
+            var buf = open(body);
+            int n = count(buf, MIN_READ_RESP);
+            var out = new HashMap<String, Value>(n * 2);
+            for (int i = 0; i < n; i++) {
+                var id = getString(buf);
+                var value = getValue(buf);
+                long ts = buf.getLong();
+                if (value != null) out.put(id, new Value(id, value, ts));
+            }
+            return out;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw truncated();
+        }
+    }
+
+    /** Encodes values in request order; ids the connector did not return are written with a null value. */
+    public static byte[] encodeValues(List<String> ids, Map<String, Value> values) {
+        var out = new Growable(16 + ids.size() * 32);
+        out.buf.put(VERSION).putInt(ids.size());
+        for (var id : ids) {
+            var v = values.get(id);
+            out.putString(id);
+            out.putValue(v != null ? v.value() : null);
+            out.ensure(8).putLong(v != null ? v.tsEpochMs() : 0L);
+        }
+        return out.toArray();
+    }
+
+    public static List<BulkWrite> decodeWrites(byte[] body) {
+        try {
+            var buf = open(body);
+            int n = count(buf, MIN_WRITE);
+            var out = new ArrayList<BulkWrite>(n);
+            for (int i = 0; i < n; i++) {
+                var id = getString(buf);
+                var value = getValue(buf);
+                int priority = Byte.toUnsignedInt(buf.get());
+                out.add(new BulkWrite(id, value, priority == 0 ? null : priority));
+            }
+            return out;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw truncated();
+        }
+    }
+
+    private static ByteBuffer open(byte[] body) {
+        var buf = ByteBuffer.wrap(body);
+        if (buf.get() != VERSION) throw new IllegalArgumentException("Unsupported " + MEDIA_TYPE + " version");
+        return buf;
+    }
+
+    // the count comes from the client: never size anything by it unless the body could actually hold that many
+    private static int count(ByteBuffer buf, int minRecordBytes) {
+        int n = buf.getInt();
+        if (n < 0 || n > buf.remaining() / minRecordBytes) {
+            throw new IllegalArgumentException(
+                    "Record count " + n + " does not fit a " + buf.capacity() + "-byte " + MEDIA_TYPE + " body");
+        }
+        return n;
+    }
+
+    private static IllegalArgumentException truncated() {
+        return new IllegalArgumentException("Truncated " + MEDIA_TYPE + " message");
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int len = Short.toUnsignedInt(buf.getShort());
+        var s = new String(buf.array(), buf.arrayOffset() + buf.position(), len, StandardCharsets.UTF_8);
+        buf.position(buf.position() + len);
+        return s;
+    }
+
+    private static Object getValue(ByteBuffer buf) {
+        byte tag = buf.get();
+        return switch (tag) {
+            case NULL -> null;
+            case F64 -> buf.getDouble();
+            case BOOL -> buf.get() != 0;
+            case I64 -> buf.getLong();
+            case STR -> getString(buf);
+            default -> throw new IllegalArgumentException("Unknown value tag " + tag);
+        };
+    }
+
+    private static final class Growable {
+        ByteBuffer buf;
+
+        Growable(int initial) {
+            buf = ByteBuffer.allocate(initial);
+        }
+
+        ByteBuffer ensure(int n) {
+            if (buf.remaining() < n) {
+                var bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + n));
+                buf.flip();
+                buf = bigger.put(buf);
+            }
+            return buf;
+        }
+
+        void putString(String s) {
+            var b = s.getBytes(StandardCharsets.UTF_8);
+            ensure(2 + b.length).putShort((short) b.length).put(b);
+        }
+
+        void putValue(Object v) {
+            if (v == null) {
+                ensure(1).put(NULL);
+            } else if (v instanceof Boolean b) {
+                ensure(2).put(BOOL).put((byte) (b ? 1 : 0));
+            } else if (v instanceof Long || v instanceof Integer || v instanceof Short || v instanceof Byte) {
+                ensure(9).put(I64).putLong(((Number) v).longValue());
+            } else if (v instanceof Number n) {
+                ensure(9).put(F64).putDouble(n.doubleValue());
+            } else {
+                ensure(1).put(STR);
+                putString(String.valueOf(v));
+            }
+        }
+
+        byte[] toArray() {
+            var out = new byte[buf.position()];
+            System.arraycopy(buf.array(), 0, out, 0, out.length);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.metrolink.bas.edge;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.metrolink.bas.core.Kernel;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Many points per request. JSON in/JSON out, or {@link BinaryValueCodec#MEDIA_TYPE} in/out for clients that
+ * want to skip JSON entirely.
+ */
+@RestController
+@RequestMapping("/api/bulk")
+public class BulkController {
+
+    private final Kernel kernel;
+    private final TelemetryIngest ingest;
+    private final ClusterReadRouter reads;
+    private final Counter readPoints;
+    private final Counter writePoints;
+
+    public BulkController(Kernel kernel, TelemetryIngest ingest, ClusterReadRouter reads, MeterRegistry registry) {
+        this.kernel = kernel;
+        this.ingest = ingest;
+        this.reads = reads;
+        this.readPoints = registry.counter("bas_bulk_points", "op", "read");
+        this.writePoints = registry.counter("bas_bulk_points", "op", "write");
+    }
+
+    @PostMapping(path = "/read",
+            consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public BulkValues read(@RequestBody List<String> ids,
+                           @RequestHeader(name = ClusterReadRouter.FORWARDED_HEADER, defaultValue = "false")
+                           boolean forwarded) throws Exception {
+        readPoints.increment(ids.size());
+        ingest.touch(ids);
+        return BulkValues.of(ids, reads.read(ids, forwarded));
+    }
+
+    @PostMapping(path = "/read",
+            consumes = BinaryValueCodec.MEDIA_TYPE, produces = BinaryValueCodec.MEDIA_TYPE)
+    public byte[] readBinary(@RequestBody byte[] body,
+                             @RequestHeader(name = ClusterReadRouter.FORWARDED_HEADER, defaultValue = "false")
+                             boolean forwarded) throws Exception {
+        var ids = BinaryValueCodec.decodeIds(body);
+        readPoints.increment(ids.size());
+        ingest.touch(ids);
+        return BinaryValueCodec.encodeValues(ids, reads.read(ids, forwarded));
+    }
+
+    @PostMapping(path = "/write", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkWriteResult write(@RequestBody List<BulkWrite> writes, HttpServletRequest request) {
+        return writeAll(writes, AuditController.callerOf(request));
+    }
+
+    @PostMapping(path = "/write", consumes = BinaryValueCodec.MEDIA_TYPE)
+    public BulkWriteResult writeBinary(@RequestBody byte[] body, HttpServletRequest request) {
+        return writeAll(BinaryValueCodec.decodeWrites(body), AuditController.callerOf(request));
+    }
+
+    // best effort: one failing point does not abort the rest of the batch
+    private BulkWriteResult writeAll(List<BulkWrite> writes, String caller) {
+        int ok = 0;
+        var failed = new ArrayList<BulkWriteResult.Failure>();
+        for (var w : writes) {
+            try {
+                kernel.writeNow(w.id(), w.value(), w.priority() != null
+                        ? Map.of("priority", w.priority(), Kernel.CALLER, caller)
+                        : Map.of(Kernel.CALLER, caller));
+                ok++;
+            } catch (Exception e) {
+                failed.add(new BulkWriteResult.Failure(w.id(), String.valueOf(e.getMessage())));
+            }
+        }
+        writePoints.increment(ok);
+        return new BulkWriteResult(ok, failed);
+    }
+}
@@ -0,0 +1,25 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.model.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar JSON form of a bulk read: {@code values[i]} and {@code ts[i]} belong to {@code ids[i]}.
+ */
+public record BulkValues(List<String> ids, Object[] values, long[] ts) {
+
+    static BulkValues of(List<String> ids, Map<String, Value> read) {
+        var values = new Object[ids.size()];
+        var ts = new long[ids.size()];
+        for (int i = 0; i < values.length; i++) {
+            var v = read.get(ids.get(i));
+            if (v != null) {
+                values[i] = v.value();
+                ts[i] = v.tsEpochMs();
+            }
+        }
+        return new BulkValues(ids, values, ts);
+    }
+}
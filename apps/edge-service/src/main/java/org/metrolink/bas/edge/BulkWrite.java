@@ -0,0 +1,7 @@
+package org.metrolink.bas.edge;
+
+/**
+ * One entry of a bulk write; {@code priority} is passed to the connector as the "priority" write option.
+ */
+public record BulkWrite(String id, Object value, Integer priority) {
+}
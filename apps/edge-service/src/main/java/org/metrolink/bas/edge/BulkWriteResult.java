@@ -0,0 +1,9 @@
+package org.metrolink.bas.edge;
+
+import java.util.List;
+
+public record BulkWriteResult(int written, List<Failure> failed) {
+
+    public record Failure(String id, String error) {
+    }
+}
@@ -0,0 +1,49 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.cluster.DeviceOwnership;
+import org.metrolink.bas.core.cluster.Member;
+import org.metrolink.bas.core.cluster.UdpMembership;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+
+@Configuration
+@ConditionalOnProperty(prefix = "bas.cluster", name = "enabled", havingValue = "true")
+public class ClusterConfiguration {
+    private static final Logger log = LoggerFactory.getLogger(ClusterConfiguration.class);
+
+    @Bean(destroyMethod = "close")
+    public UdpMembership clusterMembership(ClusterProperties p) throws Exception {
+        var bind = Objects.requireNonNull(UdpMembership.parseAddress(p.getBind()), "bas.cluster.bind");
+        var seeds = p.getSeeds().stream().map(s ->
+                Objects.requireNonNull(UdpMembership.parseAddress(s), () -> "bad seed " + s)).toList();
+        var membership = new UdpMembership(new Member(p.getNodeId(), p.getAdvertiseUrl()), bind, seeds,
+                Duration.ofMillis(p.getHeartbeatMs()), Duration.ofMillis(p.getFailAfterMs()),
+                p.getSecret().getBytes(StandardCharsets.UTF_8));
+        if (p.getSecret().isEmpty()) log.warn("bas.cluster.secret is empty: heartbeats are unauthenticated");
+        membership.addListener(members -> log.info("Cluster members: {}",
+                members.stream().map(Member::id).toList()));
+        return membership.start();
+    }
+
+    @Bean(destroyMethod = "close")
+    public DeviceOwnership deviceOwnership(UdpMembership membership, ClusterProperties p) {
+        return new DeviceOwnership(membership, p.getVirtualNodes());
+    }
+
+    @Bean
+    public HealthIndicator clusterHealthIndicator(DeviceOwnership ownership) {
+        return () -> Health.up()
+                .withDetail("self", ownership.self().id())
+                .withDetail("members", ownership.ring().members())
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package org.metrolink.bas.edge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several edge-service instances splitting the device set by consistent hashing. Every instance discovers and
+ * registers all nodes but only polls/historizes the devices it owns; reads for other devices are forwarded.
+ */
+@ConfigurationProperties(prefix = "bas.cluster")
+public class ClusterProperties {
+    private boolean enabled = false;
+    /**
+     * Stable member id (no spaces); must differ per instance.
+     */
+    private String nodeId = "edge-1";
+    /**
+     * Base URL other members use to forward reads to this instance.
+     */
+    private String advertiseUrl = "http://localhost:8080";
+    /**
+     * UDP host:port for heartbeats.
+     */
+    private String bind = "0.0.0.0:7946";
+    /**
+     * host:port of one or more members to join through.
+     */
+    private List<String> seeds = new ArrayList<>();
+    /**
+     * Shared key for HMAC-signed heartbeats; empty = only seeds (and addresses they gossip) are listened to.
+     */
+    private String secret = "";
+    private long heartbeatMs = 500;
+    /**
+     * A member silent this long is dropped and its devices move.
+     */
+    private long failAfterMs = 2000;
+    private int virtualNodes = 128;
+    private long forwardTimeoutMs = 3000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getAdvertiseUrl() {
+        return advertiseUrl;
+    }
+
+    public void setAdvertiseUrl(String advertiseUrl) {
+        this.advertiseUrl = advertiseUrl;
+    }
+
+    public String getBind() {
+        return bind;
+    }
+
+    public void setBind(String bind) {
+        this.bind = bind;
+    }
+
+    public List<String> getSeeds() {
+        return seeds;
+    }
+
+    public void setSeeds(List<String> seeds) {
+        this.seeds = seeds;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public long getHeartbeatMs() {
+        return heartbeatMs;
+    }
+
+    public void setHeartbeatMs(long heartbeatMs) {
+        this.heartbeatMs = heartbeatMs;
+    }
+
+    public long getFailAfterMs() {
+        return failAfterMs;
+    }
+
+    public void setFailAfterMs(long failAfterMs) {
+        this.failAfterMs = failAfterMs;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public long getForwardTimeoutMs() {
+        return forwardTimeoutMs;
+    }
+
+    public void setForwardTimeoutMs(long forwardTimeoutMs) {
+        this.forwardTimeoutMs = forwardTimeoutMs;
+    }
+}
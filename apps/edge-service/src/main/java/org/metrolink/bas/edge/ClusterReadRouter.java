@@ -0,0 +1,98 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.Kernel;
+import org.metrolink.bas.core.cluster.DeviceOwnership;
+import org.metrolink.bas.core.cluster.Member;
+import org.metrolink.bas.core.model.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * API read path: points owned by this instance are read locally, the rest are forwarded to their owners in
+ * parallel (one request per owner). A failed forward falls back to a local read, since every member can reach the
+ * field bus. Forwarded requests are marked with {@link #FORWARDED_HEADER} and never forwarded again.
+ */
+@Component
+public class ClusterReadRouter {
+    public static final String FORWARDED_HEADER = "X-Bas-Forwarded";
+    private static final Logger log = LoggerFactory.getLogger(ClusterReadRouter.class);
+
+    private final Kernel kernel;
+    private final DeviceOwnership ownership;
+    private final Duration timeout;
+    private final HttpClient http;
+
+    public ClusterReadRouter(Kernel kernel, ObjectProvider<DeviceOwnership> ownership, ClusterProperties props) {
+        this.kernel = kernel;
+        this.ownership = ownership.getIfAvailable();
+        this.timeout = Duration.ofMillis(props.getForwardTimeoutMs());
+        this.http = this.ownership != null
+                ? HttpClient.newBuilder().connectTimeout(timeout).build()
+                : null;
+    }
+
+    public Map<String, Value> read(List<String> ids, boolean forwarded) throws Exception {
+        if (ownership == null || forwarded) return kernel.readNow(ids);
+
+        var local = new ArrayList<String>();
+        var remote = new LinkedHashMap<Member, List<String>>();
+        for (var id : ids) {
+            var owner = ownership.ownerOf(deviceOf(id));
+            if (owner.id().equals(ownership.self().id())) local.add(id);
+            else remote.computeIfAbsent(owner, k -> new ArrayList<>()).add(id);
+        }
+        if (remote.isEmpty()) return kernel.readNow(ids);
+
+        var pending = new ArrayList<CompletableFuture<Map<String, Value>>>();
+        for (var e : remote.entrySet()) pending.add(forward(e.getKey(), e.getValue()));
+        Map<String, Value> out = new HashMap<>(local.isEmpty() ? Map.of() : kernel.readNow(local));
+        var fallback = new ArrayList<String>();
+        int i = 0;
+        for (var e : remote.entrySet()) {
+            try {
+                out.putAll(pending.get(i++).join());
+            } catch (RuntimeException ex) {
+                log.warn("Forward to {} failed, reading locally: {}", e.getKey().id(), ex.toString());
+                fallback.addAll(e.getValue());
+            }
+        }
+        if (!fallback.isEmpty()) out.putAll(kernel.readNow(fallback));
+        return out;
+    }
+
+    private CompletableFuture<Map<String, Value>> forward(Member owner, List<String> ids) {
+        // binary bulk read: no URL length limit and no per-point JSON maps on either side
+        var req = HttpRequest.newBuilder(URI.create(owner.url() + "/api/bulk/read"))
+                .timeout(timeout)
+                .header(FORWARDED_HEADER, "true")
+                .header("Content-Type", BinaryValueCodec.MEDIA_TYPE)
+                .header("Accept", BinaryValueCodec.MEDIA_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(BinaryValueCodec.encodeIds(ids)))
+                .build();
+        return http.sendAsync(req, HttpResponse.BodyHandlers.ofByteArray()).thenApply(resp -> {
+            if (resp.statusCode() != 200) throw new IllegalStateException("HTTP " + resp.statusCode());
+            return BinaryValueCodec.decodeValues(resp.body());
+        });
+    }
+
+    private String deviceOf(String pointId) {
+        var node = kernel.registry().get(pointId);
+        if (node != null) return node.deviceId();
+        int slash = pointId.indexOf('/');
+        return slash > 0 ? pointId.substring(0, slash) : pointId;
+    }
+}
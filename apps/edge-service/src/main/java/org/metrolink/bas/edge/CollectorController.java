@@ -0,0 +1,36 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.historian.Historian;
+import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.replication.BatchCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Collector role: accepts replication batches from other gateways and stores them as
+ * {@code <gatewayId>/<pointId>} series. Enable with {@code bas.collector.enabled=true}.
+ */
+@RestController
+@RequestMapping("/api/collector")
+@ConditionalOnProperty(prefix = "bas.collector", name = "enabled", havingValue = "true")
+public class CollectorController {
+
+    private final Historian historian;
+    private final CollectorProperties props;
+
+    public CollectorController(Historian historian, CollectorProperties props) {
+        this.historian = historian;
+        this.props = props;
+    }
+
+    // oversized or over-inflating batches → BatchTooLargeException → 413
+    @PostMapping(path = "/batches", consumes = BatchCodec.MEDIA_TYPE)
+    public ResponseEntity<Void> ingest(@RequestBody byte[] body) throws Exception {
+        var batch = BatchCodec.decode(body, props.getMaxInflatedBytes(), props.getMaxSamplesPerBatch());
+        for (var v : batch.values()) {
+            historian.append(new Value(batch.gatewayId() + "/" + v.pointId(), v.value(), v.tsEpochMs()));
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
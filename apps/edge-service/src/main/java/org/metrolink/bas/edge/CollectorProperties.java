@@ -0,0 +1,40 @@
+package org.metrolink.bas.edge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bas.collector")
+public class CollectorProperties {
+    private boolean enabled = false;
+    /**
+     * Largest batch accepted after gunzip; bigger ones (or gzip bombs) are refused with 413.
+     */
+    private long maxInflatedBytes = 16L * 1024 * 1024;
+    /**
+     * Largest declared sample count per batch (senders default to 5000).
+     */
+    private int maxSamplesPerBatch = 100_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxInflatedBytes() {
+        return maxInflatedBytes;
+    }
+
+    public void setMaxInflatedBytes(long maxInflatedBytes) {
+        this.maxInflatedBytes = maxInflatedBytes;
+    }
+
+    public int getMaxSamplesPerBatch() {
+        return maxSamplesPerBatch;
+    }
+
+    public void setMaxSamplesPerBatch(int maxSamplesPerBatch) {
+        this.maxSamplesPerBatch = maxSamplesPerBatch;
+    }
+}
@@ -0,0 +1,48 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.Kernel;
+import org.metrolink.bas.core.compute.ComputedConnector;
+import org.metrolink.bas.core.compute.ComputedPoint;
+import org.metrolink.bas.core.compute.ComputedPointEngine;
+import org.metrolink.bas.core.model.Device;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/computed")
+public class ComputedPointController {
+
+    private static final Device DEVICE = new Device(ComputedConnector.DEVICE_ID, "Computed Points", Map.of());
+
+    private final ComputedPointEngine engine;
+    private final Kernel kernel;
+
+    public ComputedPointController(ComputedPointEngine engine, Kernel kernel) {
+        this.engine = engine;
+        this.kernel = kernel;
+    }
+
+    @GetMapping
+    public List<ComputedPoint> list() {
+        return engine.definitions();
+    }
+
+    // bad expressions, cycles and physical point ids surface as IllegalArgumentException → 400
+    @PutMapping
+    public ComputedPoint define(@RequestBody ComputedPoint point) throws Exception {
+        engine.define(point);
+        kernel.rediscover(DEVICE, Duration.ofSeconds(2));
+        return point;
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) throws Exception {
+        if (!engine.remove(id)) return ResponseEntity.notFound().build();
+        kernel.rediscover(DEVICE, Duration.ofSeconds(2));
+        return ResponseEntity.noContent().build();
+    }
+}
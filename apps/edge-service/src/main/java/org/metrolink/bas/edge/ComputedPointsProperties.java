@@ -0,0 +1,61 @@
+package org.metrolink.bas.edge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "bas.computed")
+public class ComputedPointsProperties {
+    /**
+     * Computed points defined at startup; more can be added at runtime via /api/computed.
+     */
+    private List<Definition> points = new ArrayList<>();
+
+    public List<Definition> getPoints() {
+        return points;
+    }
+
+    public void setPoints(List<Definition> points) {
+        this.points = points;
+    }
+
+    public static class Definition {
+        private String id;
+        private String name;
+        private String expression;
+        private String units;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        public void setExpression(String expression) {
+            this.expression = expression;
+        }
+
+        public String getUnits() {
+            return units;
+        }
+
+        public void setUnits(String units) {
+            this.units = units;
+        }
+    }
+}
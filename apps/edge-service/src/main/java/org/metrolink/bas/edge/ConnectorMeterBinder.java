@@ -0,0 +1,67 @@
+package org.metrolink.bas.edge;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.metrolink.bas.core.metrics.ConnectorMetrics;
+import org.metrolink.bas.core.metrics.OpStats;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports {@link ConnectorMetrics} as device/op-tagged meters. Meters are created once per series as devices
+ * show up; the series count is bounded by {@code bas.metrics.max-devices}.
+ * <p>
+ * The quantile gauges cover every call since start. For recent latency, {@code bas_connector_op_latency_bucket}
+ * exports cumulative counts per {@code le} bound (seconds), e.g.
+ * {@code histogram_quantile(0.99, sum by (le, device, op) (rate(bas_connector_op_latency_bucket_total[5m])))}.
+ */
+@Component
+public class ConnectorMeterBinder implements MeterBinder {
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    // field-bus calls take milliseconds to seconds; the last bound is +Inf
+    private static final double[] BUCKETS_SECONDS = {0.001, 0.005, 0.01, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10,
+            Double.POSITIVE_INFINITY};
+
+    private final ConnectorMetrics metrics;
+
+    public ConnectorMeterBinder(ConnectorMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        metrics.addListener((deviceId, op, stats) -> {
+            var tags = Tags.of("device", deviceId, "op", op.tag());
+
+            FunctionTimer.builder("bas_connector_op", stats,
+                            s -> s.latency().count(), s -> s.latency().totalNanos(), TimeUnit.NANOSECONDS)
+                    .tags(tags)
+                    .register(registry);
+            FunctionCounter.builder("bas_connector_op_errors", stats, OpStats::errors).tags(tags).register(registry);
+            FunctionCounter.builder("bas_connector_op_timeouts", stats, OpStats::timeouts).tags(tags).register(registry);
+            FunctionCounter.builder("bas_connector_op_retries", stats, OpStats::retries).tags(tags).register(registry);
+
+            for (double q : QUANTILES) {
+                Gauge.builder("bas_connector_op_latency_seconds", stats, s -> s.latency().percentileNanos(q) / 1e9)
+                        .description("since process start; see bas_connector_op_latency_bucket for a window")
+                        .tags(tags.and("quantile", String.valueOf(q)))
+                        .register(registry);
+            }
+            for (double le : BUCKETS_SECONDS) {
+                long bound = Double.isInfinite(le) ? Long.MAX_VALUE : (long) (le * 1e9);
+                FunctionCounter.builder("bas_connector_op_latency_bucket", stats,
+                                s -> s.latency().countAtOrBelow(bound))
+                        .tags(tags.and("le", Double.isInfinite(le) ? "+Inf" : String.valueOf(le)))
+                        .register(registry);
+            }
+            Gauge.builder("bas_connector_op_latency_max_seconds", stats, s -> s.latency().maxNanos() / 1e9)
+                    .tags(tags)
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.plugin.LoadedPlugin;
+import org.metrolink.bas.core.plugin.PluginDirectory;
+import org.metrolink.bas.core.spi.ConnectorPlugin;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ServiceLoader;
+
+/**
+ * Resolves a fresh, uninitialized plugin instance: newest matching jar in {@code connectors.plugin-dir},
+ * else the application classpath.
+ */
+@Component
+public class ConnectorPluginLoader {
+    private final ConnectorsSelectionProperties selection;
+
+    public ConnectorPluginLoader(ConnectorsSelectionProperties selection) {
+        this.selection = selection;
+    }
+
+    public LoadedPlugin load(String id) throws Exception {
+        var dir = selection.getPluginDir();
+        if (dir != null && !dir.isBlank()) {
+            var fromDir = new PluginDirectory(Path.of(dir)).load(id);
+            if (fromDir.isPresent()) return fromDir.get();
+        }
+        var plugin = ServiceLoader.load(ConnectorPlugin.class)
+                .stream()
+                .map(ServiceLoader.Provider::get)
+                .filter(p -> p.id().equals(id))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No ConnectorPlugin found with id=" + id));
+        return new LoadedPlugin(plugin, null, null);
+    }
+}
@@ -0,0 +1,54 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.Kernel;
+import org.metrolink.bas.core.plugin.ReloadableConnector;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/connector}: GET shows which plugin build is live, POST hot-reloads it (re-resolving the jar)
+ * without dropping nodes, subscriptions or polling.
+ */
+@Component
+@Endpoint(id = "connector")
+public class ConnectorReloadEndpoint {
+    private final ReloadableConnector connector;
+    private final ConnectorPluginLoader loader;
+    private final ConnectorRuntimeInfo rt;
+    private final ConnectorsSelectionProperties selection;
+    private final Kernel kernel;
+
+    public ConnectorReloadEndpoint(ReloadableConnector connector, ConnectorPluginLoader loader,
+                                   ConnectorRuntimeInfo rt, ConnectorsSelectionProperties selection, Kernel kernel) {
+        this.connector = connector;
+        this.loader = loader;
+        this.rt = rt;
+        this.selection = selection;
+        this.kernel = kernel;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        var m = new LinkedHashMap<String, Object>();
+        var cur = connector.current();
+        m.put("id", connector.id());
+        m.put("source", cur.source() != null ? cur.source().toString() : "classpath");
+        m.put("class", cur.plugin().getClass().getName());
+        m.put("reloads", connector.reloads());
+        return m;
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() throws Exception {
+        var next = loader.load(rt.id());
+        connector.reload(next, rt.cfg(), List.copyOf(kernel.nodes()), Duration.ofMillis(selection.getDrainTimeoutMs()));
+        return status();
+    }
+}
@@ -8,6 +8,15 @@ public class ConnectorsSelectionProperties {
      * Which connector to use at runtime: "sim" or "bacnet". Default is "sim".
      */
     private String active = "sim";
+    /**
+     * Directory of connector jars, each loaded in its own classloader. When it holds a jar providing the active
+     * connector, that jar wins over the application classpath. Reload with POST /actuator/connector.
+     */
+    private String pluginDir;
+    /**
+     * How long a reload waits for in-flight calls on the old instance before stopping it.
+     */
+    private long drainTimeoutMs = 10_000;
 
     public String getActive() {
         return active;
@@ -16,4 +25,20 @@ public class ConnectorsSelectionProperties {
     public void setActive(String active) {
         this.active = active;
     }
+
+    public String getPluginDir() {
+        return pluginDir;
+    }
+
+    public void setPluginDir(String pluginDir) {
+        this.pluginDir = pluginDir;
+    }
+
+    public long getDrainTimeoutMs() {
+        return drainTimeoutMs;
+    }
+
+    public void setDrainTimeoutMs(long drainTimeoutMs) {
+        this.drainTimeoutMs = drainTimeoutMs;
+    }
 }
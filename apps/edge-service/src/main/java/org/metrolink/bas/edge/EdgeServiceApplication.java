@@ -1,23 +1,46 @@
 package org.metrolink.bas.edge;
 
 import org.metrolink.bas.core.Kernel;
+import org.metrolink.bas.core.compute.ComputedConnector;
+import org.metrolink.bas.core.compute.ComputedPoint;
+import org.metrolink.bas.core.compute.ComputedPointEngine;
+import org.metrolink.bas.core.compute.OverlayConnector;
+import org.metrolink.bas.core.fault.FaultInjectingConnector;
+import org.metrolink.bas.core.metrics.ConnectorMetrics;
+import org.metrolink.bas.core.model.HealthStatus;
+import org.metrolink.bas.core.overload.OverloadController;
+import org.metrolink.bas.core.plugin.ReloadableConnector;
 import org.metrolink.bas.core.ports.HealthPort;
+import org.metrolink.bas.core.registry.NodeRegistry;
 import org.metrolink.bas.core.spi.ConnectorPlugin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.ServiceLoader;
 
 @SpringBootApplication
 @EnableConfigurationProperties({
         SimConnectorProperties.class,
         BacnetConnectorProperties.class,
-        ConnectorsSelectionProperties.class
+        ConnectorsSelectionProperties.class,
+        MetricsProperties.class,
+        RegistryProperties.class,
+        IngestProperties.class,
+        ReplicationProperties.class,
+        CollectorProperties.class,
+        ComputedPointsProperties.class,
+        FaultInjectionProperties.class,
+        ClusterProperties.class,
+        HistorianProperties.class,
+        AuditProperties.class,
+        SchedulesProperties.class,
+        OverloadProperties.class
 })
 public class EdgeServiceApplication {
 
@@ -40,42 +63,82 @@ public class EdgeServiceApplication {
                 "ai1Drift", simProps.getAi1Drift(),
                 "periodMs", simProps.getPeriodMs()
         )
-                : Map.of(
-                "deviceInstance", bacnetProps.getDeviceInstance(),
-                "apduTimeoutMs", bacnetProps.getApduTimeoutMs(),
-                "apduSegTimeoutMs", bacnetProps.getApduSegTimeoutMs(),
-                "apduRetries", bacnetProps.getApduRetries(),
-                "udpPort", bacnetProps.getUdpPort(),
-                "bindAddress", bacnetProps.getBindAddress(),
-                "broadcast", bacnetProps.getBroadcast(),
-                "bbmdEnabled", bacnetProps.isBbmdEnabled(),
-                "defaultCovIncrement", bacnetProps.getDefaultCovIncrement()
+                : Map.ofEntries(
+                Map.entry("deviceInstance", bacnetProps.getDeviceInstance()),
+                Map.entry("apduTimeoutMs", bacnetProps.getApduTimeoutMs()),
+                Map.entry("apduSegTimeoutMs", bacnetProps.getApduSegTimeoutMs()),
+                Map.entry("apduRetries", bacnetProps.getApduRetries()),
+                Map.entry("udpPort", bacnetProps.getUdpPort()),
+                Map.entry("bindAddress", bacnetProps.getBindAddress()),
+                Map.entry("broadcast", bacnetProps.getBroadcast()),
+                Map.entry("bbmdEnabled", bacnetProps.isBbmdEnabled()),
+                Map.entry("defaultCovIncrement", bacnetProps.getDefaultCovIncrement()),
+                Map.entry("networkRequestsPerSec", bacnetProps.getNetworkRequestsPerSec()),
+                Map.entry("networkMaxInFlight", bacnetProps.getNetworkMaxInFlight()),
+                Map.entry("backfillParallelism", bacnetProps.getBackfillParallelism())
         );
         return new ConnectorRuntimeInfo(id, cfg);
     }
 
+    // wrapped so /actuator/connector can swap the instance underneath Kernel and the ingest loop
     @Bean(destroyMethod = "stop")
-    public ConnectorPlugin connectorPlugin(ConnectorRuntimeInfo rt) throws Exception {
-        var plugin = ServiceLoader.load(ConnectorPlugin.class)
-                .stream()
-                .map(ServiceLoader.Provider::get)
-                .filter(p -> p.id().equals(rt.id()))
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No ConnectorPlugin found with id=" + rt.id()));
+    public ReloadableConnector connectorPlugin(ConnectorRuntimeInfo rt, ConnectorPluginLoader loader) throws Exception {
+        var loaded = loader.load(rt.id());
+        var plugin = new ReloadableConnector(loaded);
 
-        log.info("Starting connector id={} with cfg={}", rt.id(), rt.cfg());
+        log.info("Starting connector id={} from {} with cfg={}", rt.id(),
+                loaded.source() != null ? loaded.source() : "classpath", rt.cfg());
         plugin.init(rt.cfg());
         plugin.start();
         return plugin;
     }
 
     @Bean
-    public Kernel kernel(ConnectorPlugin plugin) {
-        return new Kernel(plugin.discovery(), plugin.reader(), plugin.writer(), plugin.subscribe(), plugin.health());
+    public ConnectorMetrics connectorMetrics(MetricsProperties props) {
+        return new ConnectorMetrics(props.getMaxDevices());
     }
 
     @Bean
-    public HealthPort healthPort(ConnectorPlugin plugin) {
-        return plugin.health();
+    public ComputedPointEngine computedPointEngine(ComputedPointsProperties props) {
+        var engine = new ComputedPointEngine();
+        for (var d : props.getPoints()) {
+            Map<String, Object> meta = d.getUnits() != null ? Map.of("units", d.getUnits()) : Map.of();
+            engine.define(new ComputedPoint(d.getId(), d.getName() != null ? d.getName() : d.getId(),
+                    d.getExpression(), meta));
+        }
+        return engine;
+    }
+
+    // Kernel sees physical + computed points through one routed plugin
+    @Bean
+    public Kernel kernel(ConnectorPlugin plugin, ComputedPointEngine engine, ConnectorMetrics metrics,
+                         RegistryProperties registryProps, FaultInjectionProperties faults) {
+        ConnectorPlugin physical = plugin;
+        if (faults.isEnabled()) {
+            log.warn("Fault injection enabled on connector {}: {} phases, {} outages", plugin.id(),
+                    faults.getPhases().size(), faults.getOutages().size());
+            physical = new FaultInjectingConnector(plugin, faults.scenario(), faults.getSeed());
+        }
+        var overlay = new OverlayConnector(physical, new ComputedConnector(engine));
+        var registry = new NodeRegistry(registryProps.getIndexedMetaKeys());
+        engine.setPhysicalIds(id -> {
+            var n = registry.get(id);
+            return n != null && !ComputedConnector.DEVICE_ID.equals(n.deviceId());
+        });
+        return new Kernel(overlay.discovery(), overlay.reader(), overlay.writer(), overlay.subscribe(),
+                overlay.health(), metrics, registry);
+    }
+
+    // Kernel.health() = connector health + per-device op stats (+ admission control state under "overload")
+    @Bean
+    public HealthPort healthPort(Kernel kernel, ObjectProvider<OverloadController> overload) {
+        return () -> {
+            var s = kernel.health();
+            var o = overload.getIfAvailable();
+            if (o == null) return s;
+            var m = new LinkedHashMap<String, Object>(s.metrics());
+            m.put("overload", o.health().metrics());
+            return new HealthStatus(s.up(), m);
+        };
     }
 }
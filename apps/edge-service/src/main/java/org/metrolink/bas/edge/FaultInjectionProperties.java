@@ -0,0 +1,216 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.fault.FaultProfile;
+import org.metrolink.bas.core.fault.FaultScenario;
+import org.metrolink.bas.core.fault.LatencyDistribution;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chaos testing only: degrade the active connector on a scripted timeline (t=0 is application start).
+ */
+@ConfigurationProperties(prefix = "bas.faults")
+public class FaultInjectionProperties {
+    private boolean enabled = false;
+    private long seed = 42;
+    /**
+     * Repeat the timeline with this period; 0 = run it once.
+     */
+    private long loopMs = 0;
+    private Profile baseline = new Profile();
+    private List<Phase> phases = new ArrayList<>();
+    private List<Outage> outages = new ArrayList<>();
+
+    FaultScenario scenario() {
+        var s = FaultScenario.of(baseline.toProfile());
+        for (var p : phases) s = s.withPhase(Duration.ofMillis(p.atMs), Duration.ofMillis(p.durationMs), p.toProfile());
+        for (var o : outages) {
+            s = s.withOutage(o.deviceId, Duration.ofMillis(o.atMs), Duration.ofMillis(o.durationMs), o.reboot);
+        }
+        return loopMs > 0 ? s.looping(Duration.ofMillis(loopMs)) : s;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getLoopMs() {
+        return loopMs;
+    }
+
+    public void setLoopMs(long loopMs) {
+        this.loopMs = loopMs;
+    }
+
+    public Profile getBaseline() {
+        return baseline;
+    }
+
+    public void setBaseline(Profile baseline) {
+        this.baseline = baseline;
+    }
+
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    public void setPhases(List<Phase> phases) {
+        this.phases = phases;
+    }
+
+    public List<Outage> getOutages() {
+        return outages;
+    }
+
+    public void setOutages(List<Outage> outages) {
+        this.outages = outages;
+    }
+
+    public static class Profile {
+        /**
+         * Median injected latency; with {@code latencySigma > 0} it is log-normally distributed.
+         */
+        private long latencyMs = 0;
+        private double latencySigma = 0;
+        private double errorRate = 0;
+        private double timeoutRate = 0;
+        private long timeoutMs = 3000;
+        /**
+         * Fraction of COV events silently lost.
+         */
+        private double dropRate = 0;
+
+        FaultProfile toProfile() {
+            var latency = latencyMs <= 0 ? LatencyDistribution.none()
+                    : latencySigma > 0 ? LatencyDistribution.logNormal(latencyMs, latencySigma)
+                    : LatencyDistribution.fixed(latencyMs);
+            return new FaultProfile(latency, errorRate, timeoutRate, timeoutMs, dropRate);
+        }
+
+        public long getLatencyMs() {
+            return latencyMs;
+        }
+
+        public void setLatencyMs(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        public double getLatencySigma() {
+            return latencySigma;
+        }
+
+        public void setLatencySigma(double latencySigma) {
+            this.latencySigma = latencySigma;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public void setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+        }
+
+        public double getTimeoutRate() {
+            return timeoutRate;
+        }
+
+        public void setTimeoutRate(double timeoutRate) {
+            this.timeoutRate = timeoutRate;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        public double getDropRate() {
+            return dropRate;
+        }
+
+        public void setDropRate(double dropRate) {
+            this.dropRate = dropRate;
+        }
+    }
+
+    public static class Phase extends Profile {
+        private long atMs;
+        private long durationMs;
+
+        public long getAtMs() {
+            return atMs;
+        }
+
+        public void setAtMs(long atMs) {
+            this.atMs = atMs;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public void setDurationMs(long durationMs) {
+            this.durationMs = durationMs;
+        }
+    }
+
+    public static class Outage {
+        private String deviceId;
+        private long atMs;
+        private long durationMs;
+        /**
+         * Device comes back having forgotten its COV subscriptions.
+         */
+        private boolean reboot = false;
+
+        public String getDeviceId() {
+            return deviceId;
+        }
+
+        public void setDeviceId(String deviceId) {
+            this.deviceId = deviceId;
+        }
+
+        public long getAtMs() {
+            return atMs;
+        }
+
+        public void setAtMs(long atMs) {
+            this.atMs = atMs;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public void setDurationMs(long durationMs) {
+            this.durationMs = durationMs;
+        }
+
+        public boolean isReboot() {
+            return reboot;
+        }
+
+        public void setReboot(boolean reboot) {
+            this.reboot = reboot;
+        }
+    }
+}
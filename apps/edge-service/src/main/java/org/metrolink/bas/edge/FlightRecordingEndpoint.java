@@ -0,0 +1,130 @@
+package org.metrolink.bas.edge;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.metrolink.bas.core.trace.ConnectorCallEvent;
+import org.metrolink.bas.core.trace.HistorianAppendEvent;
+import org.metrolink.bas.core.trace.SchedulerTickEvent;
+import org.metrolink.bas.core.trace.SubscriptionDeliveryEvent;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/jfr}: POST starts a bounded recording (JDK "profile" settings + the org.metrolink.bas.* events),
+ * GET downloads a snapshot of it, DELETE stops it and returns the final .jfr file. Only one recording at a time.
+ * <p>
+ * Not exposed by default (add {@code jfr} to {@code management.endpoints.web.exposure.include}). Events that would
+ * copy the environment, system properties or JVM arguments into the file are switched off, and each dump is
+ * deleted once it has been streamed.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+    private static final String JFR = "application/octet-stream";
+    private static final long MAX_AGE_CAP_SEC = 3600;
+    private static final long MAX_SIZE_CAP_MB = 512;
+    // may carry credentials passed as env vars or -D flags
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation");
+    private static final List<Class<? extends Event>> BAS_EVENTS = List.of(
+            ConnectorCallEvent.class, SchedulerTickEvent.class,
+            SubscriptionDeliveryEvent.class, HistorianAppendEvent.class);
+
+    private Recording recording;
+    private Path lastDump;
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Long durationSeconds,
+                                                  @Nullable Long maxAgeSeconds,
+                                                  @Nullable Long maxSizeMb) throws Exception {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) return status();
+        closeQuietly();
+
+        var settings = new HashMap<>(Configuration.getConfiguration("profile").getSettings());
+        for (var name : SENSITIVE_EVENTS) settings.put(name + "#enabled", "false");
+        var r = new Recording(settings);
+        r.setName("edge-service");
+        for (var type : BAS_EVENTS) r.enable(type);
+        r.setToDisk(true);
+        r.setMaxAge(Duration.ofSeconds(clamp(maxAgeSeconds, 600, MAX_AGE_CAP_SEC)));
+        r.setMaxSize(clamp(maxSizeMb, 64, MAX_SIZE_CAP_MB) * 1024 * 1024);
+        r.setDuration(Duration.ofSeconds(clamp(durationSeconds, 300, MAX_AGE_CAP_SEC)));
+        r.start();
+        recording = r;
+        return status();
+    }
+
+    @ReadOperation(produces = JFR)
+    public synchronized WebEndpointResponse<Resource> download() throws IOException {
+        if (recording == null) return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        return new WebEndpointResponse<>(streamOnce(dump()), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation(produces = JFR)
+    public synchronized WebEndpointResponse<Resource> stop() throws IOException {
+        if (recording == null) return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        if (recording.getState() == RecordingState.RUNNING) recording.stop();
+        var file = dump();
+        closeQuietly();
+        return new WebEndpointResponse<>(streamOnce(file), WebEndpointResponse.STATUS_OK);
+    }
+
+    private Map<String, Object> status() {
+        var m = new LinkedHashMap<String, Object>();
+        m.put("state", recording != null ? recording.getState().name() : "NONE");
+        if (recording != null) {
+            m.put("maxAgeSeconds", recording.getMaxAge().toSeconds());
+            m.put("maxSizeBytes", recording.getMaxSize());
+            m.put("durationSeconds", recording.getDuration().toSeconds());
+        }
+        return m;
+    }
+
+    // the file goes away when the response stream is closed
+    private static Resource streamOnce(Path file) {
+        return new FileSystemResource(file) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+            }
+        };
+    }
+
+    // a dump that was never downloaded is deleted with the next one
+    private Path dump() throws IOException {
+        var file = Files.createTempFile("edge-service-", ".jfr");
+        recording.dump(file);
+        if (lastDump != null) Files.deleteIfExists(lastDump);
+        lastDump = file;
+        return file;
+    }
+
+    private void closeQuietly() {
+        if (recording != null) recording.close();
+        recording = null;
+    }
+
+    private static long clamp(Long v, long def, long cap) {
+        return (v == null || v <= 0) ? def : Math.min(v, cap);
+    }
+}
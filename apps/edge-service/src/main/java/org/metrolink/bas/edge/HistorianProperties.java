@@ -0,0 +1,160 @@
+package org.metrolink.bas.edge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "bas.historian")
+public class HistorianProperties {
+    /**
+     * Raw samples older than this are dropped; rollups keep their own (longer) retention.
+     */
+    private Duration rawRetention = Duration.ofDays(7);
+    private int rawMaxSamplesPerPoint = 200_000;
+    /**
+     * Rollup tiers maintained on ingest; history queries use the coarsest one that fits the requested resolution.
+     */
+    private List<Tier> rollups = new ArrayList<>(List.of(
+            new Tier(Duration.ofMinutes(1), Duration.ofDays(30)),
+            new Tier(Duration.ofMinutes(15), Duration.ofDays(365)),
+            new Tier(Duration.ofHours(1), Duration.ofDays(5 * 365))));
+    private Archive archive = new Archive();
+    /**
+     * Fork-join workers for cross-point queries (/api/history/aggregate); 0 = one per core.
+     */
+    private int queryParallelism = 0;
+
+    public Duration getRawRetention() {
+        return rawRetention;
+    }
+
+    public void setRawRetention(Duration rawRetention) {
+        this.rawRetention = rawRetention;
+    }
+
+    public int getRawMaxSamplesPerPoint() {
+        return rawMaxSamplesPerPoint;
+    }
+
+    public void setRawMaxSamplesPerPoint(int rawMaxSamplesPerPoint) {
+        this.rawMaxSamplesPerPoint = rawMaxSamplesPerPoint;
+    }
+
+    public List<Tier> getRollups() {
+        return rollups;
+    }
+
+    public void setRollups(List<Tier> rollups) {
+        this.rollups = rollups;
+    }
+
+    public int getQueryParallelism() {
+        return queryParallelism;
+    }
+
+    public void setQueryParallelism(int queryParallelism) {
+        this.queryParallelism = queryParallelism;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public void setArchive(Archive archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * On-disk columnar copy of numeric samples, one file per point per UTC day, served by /api/history/export.
+     */
+    public static class Archive {
+        private boolean enabled;
+        private String dir = "./data/archive";
+        private Duration retention = Duration.ofDays(90);
+        /**
+         * Samples per point buffered before a chunk is appended; {@code flushInterval} bounds how stale an export is.
+         */
+        private int chunkSamples = 1024;
+        private Duration flushInterval = Duration.ofSeconds(30);
+        private int queueCapacity = 100_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDir() {
+            return dir;
+        }
+
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public int getChunkSamples() {
+            return chunkSamples;
+        }
+
+        public void setChunkSamples(int chunkSamples) {
+            this.chunkSamples = chunkSamples;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class Tier {
+        private Duration resolution;
+        private Duration retention;
+
+        public Tier() {
+        }
+
+        Tier(Duration resolution, Duration retention) {
+            this.resolution = resolution;
+            this.retention = retention;
+        }
+
+        public Duration getResolution() {
+            return resolution;
+        }
+
+        public void setResolution(Duration resolution) {
+            this.resolution = resolution;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+}
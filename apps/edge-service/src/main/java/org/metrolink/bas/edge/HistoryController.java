@@ -0,0 +1,110 @@
+package org.metrolink.bas.edge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.metrolink.bas.core.historian.AggregateQuery;
+import org.metrolink.bas.core.historian.Historian;
+import org.metrolink.bas.core.historian.QueryEngine;
+import org.metrolink.bas.core.registry.NodeQuery;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * History of one point over {@code [from, to)} (epoch ms; default: the last hour). With {@code resolution}
+ * ("15m", "1h", "PT1H") the answer is bucketed aggregates from the rollup tiers, otherwise raw samples.
+ * {@code /aggregate} answers the same window across many points, see {@link #aggregate}.
+ */
+@RestController
+@RequestMapping("/api/history")
+public class HistoryController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final Historian historian;
+    private final QueryEngine queries;
+    private final ObjectMapper json;
+
+    public HistoryController(Historian historian, QueryEngine queries, ObjectMapper json) {
+        this.historian = historian;
+        this.queries = queries;
+        this.json = json;
+    }
+
+    @GetMapping
+    public List<?> history(@RequestParam String id,
+                           @RequestParam(required = false) Long from,
+                           @RequestParam(required = false) Long to,
+                           @RequestParam(required = false) String resolution) {
+        long end = to != null ? to : System.currentTimeMillis();
+        long start = from != null ? from : end - Duration.ofHours(1).toMillis();
+        if (start >= end) throw new IllegalArgumentException("from must be before to");
+        if (resolution == null) return historian.range(id, start, end);
+
+        var res = DurationStyle.detectAndParse(resolution);
+        if (res.toMillis() <= 0) throw new IllegalArgumentException("resolution must be >= 1ms");
+        return historian.aggregate(id, start, end, res);
+    }
+
+    /**
+     * Cross-point aggregate, e.g. {@code ?type=temp&groupBy=meta:floor&fn=mean&from=…} for the mean zone temperature
+     * per floor. Points are selected like {@code /api/nodes}; {@code fn} is mean, min, max, sum or count. The
+     * response is NDJSON, one group per line, each written as soon as it is encoded.
+     */
+    @GetMapping("/aggregate")
+    public ResponseEntity<StreamingResponseBody> aggregate(@RequestParam(required = false) String deviceId,
+                                                           @RequestParam(required = false) String type,
+                                                           @RequestParam(required = false) List<String> meta,
+                                                           @RequestParam(required = false) Long from,
+                                                           @RequestParam(required = false) Long to,
+                                                           @RequestParam(required = false) String resolution,
+                                                           @RequestParam(required = false) String groupBy,
+                                                           @RequestParam(defaultValue = "mean") String fn) {
+        long end = to != null ? to : System.currentTimeMillis();
+        long start = from != null ? from : end - Duration.ofHours(1).toMillis();
+        var metaFilter = new LinkedHashMap<String, Object>();
+        if (meta != null) {
+            for (var kv : meta) {
+                int i = kv.indexOf(':');
+                if (i <= 0) throw new IllegalArgumentException("meta filter must be key:value, got " + kv);
+                metaFilter.put(kv.substring(0, i), kv.substring(i + 1));
+            }
+        }
+        AggregateQuery.Aggregation agg;
+        try {
+            agg = AggregateQuery.Aggregation.valueOf(fn.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("fn must be mean, min, max, sum or count, got " + fn);
+        }
+        // validated here so a bad request is a 400, not a failure halfway through the stream
+        var query = new AggregateQuery(new NodeQuery(deviceId, type, null, metaFilter), start, end,
+                resolution != null ? DurationStyle.detectAndParse(resolution) : null, groupBy, agg);
+
+        StreamingResponseBody body = out -> {
+            try {
+                queries.run(query, group -> {
+                    try {
+                        out.write(json.writeValueAsBytes(group));
+                        out.write('\n');
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
@@ -0,0 +1,44 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.historian.ColumnarArchive;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.channels.Channels;
+import java.util.List;
+
+/**
+ * Bulk export of archived samples over {@code [from, to)} in {@value ColumnarArchive#MEDIA_TYPE} (see
+ * {@link ColumnarArchive}). {@code id} repeats or is comma-separated; omitted = every archived point. The body is
+ * streamed, so the response size does not depend on heap.
+ */
+@RestController
+@RequestMapping("/api/history/export")
+@ConditionalOnProperty(prefix = "bas.historian.archive", name = "enabled", havingValue = "true")
+public class HistoryExportController {
+
+    private final ColumnarArchive archive;
+
+    public HistoryExportController(ColumnarArchive archive) {
+        this.archive = archive;
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(name = "id", required = false) List<String> ids,
+                                                        @RequestParam long from,
+                                                        @RequestParam long to) throws Exception {
+        if (from >= to) throw new IllegalArgumentException("from must be before to");
+        var points = ids != null && !ids.isEmpty() ? ids : archive.points();
+        StreamingResponseBody body = out -> archive.export(points, from, to, Channels.newChannel(out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ColumnarArchive.MEDIA_TYPE))
+                .header("Content-Disposition", "attachment; filename=\"history-" + from + "-" + to + ".basx\"")
+                .body(body);
+    }
+}
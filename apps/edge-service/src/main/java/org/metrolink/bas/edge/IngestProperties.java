@@ -0,0 +1,187 @@
+package org.metrolink.bas.edge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bas.ingest")
+public class IngestProperties {
+    /**
+     * Discover at startup and poll every registered node into the historian.
+     */
+    private boolean enabled = true;
+    /**
+     * Default interval; a node's "pollIntervalMs" meta overrides it.
+     */
+    private long pollIntervalMs = 5000;
+    /**
+     * Max points per connector read; each device's points are cut into batches of this size.
+     */
+    private int maxBatch = 50;
+    /**
+     * Also subscribe to COV for the same points (connectors that do not support it just keep polling).
+     */
+    private boolean subscribe = false;
+    /**
+     * Per-point intervals from volatility, API interest and alarm proximity instead of one fixed pollIntervalMs.
+     */
+    private Adaptive adaptive = new Adaptive();
+    /**
+     * After startup discovery, recover the samples missed while down from device-side history (BACnet TrendLogs).
+     */
+    private Backfill backfill = new Backfill();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    public void setMaxBatch(int maxBatch) {
+        this.maxBatch = maxBatch;
+    }
+
+    public boolean isSubscribe() {
+        return subscribe;
+    }
+
+    public void setSubscribe(boolean subscribe) {
+        this.subscribe = subscribe;
+    }
+
+    public Adaptive getAdaptive() {
+        return adaptive;
+    }
+
+    public void setAdaptive(Adaptive adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    public Backfill getBackfill() {
+        return backfill;
+    }
+
+    public void setBackfill(Backfill backfill) {
+        this.backfill = backfill;
+    }
+
+    public static class Backfill {
+        private boolean enabled = true;
+        /**
+         * How far back to look for a point with no history at all (the in-memory historian starts empty).
+         */
+        private long maxLookbackMs = 24 * 3600_000L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxLookbackMs() {
+            return maxLookbackMs;
+        }
+
+        public void setMaxLookbackMs(long maxLookbackMs) {
+            this.maxLookbackMs = maxLookbackMs;
+        }
+    }
+
+    public static class Adaptive {
+        private boolean enabled = false;
+        private long minIntervalMs = 1000;
+        private long maxIntervalMs = 60_000;
+        /**
+         * Ceiling while a point is being read through the API.
+         */
+        private long interestIntervalMs = 2000;
+        private long interestTtlMs = 60_000;
+        /**
+         * Field-bus budget in point reads per second; 0 = unlimited.
+         */
+        private double budgetReadsPerSecond = 0;
+        /**
+         * Used when a node has no "deadband"/"covIncrement" meta.
+         */
+        private double defaultDeadband = 0.1;
+        private int maxBatch = 50;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMinIntervalMs() {
+            return minIntervalMs;
+        }
+
+        public void setMinIntervalMs(long minIntervalMs) {
+            this.minIntervalMs = minIntervalMs;
+        }
+
+        public long getMaxIntervalMs() {
+            return maxIntervalMs;
+        }
+
+        public void setMaxIntervalMs(long maxIntervalMs) {
+            this.maxIntervalMs = maxIntervalMs;
+        }
+
+        public long getInterestIntervalMs() {
+            return interestIntervalMs;
+        }
+
+        public void setInterestIntervalMs(long interestIntervalMs) {
+            this.interestIntervalMs = interestIntervalMs;
+        }
+
+        public long getInterestTtlMs() {
+            return interestTtlMs;
+        }
+
+        public void setInterestTtlMs(long interestTtlMs) {
+            this.interestTtlMs = interestTtlMs;
+        }
+
+        public double getBudgetReadsPerSecond() {
+            return budgetReadsPerSecond;
+        }
+
+        public void setBudgetReadsPerSecond(double budgetReadsPerSecond) {
+            this.budgetReadsPerSecond = budgetReadsPerSecond;
+        }
+
+        public double getDefaultDeadband() {
+            return defaultDeadband;
+        }
+
+        public void setDefaultDeadband(double defaultDeadband) {
+            this.defaultDeadband = defaultDeadband;
+        }
+
+        public int getMaxBatch() {
+            return maxBatch;
+        }
+
+        public void setMaxBatch(int maxBatch) {
+            this.maxBatch = maxBatch;
+        }
+    }
+}
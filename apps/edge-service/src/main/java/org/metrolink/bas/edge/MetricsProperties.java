@@ -0,0 +1,19 @@
+package org.metrolink.bas.edge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bas.metrics")
+public class MetricsProperties {
+    /**
+     * Upper bound on distinct device tags exported per connector meter; extra devices share device="_other".
+     */
+    private int maxDevices = 256;
+
+    public int getMaxDevices() {
+        return maxDevices;
+    }
+
+    public void setMaxDevices(int maxDevices) {
+        this.maxDevices = maxDevices;
+    }
+}
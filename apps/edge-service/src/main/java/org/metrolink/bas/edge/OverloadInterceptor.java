@@ -0,0 +1,64 @@
+package org.metrolink.bas.edge;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.metrolink.bas.core.overload.OverloadController;
+import org.metrolink.bas.core.overload.Priority;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Admission control for {@code /api/**}: each request holds an {@link OverloadController} permit of its class until
+ * it completes (for streamed bodies, until the stream ends). Refusals surface as
+ * {@link org.metrolink.bas.core.overload.OverloadException} → 429 via {@link RestExceptionAdvice}. Actuator
+ * endpoints are not gated, so health stays answerable under overload.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bas.overload", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OverloadInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+    private static final String PERMIT = OverloadInterceptor.class.getName() + ".permit";
+
+    private final OverloadController overload;
+
+    public OverloadInterceptor(OverloadController overload) {
+        this.overload = overload;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/api/**");
+    }
+
+    // async dispatches of a streamed response come through here again with the permit already held
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(PERMIT) == null) {
+            request.setAttribute(PERMIT, overload.acquire(classify(request)));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof OverloadController.Permit p) {
+            request.removeAttribute(PERMIT);
+            p.close();
+        }
+    }
+
+    // only control writes and schedule edits (which drive writes) are critical; discovery, rule and computed-point
+    // changes are ordinary work that may wait or be shed
+    static Priority classify(HttpServletRequest request) {
+        var path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/history") || path.startsWith("/api/audit")) return Priority.BACKGROUND;
+        if ("GET".equals(request.getMethod())) return Priority.NORMAL;
+        if (path.equals("/api/write") || path.startsWith("/api/bulk/write") || path.startsWith("/api/schedules")) {
+            return Priority.CRITICAL;
+        }
+        return Priority.NORMAL;
+    }
+}
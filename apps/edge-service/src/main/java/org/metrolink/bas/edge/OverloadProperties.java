@@ -0,0 +1,161 @@
+package org.metrolink.bas.edge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bas.overload")
+public class OverloadProperties {
+    private boolean enabled = true;
+    private long sampleIntervalMs = 500;
+    /**
+     * Pressure (highest signal / its limit) at which analytics are refused, and at which reads and slow polls are too.
+     */
+    private double shedBackgroundAt = 0.8;
+    private double shedNormalAt = 1.0;
+    private double hysteresis = 0.1;
+    /**
+     * Concurrent API reads / analytics queries; more are answered 429 regardless of pressure. 0 = unlimited.
+     */
+    private int maxInFlightReads = 64;
+    private int maxInFlightAnalytics = 4;
+    private long retryAfterMs = 5000;
+    /**
+     * Poll batches at or below this interval form the critical lane (never shed, nor is COV on their points). Keep it
+     * below {@code bas.ingest.pollIntervalMs}, or every default-rate point is critical and nothing can be shed.
+     */
+    private long criticalPollIntervalMs = 1000;
+    private Limits limits = new Limits();
+
+    /**
+     * Signal values that count as full load (pressure 1.0).
+     */
+    public static class Limits {
+        private double heapAfterGc = 0.85;
+        private long pollLagMs = 10_000;
+        private long scheduleLagMs = 10_000;
+        private double readLatencyMs = 5000;
+        /**
+         * Fill ratio of the audit, archive and replication queues.
+         */
+        private double queueFill = 0.9;
+
+        public double getHeapAfterGc() {
+            return heapAfterGc;
+        }
+
+        public void setHeapAfterGc(double heapAfterGc) {
+            this.heapAfterGc = heapAfterGc;
+        }
+
+        public long getPollLagMs() {
+            return pollLagMs;
+        }
+
+        public void setPollLagMs(long pollLagMs) {
+            this.pollLagMs = pollLagMs;
+        }
+
+        public long getScheduleLagMs() {
+            return scheduleLagMs;
+        }
+
+        public void setScheduleLagMs(long scheduleLagMs) {
+            this.scheduleLagMs = scheduleLagMs;
+        }
+
+        public double getReadLatencyMs() {
+            return readLatencyMs;
+        }
+
+        public void setReadLatencyMs(double readLatencyMs) {
+            this.readLatencyMs = readLatencyMs;
+        }
+
+        public double getQueueFill() {
+            return queueFill;
+        }
+
+        public void setQueueFill(double queueFill) {
+            this.queueFill = queueFill;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSampleIntervalMs() {
+        return sampleIntervalMs;
+    }
+
+    public void setSampleIntervalMs(long sampleIntervalMs) {
+        this.sampleIntervalMs = sampleIntervalMs;
+    }
+
+    public double getShedBackgroundAt() {
+        return shedBackgroundAt;
+    }
+
+    public void setShedBackgroundAt(double shedBackgroundAt) {
+        this.shedBackgroundAt = shedBackgroundAt;
+    }
+
+    public double getShedNormalAt() {
+        return shedNormalAt;
+    }
+
+    public void setShedNormalAt(double shedNormalAt) {
+        this.shedNormalAt = shedNormalAt;
+    }
+
+    public double getHysteresis() {
+        return hysteresis;
+    }
+
+    public void setHysteresis(double hysteresis) {
+        this.hysteresis = hysteresis;
+    }
+
+    public int getMaxInFlightReads() {
+        return maxInFlightReads;
+    }
+
+    public void setMaxInFlightReads(int maxInFlightReads) {
+        this.maxInFlightReads = maxInFlightReads;
+    }
+
+    public int getMaxInFlightAnalytics() {
+        return maxInFlightAnalytics;
+    }
+
+    public void setMaxInFlightAnalytics(int maxInFlightAnalytics) {
+        this.maxInFlightAnalytics = maxInFlightAnalytics;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    public void setRetryAfterMs(long retryAfterMs) {
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getCriticalPollIntervalMs() {
+        return criticalPollIntervalMs;
+    }
+
+    public void setCriticalPollIntervalMs(long criticalPollIntervalMs) {
+        this.criticalPollIntervalMs = criticalPollIntervalMs;
+    }
+
+    public Limits getLimits() {
+        return limits;
+    }
+
+    public void setLimits(Limits limits) {
+        this.limits = limits;
+    }
+}
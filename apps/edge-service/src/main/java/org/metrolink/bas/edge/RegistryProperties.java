@@ -0,0 +1,22 @@
+package org.metrolink.bas.edge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "bas.registry")
+public class RegistryProperties {
+    /**
+     * Node meta keys that get a secondary index (queryable in O(result) via /api/nodes?meta=key:value).
+     */
+    private Set<String> indexedMetaKeys = new LinkedHashSet<>(Set.of("units"));
+
+    public Set<String> getIndexedMetaKeys() {
+        return indexedMetaKeys;
+    }
+
+    public void setIndexedMetaKeys(Set<String> indexedMetaKeys) {
+        this.indexedMetaKeys = indexedMetaKeys;
+    }
+}
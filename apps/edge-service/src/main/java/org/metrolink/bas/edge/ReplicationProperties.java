@@ -0,0 +1,106 @@
+package org.metrolink.bas.edge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bas.replication")
+public class ReplicationProperties {
+    private boolean enabled = false;
+    private String gatewayId = "edge-1";
+    private String collectorUrl = "http://localhost:8080/api/collector/batches";
+    private String outboxDir = "./data/outbox";
+    private long maxSegmentBytes = 16 * 1024 * 1024;
+    private int maxBatchSamples = 5000;
+    private long flushIntervalMs = 1000;
+    private int maxPendingSamples = 200_000;
+    private double maxBatchesPerSecond = 5;   // catch-up pace after an outage
+    private long maxBackoffMs = 60_000;
+    private long timeoutMs = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getGatewayId() {
+        return gatewayId;
+    }
+
+    public void setGatewayId(String gatewayId) {
+        this.gatewayId = gatewayId;
+    }
+
+    public String getCollectorUrl() {
+        return collectorUrl;
+    }
+
+    public void setCollectorUrl(String collectorUrl) {
+        this.collectorUrl = collectorUrl;
+    }
+
+    public String getOutboxDir() {
+        return outboxDir;
+    }
+
+    public void setOutboxDir(String outboxDir) {
+        this.outboxDir = outboxDir;
+    }
+
+    public long getMaxSegmentBytes() {
+        return maxSegmentBytes;
+    }
+
+    public void setMaxSegmentBytes(long maxSegmentBytes) {
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    public int getMaxBatchSamples() {
+        return maxBatchSamples;
+    }
+
+    public void setMaxBatchSamples(int maxBatchSamples) {
+        this.maxBatchSamples = maxBatchSamples;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public int getMaxPendingSamples() {
+        return maxPendingSamples;
+    }
+
+    public void setMaxPendingSamples(int maxPendingSamples) {
+        this.maxPendingSamples = maxPendingSamples;
+    }
+
+    public double getMaxBatchesPerSecond() {
+        return maxBatchesPerSecond;
+    }
+
+    public void setMaxBatchesPerSecond(double maxBatchesPerSecond) {
+        this.maxBatchesPerSecond = maxBatchesPerSecond;
+    }
+
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    public void setMaxBackoffMs(long maxBackoffMs) {
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+}
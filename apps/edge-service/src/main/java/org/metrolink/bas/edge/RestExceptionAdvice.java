@@ -1,5 +1,9 @@
 package org.metrolink.bas.edge;
 
+import org.metrolink.bas.core.overload.OverloadException;
+import org.metrolink.bas.core.replication.BatchTooLargeException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,4 +15,23 @@ public class RestExceptionAdvice {
         String msg = ex.getMessage() != null ? ex.getMessage() : "Operation not implemented";
         return ResponseEntity.status(501).body(msg);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException ex) {
+        String msg = ex.getMessage() != null ? ex.getMessage() : "Bad request";
+        return ResponseEntity.badRequest().body(msg);
+    }
+
+    // shed by admission control; Retry-After in whole seconds, rounded up
+    @ExceptionHandler(OverloadException.class)
+    public ResponseEntity<String> overloaded(OverloadException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (ex.retryAfterMs() + 999) / 1000)))
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<String> tooLarge(BatchTooLargeException ex) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(ex.getMessage());
+    }
 }
@@ -0,0 +1,59 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.command.CommandScheduler;
+import org.metrolink.bas.core.command.Schedule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Weekly/exception/one-shot schedules per point; the value in effect is written on the next scheduler tick.
+ * Changes are persisted by {@link ScheduleStore} and survive a restart.
+ */
+@RestController
+@RequestMapping("/api/schedules")
+@ConditionalOnProperty(prefix = "bas.schedules", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ScheduleController {
+
+    private final CommandScheduler scheduler;
+    private final ScheduleStore store;
+
+    public ScheduleController(CommandScheduler scheduler, ScheduleStore store) {
+        this.scheduler = scheduler;
+        this.store = store;
+    }
+
+    @GetMapping
+    public List<Schedule> list() {
+        return scheduler.schedules();
+    }
+
+    @GetMapping("/state")
+    public ResponseEntity<CommandScheduler.State> state(@RequestParam String id) {
+        var s = scheduler.state(id);
+        return s != null ? ResponseEntity.ok(s) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/stats")
+    public CommandScheduler.Stats stats() {
+        return scheduler.stats();
+    }
+
+    // a missing pointId surfaces as IllegalArgumentException → 400
+    @PutMapping
+    public Schedule put(@RequestBody Schedule schedule) throws IOException {
+        scheduler.put(schedule);
+        store.put(schedule);
+        return schedule;
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> delete(@RequestParam String id) throws IOException {
+        if (!scheduler.remove(id)) return ResponseEntity.notFound().build();
+        store.remove(id);
+        return ResponseEntity.noContent().build();
+    }
+}
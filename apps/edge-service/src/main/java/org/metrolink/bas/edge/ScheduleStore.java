@@ -0,0 +1,72 @@
+package org.metrolink.bas.edge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.metrolink.bas.core.command.CommandScheduler;
+import org.metrolink.bas.core.command.Schedule;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Changes made through /api/schedules, kept in a JSON file so they survive a restart. On startup the config
+ * {@code points} are applied first, then this overlay: stored schedules replace config ones with the same point id,
+ * deleted ids are removed even when config defines them. The file is rewritten (temp file + atomic move) on every
+ * change; a {@code null} file keeps runtime changes in memory only.
+ */
+public class ScheduleStore {
+
+    /** On-disk form. */
+    public record Overlay(List<Schedule> put, List<String> deleted) {
+    }
+
+    private final Path file;
+    private final ObjectMapper json;
+    private final Map<String, Schedule> put = new LinkedHashMap<>();
+    private final Set<String> deleted = new LinkedHashSet<>();
+
+    public ScheduleStore(Path file, ObjectMapper json) throws IOException {
+        this.file = file;
+        this.json = json;
+        if (file != null && Files.exists(file)) {
+            var o = json.readValue(file.toFile(), Overlay.class);
+            if (o.put() != null) o.put().forEach(s -> put.put(s.pointId(), s));
+            if (o.deleted() != null) deleted.addAll(o.deleted());
+        }
+    }
+
+    /** Replays the stored changes; call after the config schedules are in and before the scheduler starts. */
+    public synchronized int applyTo(CommandScheduler scheduler) {
+        for (var id : deleted) scheduler.remove(id);
+        for (var s : put.values()) scheduler.put(s);
+        return put.size() + deleted.size();
+    }
+
+    public synchronized void put(Schedule schedule) throws IOException {
+        put.put(schedule.pointId(), schedule);
+        deleted.remove(schedule.pointId());
+        save();
+    }
+
+    public synchronized void remove(String pointId) throws IOException {
+        put.remove(pointId);
+        deleted.add(pointId);
+        save();
+    }
+
+    private void save() throws IOException {
+        if (file == null) return;
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        var tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        json.writerWithDefaultPrettyPrinter()
+                .writeValue(tmp.toFile(), new Overlay(new ArrayList<>(put.values()), new ArrayList<>(deleted)));
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,173 @@
+package org.metrolink.bas.edge;
+
+import org.metrolink.bas.core.command.Schedule;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "bas.schedules")
+public class SchedulesProperties {
+    private boolean enabled = true;
+    /**
+     * Zone for wall-clock transition times; empty = the system zone.
+     */
+    private String zone;
+    private long tickMs = 1000;
+    private long retryDelayMs = 30_000;
+    /**
+     * Devices written in parallel; one device's writes in a tick always run back to back on one thread.
+     */
+    private int writerThreads = 4;
+    /**
+     * JSON file keeping PUT/DELETE /api/schedules changes across restarts; empty = runtime changes are lost.
+     */
+    private String file = "./data/schedules.json";
+    /**
+     * Schedules defined at startup; more can be added at runtime via /api/schedules.
+     */
+    private List<Definition> points = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    public void setTickMs(long tickMs) {
+        this.tickMs = tickMs;
+    }
+
+    public long getRetryDelayMs() {
+        return retryDelayMs;
+    }
+
+    public void setRetryDelayMs(long retryDelayMs) {
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    public void setWriterThreads(int writerThreads) {
+        this.writerThreads = writerThreads;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public List<Definition> getPoints() {
+        return points;
+    }
+
+    public void setPoints(List<Definition> points) {
+        this.points = points;
+    }
+
+    /**
+     * Transitions are written {@code "HH:mm=value"}; values parse as number, true/false, or else stay text.
+     */
+    public static class Definition {
+        private String pointId;
+        private Integer priority;
+        private String defaultValue;
+        private Map<DayOfWeek, List<String>> weekly = new LinkedHashMap<>();
+        /**
+         * ISO date → transitions replacing that day's weekly program.
+         */
+        private Map<String, List<String>> exceptions = new LinkedHashMap<>();
+
+        public Schedule toSchedule() {
+            var w = new LinkedHashMap<DayOfWeek, List<Schedule.Transition>>();
+            weekly.forEach((day, ts) -> w.put(day, transitions(ts)));
+            var x = new LinkedHashMap<LocalDate, List<Schedule.Transition>>();
+            exceptions.forEach((date, ts) -> x.put(LocalDate.parse(date), transitions(ts)));
+            return new Schedule(pointId, w, x, List.of(), defaultValue != null ? value(defaultValue) : null, priority);
+        }
+
+        private static List<Schedule.Transition> transitions(List<String> specs) {
+            var out = new ArrayList<Schedule.Transition>();
+            for (var spec : specs) {
+                int eq = spec.indexOf('=');
+                if (eq < 0) throw new IllegalArgumentException("Expected HH:mm=value, got '" + spec + "'");
+                out.add(new Schedule.Transition(LocalTime.parse(spec.substring(0, eq).trim()),
+                        value(spec.substring(eq + 1).trim())));
+            }
+            return out;
+        }
+
+        private static Object value(String s) {
+            if (s.equalsIgnoreCase("true") || s.equalsIgnoreCase("false")) return Boolean.parseBoolean(s);
+            try {
+                return Double.parseDouble(s);
+            } catch (NumberFormatException e) {
+                return s;
+            }
+        }
+
+        public String getPointId() {
+            return pointId;
+        }
+
+        public void setPointId(String pointId) {
+            this.pointId = pointId;
+        }
+
+        public Integer getPriority() {
+            return priority;
+        }
+
+        public void setPriority(Integer priority) {
+            this.priority = priority;
+        }
+
+        public String getDefaultValue() {
+            return defaultValue;
+        }
+
+        public void setDefaultValue(String defaultValue) {
+            this.defaultValue = defaultValue;
+        }
+
+        public Map<DayOfWeek, List<String>> getWeekly() {
+            return weekly;
+        }
+
+        public void setWeekly(Map<DayOfWeek, List<String>> weekly) {
+            this.weekly = weekly;
+        }
+
+        public Map<String, List<String>> getExceptions() {
+            return exceptions;
+        }
+
+        public void setExceptions(Map<String, List<String>> exceptions) {
+            this.exceptions = exceptions;
+        }
+    }
+}
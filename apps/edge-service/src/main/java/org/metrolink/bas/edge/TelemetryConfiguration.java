@@ -0,0 +1,222 @@
+package org.metrolink.bas.edge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.metrolink.bas.core.Kernel;
+import org.metrolink.bas.core.alarm.RuleEngine;
+import org.metrolink.bas.core.audit.AuditJournal;
+import org.metrolink.bas.core.command.CommandScheduler;
+import org.metrolink.bas.core.historian.ColumnarArchive;
+import org.metrolink.bas.core.historian.Historian;
+import org.metrolink.bas.core.historian.InMemoryHistorian;
+import org.metrolink.bas.core.historian.QueryEngine;
+import org.metrolink.bas.core.historian.ReplicatingHistorian;
+import org.metrolink.bas.core.historian.RollupHistorian;
+import org.metrolink.bas.core.historian.RollupTier;
+import org.metrolink.bas.core.metrics.Op;
+import org.metrolink.bas.core.overload.OverloadController;
+import org.metrolink.bas.core.overload.Priority;
+import org.metrolink.bas.core.overload.Signals;
+import org.metrolink.bas.core.replication.HttpCollectorClient;
+import org.metrolink.bas.core.replication.ReplicationConfig;
+import org.metrolink.bas.core.replication.ReplicationPipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+
+@Configuration
+public class TelemetryConfiguration {
+    private static final Logger log = LoggerFactory.getLogger(TelemetryConfiguration.class);
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "bas.replication", name = "enabled", havingValue = "true")
+    public ReplicationPipeline replicationPipeline(ReplicationProperties p) throws Exception {
+        var cfg = new ReplicationConfig(
+                p.getGatewayId(),
+                Path.of(p.getOutboxDir()),
+                p.getMaxSegmentBytes(),
+                p.getMaxBatchSamples(),
+                Duration.ofMillis(p.getFlushIntervalMs()),
+                p.getMaxPendingSamples(),
+                p.getMaxBatchesPerSecond(),
+                Duration.ofMillis(p.getMaxBackoffMs()));
+        var client = new HttpCollectorClient(URI.create(p.getCollectorUrl()), Duration.ofMillis(p.getTimeoutMs()));
+        return new ReplicationPipeline(cfg, client);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bas.replication", name = "enabled", havingValue = "true")
+    public HealthIndicator replicationHealthIndicator(ReplicationPipeline pipeline) {
+        return () -> Health.up().withDetails(pipeline.stats()).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public RuleEngine ruleEngine(MeterRegistry registry) {
+        var engine = new RuleEngine();
+        engine.addListener(ev -> log.info("Alarm {} on {}: {} -> {} (value={})",
+                ev.ruleId(), ev.pointId(), ev.from(), ev.to(), ev.value()));
+        registry.gauge("bas_alarms_active", engine, e -> e.active().size());
+        FunctionCounter.builder("bas_alarm_evaluations", engine, RuleEngine::evaluations).register(registry);
+        return engine;
+    }
+
+    // hooked into Kernel.writeNow; the old value comes from the historian, not the field bus
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "bas.audit", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AuditJournal auditJournal(AuditProperties p, Kernel kernel, Historian historian, MeterRegistry registry)
+            throws Exception {
+        var journal = new AuditJournal(Path.of(p.getDir()), p.getMaxFileBytes(), p.getMaxFiles(),
+                p.getQueueCapacity(), Duration.ofMillis(p.getSyncIntervalMs()));
+        kernel.setAudit(journal, id -> {
+            var last = historian.last(id, 1);
+            return last.isEmpty() ? null : last.get(0).value();
+        });
+        FunctionCounter.builder("bas_audit_records", journal, j -> ((Number) j.stats().get("appended")).doubleValue())
+                .register(registry);
+        FunctionCounter.builder("bas_audit_dropped", journal, j -> ((Number) j.stats().get("dropped")).doubleValue())
+                .register(registry);
+        FunctionCounter.builder("bas_audit_failed", journal, j -> ((Number) j.stats().get("failed")).doubleValue())
+                .register(registry);
+        return journal;
+    }
+
+    // a lost audit record is a compliance gap, so health stays DOWN for a while after one
+    @Bean
+    @ConditionalOnProperty(prefix = "bas.audit", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public HealthIndicator auditHealthIndicator(AuditJournal journal, AuditProperties p) {
+        return () -> {
+            var stats = journal.stats();
+            long lastLossMs = ((Number) stats.get("lastLossMs")).longValue();
+            boolean lossy = lastLossMs > 0 && System.currentTimeMillis() - lastLossMs < p.getLossHealthWindowMs();
+            return (lossy ? Health.down() : Health.up()).withDetails(stats).build();
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bas.schedules", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ScheduleStore scheduleStore(SchedulesProperties p, ObjectMapper json) throws Exception {
+        return new ScheduleStore(p.getFile() == null || p.getFile().isBlank() ? null : Path.of(p.getFile()), json);
+    }
+
+    // startup schedules are written in their current state on the first tick, never replayed
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "bas.schedules", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public CommandScheduler commandScheduler(SchedulesProperties p, ScheduleStore store, Kernel kernel,
+                                             MeterRegistry registry) {
+        var zone = p.getZone() != null && !p.getZone().isBlank() ? ZoneId.of(p.getZone()) : ZoneId.systemDefault();
+        var scheduler = new CommandScheduler(kernel, zone, Duration.ofMillis(p.getTickMs()),
+                Duration.ofMillis(p.getRetryDelayMs()), p.getWriterThreads());
+        for (var d : p.getPoints()) scheduler.put(d.toSchedule());
+        int changes = store.applyTo(scheduler);
+        registry.gauge("bas_schedule_pending", scheduler, s -> s.stats().pending());
+        FunctionCounter.builder("bas_schedule_writes", scheduler, s -> s.stats().writes()).register(registry);
+        FunctionCounter.builder("bas_schedule_failures", scheduler, s -> s.stats().failures()).register(registry);
+        scheduler.start();
+        log.info("Command scheduler started with {} schedules, {} runtime changes from {} (zone {})",
+                scheduler.schedules().size(), changes, p.getFile(), zone);
+        return scheduler;
+    }
+
+    // poll lag is registered by TelemetryIngest itself, which depends on this bean
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "bas.overload", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public OverloadController overloadController(OverloadProperties p, Kernel kernel, MeterRegistry registry,
+                                                 ObjectProvider<AuditJournal> audit,
+                                                 ObjectProvider<ColumnarArchive> archive,
+                                                 ObjectProvider<ReplicationPipeline> replication,
+                                                 ObjectProvider<CommandScheduler> schedules,
+                                                 AuditProperties auditProps, HistorianProperties historianProps,
+                                                 ReplicationProperties replicationProps) {
+        var overload = new OverloadController(new OverloadController.Config(
+                Duration.ofMillis(p.getSampleIntervalMs()), p.getShedBackgroundAt(), p.getShedNormalAt(),
+                p.getHysteresis(), p.getMaxInFlightReads(), p.getMaxInFlightAnalytics(),
+                Duration.ofMillis(p.getRetryAfterMs())));
+        var limits = p.getLimits();
+        overload.addSignal("heapAfterGc", Signals.heapAfterGc(), limits.getHeapAfterGc());
+        overload.addSignal("readLatencyMs", Signals.meanLatencyMs(kernel.metrics(), Op.READ),
+                limits.getReadLatencyMs());
+        var a = audit.getIfAvailable();
+        if (a != null) {
+            overload.addSignal("auditQueue", () -> fill(a.stats().get("pending"), auditProps.getQueueCapacity()),
+                    limits.getQueueFill());
+        }
+        var c = archive.getIfAvailable();
+        if (c != null) {
+            overload.addSignal("archiveQueue",
+                    () -> fill(c.stats().get("queued"), historianProps.getArchive().getQueueCapacity()),
+                    limits.getQueueFill());
+        }
+        var r = replication.getIfAvailable();
+        if (r != null) {
+            overload.addSignal("replicationQueue",
+                    () -> fill(r.stats().get("pendingSamples"), replicationProps.getMaxPendingSamples()),
+                    limits.getQueueFill());
+        }
+        var s = schedules.getIfAvailable();
+        if (s != null) overload.addSignal("scheduleLagMs", () -> s.stats().lastTickLagMs(), limits.getScheduleLagMs());
+
+        overload.addListener(level -> log.warn("Overload level {} (pressure {})", level,
+                String.format("%.2f", overload.stats().pressure())));
+        registry.gauge("bas_overload_level", overload, o -> o.level().ordinal());
+        registry.gauge("bas_overload_pressure", overload, o -> o.stats().pressure());
+        for (var prio : Priority.values()) {
+            FunctionCounter.builder("bas_overload_shed", overload, o -> o.stats().shed().get(prio))
+                    .tag("priority", prio.name().toLowerCase()).register(registry);
+        }
+        overload.start();
+        return overload;
+    }
+
+    private static double fill(Object queued, int capacity) {
+        return queued instanceof Number n && capacity > 0 ? n.doubleValue() / capacity : 0;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "bas.historian.archive", name = "enabled", havingValue = "true")
+    public ColumnarArchive columnarArchive(HistorianProperties props, MeterRegistry registry) throws Exception {
+        var a = props.getArchive();
+        var archive = new ColumnarArchive(Path.of(a.getDir()), a.getChunkSamples(), a.getFlushInterval(),
+                a.getQueueCapacity(), (int) a.getRetention().toDays());
+        FunctionCounter.builder("bas_archive_dropped", archive, x -> ((Number) x.stats().get("dropped")).doubleValue())
+                .register(registry);
+        FunctionCounter.builder("bas_archive_exported_bytes", archive,
+                x -> ((Number) x.stats().get("exportedBytes")).doubleValue()).register(registry);
+        return archive;
+    }
+
+    @Bean(destroyMethod = "close")
+    public QueryEngine queryEngine(Historian historian, Kernel kernel, HistorianProperties props,
+                                   MeterRegistry registry) {
+        int parallelism = props.getQueryParallelism() > 0
+                ? props.getQueryParallelism() : Runtime.getRuntime().availableProcessors();
+        var engine = new QueryEngine(historian, kernel.registry(), parallelism);
+        FunctionCounter.builder("bas_history_queries", engine, e -> e.stats().queries()).register(registry);
+        FunctionCounter.builder("bas_history_query_points", engine, e -> e.stats().pointsScanned()).register(registry);
+        return engine;
+    }
+
+    @Bean
+    public Historian historian(ObjectProvider<ReplicationPipeline> replication, ObjectProvider<ColumnarArchive> archive,
+                               HistorianProperties props) {
+        var tiers = props.getRollups().stream()
+                .map(t -> new RollupTier(t.getResolution(), t.getRetention()))
+                .toList();
+        Historian local = new RollupHistorian(
+                new InMemoryHistorian(props.getRawRetention(), props.getRawMaxSamplesPerPoint()), tiers);
+        var columns = archive.getIfAvailable();
+        if (columns != null) local = new ReplicatingHistorian(local, columns);
+        var pipeline = replication.getIfAvailable();
+        return pipeline != null ? new ReplicatingHistorian(local, pipeline) : local;
+    }
+}
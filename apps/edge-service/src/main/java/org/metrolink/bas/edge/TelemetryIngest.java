@@ -0,0 +1,315 @@
+package org.metrolink.bas.edge;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.metrolink.bas.core.Kernel;
+import org.metrolink.bas.core.alarm.RuleEngine;
+import org.metrolink.bas.core.cluster.DeviceOwnership;
+import org.metrolink.bas.core.compute.ComputedPointEngine;
+import org.metrolink.bas.core.historian.Historian;
+import org.metrolink.bas.core.model.Node;
+import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.overload.OverloadController;
+import org.metrolink.bas.core.overload.Priority;
+import org.metrolink.bas.core.ports.ReaderPort;
+import org.metrolink.bas.core.scheduler.AdaptivePollConfig;
+import org.metrolink.bas.core.scheduler.AdaptivePoller;
+import org.metrolink.bas.core.scheduler.PollPlanner;
+import org.metrolink.bas.core.scheduler.PollScheduler;
+import org.metrolink.bas.core.spi.HistoryBackfill;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Flow;
+
+/**
+ * Discovery → poll/COV → historian + alarms + computed points loop for the edge box: discovers once the app is ready, then polls
+ * (and optionally subscribes to) every registered node it owns, feeding the {@link Historian} and the {@link RuleEngine}.
+ * The gap left by the outage before startup is filled from device-side history ({@link HistoryBackfill}) in the
+ * background. Under overload ({@link OverloadController}) slow poll lanes and COV of their points are skipped;
+ * the critical lane (batches at or below {@code bas.overload.criticalPollIntervalMs}; with adaptive polling, points
+ * near or in alarm) always runs.
+ */
+@Component
+public class TelemetryIngest {
+    private static final Logger log = LoggerFactory.getLogger(TelemetryIngest.class);
+
+    private final Kernel kernel;
+    private final Historian historian;
+    private final RuleEngine rules;
+    private final ComputedPointEngine computed;
+    private final IngestProperties props;
+    private final PollScheduler scheduler = new PollScheduler();
+    private final AdaptivePoller adaptive;
+    private final DeviceOwnership ownership;
+    private final HistoryBackfill backfill;
+    private final OverloadController overload;
+    private final long criticalIntervalMs;
+    private volatile Set<String> critical = Set.of();
+    private AutoCloseable polling;
+    private AutoCloseable subscription;
+    private boolean adaptiveStarted;
+
+    public TelemetryIngest(Kernel kernel, Historian historian, RuleEngine rules, ComputedPointEngine computed,
+                           IngestProperties props, MeterRegistry registry,
+                           ObjectProvider<DeviceOwnership> ownership, ObjectProvider<HistoryBackfill> backfill,
+                           ObjectProvider<OverloadController> overload, OverloadProperties overloadProps) {
+        this.kernel = kernel;
+        this.ownership = ownership.getIfAvailable();
+        this.backfill = backfill.getIfAvailable();
+        this.overload = overload.getIfAvailable();
+        this.criticalIntervalMs = overloadProps.getCriticalPollIntervalMs();
+        if (this.overload != null) {
+            this.overload.addSignal("pollLagMs", scheduler::lastLagMs, overloadProps.getLimits().getPollLagMs());
+        }
+        this.historian = historian;
+        this.rules = rules;
+        this.computed = computed;
+        this.props = props;
+        this.adaptive = props.getAdaptive().isEnabled() ? adaptivePoller(props.getAdaptive(), registry) : null;
+        if (adaptive != null) kernel.setInterest(adaptive::watch);    // other subscribers count as interest
+        // computed points are pushed as their inputs change, so they are never polled
+        computed.addListener(v -> {
+            historian.append(v);
+            rules.onValue(v);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!props.isEnabled()) return;
+        try {
+            kernel.discoverAndRegister();
+        } catch (Exception e) {
+            log.warn("Initial discovery failed; ingest idle until /api/discover: {}", e.toString());
+        }
+        warnShadowed();
+        if (ownership != null) ownership.addListener(this::replan);
+        // gap per point: newest stored sample (or the lookback limit) up to now, taken before live polling starts
+        long liveFromMs = System.currentTimeMillis();
+        var gaps = backfill != null && props.getBackfill().isEnabled() ? gaps(liveFromMs) : Map.<String, Long>of();
+        replan();
+        if (!gaps.isEmpty()) {
+            var t = new Thread(() -> backfill(gaps, liveFromMs), "history-backfill");
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    private Map<String, Long> gaps(long toMs) {
+        long floor = toMs - props.getBackfill().getMaxLookbackMs();
+        var fromByPoint = new LinkedHashMap<String, Long>();
+        for (var n : ownedNodes()) {
+            var last = historian.last(n.id(), 1);
+            fromByPoint.put(n.id(), last.isEmpty() ? floor : Math.max(floor, last.get(0).tsEpochMs() + 1));
+        }
+        return fromByPoint;
+    }
+
+    /**
+     * Asks the connector for the samples in each gap and bulk-inserts them oldest first. Alarms and computed points
+     * only follow the live stream, so recovered samples go to the historian alone.
+     */
+    private void backfill(Map<String, Long> fromByPoint, long toMs) {
+        try {
+            long t0 = System.nanoTime();
+            List<Value> recovered = backfill.backfill(fromByPoint, toMs);
+            if (recovered.isEmpty()) return;
+            var sorted = recovered.stream().sorted(Comparator.comparingLong(Value::tsEpochMs)).toList();
+            historian.appendAll(sorted);
+            log.info("Backfilled {} samples for {} points in {} ms", sorted.size(),
+                    sorted.stream().map(Value::pointId).distinct().count(), (System.nanoTime() - t0) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("History backfill failed; gap stays open: {}", e.toString());
+        }
+    }
+
+    private List<Node> ownedNodes() {
+        return kernel.nodes().stream()
+                .filter(n -> !computed.isComputed(n.id()))
+                .filter(n -> ownership == null || ownership.isLocal(n.deviceId()))
+                .toList();
+    }
+
+    /** Picks up points registered since the last plan, e.g. by {@code POST /api/discover}; no-op when disabled. */
+    public void nodesChanged() {
+        warnShadowed();
+        if (props.isEnabled()) replan();
+    }
+
+    private void warnShadowed() {
+        var shadowed = computed.shadowed();
+        if (!shadowed.isEmpty()) {
+            log.warn("Computed points {} dropped: physical points with the same ids were discovered", shadowed);
+        }
+    }
+
+    /**
+     * (Re)starts polling and COV for the nodes this instance owns: all of them standalone, its hash-ring share in a
+     * cluster. Runs again on every membership change so devices move without rediscovery.
+     */
+    public synchronized void replan() {
+        var nodes = ownedNodes();
+        var ids = nodes.stream().map(Node::id).toList();
+        closeQuietly(polling);
+        closeQuietly(subscription);
+        polling = null;
+        subscription = null;
+        if (ids.isEmpty() && adaptive == null) {
+            log.info("No owned nodes; nothing to poll");
+            return;
+        }
+        if (adaptive != null) {
+            log.info("Adaptive polling of {} points", ids.size());
+            adaptive.setPoints(ids);
+            if (!adaptiveStarted) {
+                adaptive.start();
+                adaptiveStarted = true;
+            }
+        } else {
+            // per-device batches, staggered across each interval instead of all firing at t=0
+            var planner = new PollPlanner(props.getMaxBatch(),
+                    PollPlanner.metaOr(Duration.ofMillis(props.getPollIntervalMs())));
+            var batches = planner.plan(nodes);
+            log.info("Polling {} points in {} batches (default every {} ms)", ids.size(), batches.size(),
+                    props.getPollIntervalMs());
+            var fast = new ArrayList<String>();
+            var handles = new ArrayList<AutoCloseable>(batches.size());
+            for (var b : batches) {
+                boolean isCritical = b.interval().toMillis() <= criticalIntervalMs;
+                if (isCritical) fast.addAll(b.pointIds());
+                handles.add(scheduler.start(reader(isCritical ? Priority.CRITICAL : Priority.NORMAL), b,
+                        this::onBatch));
+            }
+            critical = Set.copyOf(fast);
+            polling = () -> {
+                for (var h : handles) h.close();
+            };
+        }
+
+        if (props.isSubscribe() && !ids.isEmpty()) {
+            try {
+                subscription = kernel.subscribe(ids, new ValueSink(), false);
+            } catch (Exception e) {
+                log.warn("COV subscribe failed; relying on polling: {}", e.toString());
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws Exception {
+        if (subscription != null) subscription.close();
+        scheduler.close();
+        if (adaptive != null) adaptive.close();
+    }
+
+    private static void closeQuietly(AutoCloseable c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (Exception e) {
+            log.debug("close failed: {}", e.toString());
+        }
+    }
+
+    /** API reads call this so watched points get polled faster (no-op with fixed-interval polling). */
+    public void touch(Collection<String> ids) {
+        if (adaptive != null) adaptive.touch(ids);
+    }
+
+    private AdaptivePoller adaptivePoller(IngestProperties.Adaptive a, MeterRegistry registry) {
+        var cfg = new AdaptivePollConfig(Duration.ofMillis(a.getMinIntervalMs()), Duration.ofMillis(a.getMaxIntervalMs()),
+                Duration.ofMillis(a.getInterestIntervalMs()), Duration.ofMillis(a.getInterestTtlMs()),
+                a.getBudgetReadsPerSecond(), a.getDefaultDeadband(), a.getMaxBatch());
+        var urgentReader = reader(Priority.CRITICAL);
+        var normalReader = reader(Priority.NORMAL);
+        var poller = new AdaptivePoller((ids, urgent) -> (urgent ? urgentReader : normalReader).read(ids), cfg,
+                this::deadband, rules::proximity, this::deviceOf, this::onBatch);
+
+        // aggregate gauges only: a per-point interval tag would be unbounded cardinality
+        Gauge.builder("bas_poll_planned_reads_per_second", poller, p -> p.stats().plannedReadsPerSecond())
+                .register(registry);
+        Gauge.builder("bas_poll_budget_reads_per_second", poller, p -> p.stats().budgetReadsPerSecond())
+                .register(registry);
+        Gauge.builder("bas_poll_interested_points", poller, p -> p.stats().interested()).register(registry);
+        Gauge.builder("bas_poll_interval_seconds", poller, p -> p.stats().minIntervalMs() / 1000.0)
+                .tag("stat", "min").register(registry);
+        Gauge.builder("bas_poll_interval_seconds", poller, p -> p.stats().medianIntervalMs() / 1000.0)
+                .tag("stat", "median").register(registry);
+        Gauge.builder("bas_poll_interval_seconds", poller, p -> p.stats().maxIntervalMs() / 1000.0)
+                .tag("stat", "max").register(registry);
+        FunctionCounter.builder("bas_poll_reads", poller, p -> p.stats().reads()).register(registry);
+        FunctionCounter.builder("bas_poll_errors", poller, p -> p.stats().errors()).register(registry);
+        return poller;
+    }
+
+    // a shed poll reads nothing; the point's next turn comes at its usual interval
+    private ReaderPort reader(Priority priority) {
+        if (overload == null) return kernel::readNow;
+        return ids -> overload.admit(priority) ? kernel.readNow(ids) : Map.of();
+    }
+
+    private String deviceOf(String pointId) {
+        var node = kernel.registry().get(pointId);
+        return node != null ? node.deviceId() : "";
+    }
+
+    private boolean isCritical(String pointId) {
+        return critical.contains(pointId) || adaptive != null && adaptive.urgent(pointId);
+    }
+
+    // deadband from node meta ("deadband", else the COV increment the connector reports)
+    private double deadband(String pointId) {
+        var node = kernel.registry().get(pointId);
+        if (node == null || node.meta() == null) return 0;
+        for (var key : new String[]{"deadband", "covIncrement"}) {
+            if (node.meta().get(key) instanceof Number n) return n.doubleValue();
+        }
+        return 0;
+    }
+
+    private void onBatch(Map<String, Value> batch) {
+        for (var v : batch.values()) historian.append(v);
+        rules.accept(batch);
+        computed.onValues(batch.values());
+    }
+
+    private final class ValueSink implements Flow.Subscriber<Value> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(Value item) {
+            if (overload != null && !overload.admit(isCritical(item.pointId()) ? Priority.CRITICAL : Priority.NORMAL)) {
+                return;   // shed: polling still delivers this point's value
+            }
+            historian.append(item);
+            rules.onValue(item);
+            computed.onValue(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            log.warn("COV stream failed: {}", throwable.toString());
+        }
+
+        @Override
+        public void onComplete() { /* no-op */ }
+    }
+}
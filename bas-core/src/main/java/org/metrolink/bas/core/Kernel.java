@@ -1,73 +1,320 @@
 package org.metrolink.bas.core;
 
+import org.metrolink.bas.core.audit.AuditSink;
+import org.metrolink.bas.core.metrics.ConnectorMetrics;
+import org.metrolink.bas.core.metrics.Op;
 import org.metrolink.bas.core.model.*;
 import org.metrolink.bas.core.ports.*;
+import org.metrolink.bas.core.registry.NodeRegistry;
+import org.metrolink.bas.core.registry.RegistryDelta;
+import org.metrolink.bas.core.time.Clock;
+import org.metrolink.bas.core.trace.ConnectorCallEvent;
+import org.metrolink.bas.core.trace.SubscriptionDeliveryEvent;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
 
 public final class Kernel {
+    /** {@link #writeNow} option naming who issued the command. */
+    public static final String CALLER = "caller";
+
     private final DiscoveryPort discovery;
     private final ReaderPort reader;
     private final WriterPort writer;
     private final SubscribePort subscribe;
     private final HealthPort health;
-
-    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+    private final ConnectorMetrics metrics;
+    private final NodeRegistry nodes;
+    private final Clock clock;
+    private volatile AuditSink audit = AuditSink.NONE;
+    private volatile Function<String, Object> lastKnown = id -> null;
+    private volatile Function<List<String>, AutoCloseable> interest = ids -> () -> { };
 
     public Kernel(DiscoveryPort d, ReaderPort r, WriterPort w, SubscribePort s, HealthPort h) {
+        this(d, r, w, s, h, new ConnectorMetrics());
+    }
+
+    public Kernel(DiscoveryPort d, ReaderPort r, WriterPort w, SubscribePort s, HealthPort h, ConnectorMetrics metrics) {
+        this(d, r, w, s, h, metrics, new NodeRegistry());
+    }
+
+    public Kernel(DiscoveryPort d, ReaderPort r, WriterPort w, SubscribePort s, HealthPort h,
+                  ConnectorMetrics metrics, NodeRegistry registry) {
+        this(d, r, w, s, h, metrics, registry, Clock.SYSTEM);
+    }
+
+    /** Times operations, audit records and COV lag with {@code clock}, e.g. a {@code VirtualClock} in soak runs. */
+    public Kernel(DiscoveryPort d, ReaderPort r, WriterPort w, SubscribePort s, HealthPort h,
+                  ConnectorMetrics metrics, NodeRegistry registry, Clock clock) {
         this.discovery = d;
         this.reader = r;
         this.writer = w;
         this.subscribe = s;
         this.health = h;
+        this.metrics = metrics;
+        this.nodes = registry;
+        this.clock = Objects.requireNonNull(clock);
     }
 
+    /**
+     * Rediscovers every device and applies the result incrementally: per device, new points are added, changed ones
+     * replaced and vanished ones dropped. Devices that do not answer keep their nodes (offline is not removed).
+     */
     public List<Node> discoverAndRegister() throws Exception {
-        var devices = discovery.discoverDevices(Duration.ofSeconds(2));
+        var devices = discoverDevices(Duration.ofSeconds(2));
         var out = new ArrayList<Node>();
 
         for (var dev : devices) {
-            for (var p : discovery.discoverPoints(dev, Duration.ofSeconds(2))) {
-                var n = new Node(p.id(), dev.id(), p.name(), p.kind(), p.writable(), p.meta());
-                nodes.put(n.id(), n);
-                out.add(n);
-            }
+            var fresh = nodesOf(dev, discoverPoints(dev, Duration.ofSeconds(2)));
+            nodes.replaceDevice(dev.id(), fresh);
+            out.addAll(fresh);
         }
 
         return out;
     }
 
+    /** Re-runs point discovery for one device and applies the delta to the registry. */
+    public RegistryDelta rediscover(Device device, Duration timeout) throws Exception {
+        return nodes.replaceDevice(device.id(), nodesOf(device, discoverPoints(device, timeout)));
+    }
+
     public List<Device> discoverDevices(Duration timeout) throws Exception {
-        return discovery.discoverDevices(timeout);
+        var stats = metrics.stats(ConnectorMetrics.ANY_DEVICE, Op.DISCOVERY);
+        var ev = begin(Op.DISCOVERY);
+        long t0 = clock.nanoTime();
+        try {
+            var out = discovery.discoverDevices(timeout);
+            stats.recordSuccess(clock.nanoTime() - t0);
+            commit(ev, null, null, out.size(), true);
+            return out;
+        } catch (Exception e) {
+            stats.recordFailure(clock.nanoTime() - t0, e);
+            commit(ev, null, null, 0, false);
+            throw e;
+        }
     }
 
     public List<Point> discoverPoints(Device device, Duration timeout) throws Exception {
-        return discovery.discoverPoints(device, timeout);
+        var stats = metrics.stats(device.id(), Op.DISCOVERY);
+        var ev = begin(Op.DISCOVERY);
+        long t0 = clock.nanoTime();
+        try {
+            var out = discovery.discoverPoints(device, timeout);
+            stats.recordSuccess(clock.nanoTime() - t0);
+            commit(ev, device.id(), null, out.size(), true);
+            return out;
+        } catch (Exception e) {
+            stats.recordFailure(clock.nanoTime() - t0, e);
+            commit(ev, device.id(), null, 0, false);
+            throw e;
+        }
     }
 
     public Map<String, Value> readNow(List<String> ids) throws Exception {
-        return reader.read(ids);
+        var ev = begin(Op.READ);
+        long t0 = clock.nanoTime();
+        try {
+            var out = reader.read(ids);
+            long elapsed = clock.nanoTime() - t0;
+            for (var dev : devicesOf(ids)) metrics.stats(dev, Op.READ).recordSuccess(elapsed);
+            commit(ev, ids, true);
+            return out;
+        } catch (Exception e) {
+            long elapsed = clock.nanoTime() - t0;
+            for (var dev : devicesOf(ids)) metrics.stats(dev, Op.READ).recordFailure(elapsed, e);
+            commit(ev, ids, false);
+            throw e;
+        }
     }
 
     public void writeNow(String pointId, Object value) throws Exception {
-        writer.write(pointId, value, java.util.Map.of());
+        writeNow(pointId, value, Map.of());
+    }
+
+    /**
+     * Options: {@value #CALLER} (who issued it) is for the audit journal only and is removed before the connector
+     * sees the options; "priority" and the rest pass through.
+     */
+    public void writeNow(String pointId, Object value, Map<String, Object> opts) throws Exception {
+        if (opts == null) opts = Map.of();
+        var device = deviceOf(pointId);
+        var stats = metrics.stats(device, Op.WRITE);
+        var audit = this.audit;
+        Object old = audit != AuditSink.NONE ? lastKnown.apply(pointId) : null;
+        var ev = begin(Op.WRITE);
+        long t0 = clock.nanoTime();
+        try {
+            writer.write(pointId, value, connectorOpts(opts));
+            long elapsed = clock.nanoTime() - t0;
+            stats.recordSuccess(elapsed);
+            commit(ev, device, pointId, 1, true);
+            audit.record(clock.currentTimeMillis(), callerOf(opts), pointId, old, value, priorityOf(opts), null,
+                    elapsed);
+        } catch (Exception e) {
+            long elapsed = clock.nanoTime() - t0;
+            stats.recordFailure(elapsed, e);
+            commit(ev, device, pointId, 1, false);
+            audit.record(clock.currentTimeMillis(), callerOf(opts), pointId, old, value, priorityOf(opts),
+                    String.valueOf(e), elapsed);
+            throw e;
+        }
+    }
+
+    /**
+     * Records every {@link #writeNow} in {@code sink}; {@code lastKnown} supplies the value before the write
+     * (e.g. the historian's latest sample) so auditing never costs a field-bus read.
+     */
+    public void setAudit(AuditSink sink, Function<String, Object> lastKnown) {
+        this.lastKnown = lastKnown != null ? lastKnown : id -> null;
+        this.audit = sink != null ? sink : AuditSink.NONE;
+    }
+
+    private static Map<String, Object> connectorOpts(Map<String, Object> opts) {
+        if (!opts.containsKey(CALLER)) return opts;
+        var out = new LinkedHashMap<>(opts);
+        out.remove(CALLER);
+        return out;
+    }
+
+    private static String callerOf(Map<String, Object> opts) {
+        var c = opts.get(CALLER);
+        return c != null ? c.toString() : null;
+    }
+
+    private static Integer priorityOf(Map<String, Object> opts) {
+        return opts.get("priority") instanceof Number n ? n.intValue() : null;
+    }
+
+    /**
+     * Reports every watched {@link #subscribe} to {@code watch} (e.g. the adaptive poller's interest); the handle it
+     * returns is closed with the subscription.
+     */
+    public void setInterest(Function<List<String>, AutoCloseable> watch) {
+        this.interest = watch != null ? watch : ids -> () -> { };
     }
 
-    public void writeNow(String pointId, Object value, java.util.Map<String, Object> opts) throws Exception {
-        writer.write(pointId, value, (opts != null ? opts : java.util.Map.of()));
+    /** Subscribes through the connector as a watcher of {@code pointIds} (see {@link #setInterest}). */
+    public AutoCloseable subscribe(List<String> pointIds, Flow.Subscriber<Value> subscriber) throws Exception {
+        return subscribe(pointIds, subscriber, true);
     }
 
+    /**
+     * Subscribes through the connector; COV stats record delivery lag (receive time − sample timestamp). Feeds that
+     * take every point (telemetry ingest) pass {@code watched = false}, since nobody is looking at those points.
+     */
+    public AutoCloseable subscribe(List<String> pointIds, Flow.Subscriber<Value> subscriber, boolean watched)
+            throws Exception {
+        var handle = subscribe.subscribe(pointIds, new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscriber.onSubscribe(subscription);
+            }
+
+            @Override
+            public void onNext(Value item) {
+                var device = deviceOf(item.pointId());
+                long lagMs = Math.max(0, clock.currentTimeMillis() - item.tsEpochMs());
+                metrics.stats(device, Op.COV).recordSuccess(lagMs * 1_000_000);
+
+                var ev = new SubscriptionDeliveryEvent();
+                ev.begin();
+                subscriber.onNext(item);
+                if (ev.shouldCommit()) {
+                    ev.deviceId = device;
+                    ev.pointId = item.pointId();
+                    ev.waitMs = lagMs;
+                    ev.commit();
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                metrics.stats(ConnectorMetrics.ANY_DEVICE, Op.COV).recordFailure(0, throwable);
+                subscriber.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                subscriber.onComplete();
+            }
+        });
+        if (!watched) return handle;
+        var watch = interest.apply(List.copyOf(pointIds));
+        return () -> {
+            try {
+                handle.close();
+            } finally {
+                watch.close();
+            }
+        };
+    }
 
     public Collection<Node> nodes() {
-        return nodes.values();
+        return nodes.all();
+    }
+
+    public NodeRegistry registry() {
+        return nodes;
+    }
+
+    public ConnectorMetrics metrics() {
+        return metrics;
     }
 
     public HealthStatus health() {
-        return health.health();
+        var s = health.health();
+        var m = new LinkedHashMap<String, Object>();
+        if (s.metrics() != null) m.putAll(s.metrics());
+        m.put("ops", metrics.snapshot());
+        return new HealthStatus(s.up(), m);
+    }
+
+    // JFR: begin() is near-free when the event type is disabled; fields are only filled when it will be committed
+    private static ConnectorCallEvent begin(Op op) {
+        var ev = new ConnectorCallEvent();
+        ev.op = op.tag();
+        ev.begin();
+        return ev;
+    }
+
+    private void commit(ConnectorCallEvent ev, List<String> ids, boolean success) {
+        if (!ev.shouldCommit()) return;
+        var first = ids.isEmpty() ? null : ids.get(0);
+        commit(ev, first != null ? deviceOf(first) : null, first, ids.size(), success);
+    }
+
+    private static void commit(ConnectorCallEvent ev, String deviceId, String pointId, int count, boolean success) {
+        if (!ev.shouldCommit()) return;
+        ev.deviceId = deviceId;
+        ev.pointId = pointId;
+        ev.pointCount = count;
+        ev.success = success;
+        ev.commit();
+    }
+
+    private static List<Node> nodesOf(Device dev, List<Point> points) {
+        var out = new ArrayList<Node>(points.size());
+        for (var p : points) out.add(new Node(p.id(), dev.id(), p.name(), p.kind(), p.writable(), p.meta()));
+        return out;
+    }
+
+    private String deviceOf(String pointId) {
+        var n = nodes.get(pointId);
+        return n != null ? n.deviceId() : ConnectorMetrics.UNKNOWN_DEVICE;
+    }
+
+    private Collection<String> devicesOf(List<String> ids) {
+        if (ids.size() == 1) return List.of(deviceOf(ids.get(0)));
+        var out = new HashSet<String>();
+        for (var id : ids) out.add(deviceOf(id));
+        return out;
     }
 }
@@ -0,0 +1,5 @@
+package org.metrolink.bas.core.alarm;
+
+public enum AlarmCondition {
+    NORMAL, HIGH, LOW, RATE
+}
@@ -0,0 +1,9 @@
+package org.metrolink.bas.core.alarm;
+
+public record AlarmEvent(String ruleId, String pointId, AlarmCondition from, AlarmCondition to,
+                         double value, long tsEpochMs) {
+
+    public boolean active() {
+        return to != AlarmCondition.NORMAL;
+    }
+}
@@ -0,0 +1,13 @@
+package org.metrolink.bas.core.alarm;
+
+/**
+ * A rule watching a single point. Rules are immutable; evaluation state lives in the {@link RuleEngine}.
+ */
+public sealed interface AlarmRule permits LimitRule, RateOfChangeRule {
+    String id();
+
+    String pointId();
+
+    /** How long a condition must hold before the alarm changes state (both entering and clearing). */
+    long delayMs();
+}
@@ -0,0 +1,18 @@
+package org.metrolink.bas.core.alarm;
+
+/**
+ * High/low limit alarm. Once active it clears only after the value is back inside the limit by
+ * {@code hysteresis}. Either limit may be {@code null}, but not both.
+ */
+public record LimitRule(String id, String pointId, Double high, Double low, double hysteresis, long delayMs)
+        implements AlarmRule {
+
+    public LimitRule {
+        if (id == null || id.isBlank()) throw new IllegalArgumentException("id is required");
+        if (pointId == null || pointId.isBlank()) throw new IllegalArgumentException("pointId is required");
+        if (high == null && low == null) throw new IllegalArgumentException("high or low is required");
+        if (high != null && low != null && high < low) throw new IllegalArgumentException("high < low");
+        if (!(hysteresis >= 0)) throw new IllegalArgumentException("hysteresis must be >= 0");
+        if (delayMs < 0) throw new IllegalArgumentException("delayMs must be >= 0");
+    }
+}
@@ -0,0 +1,17 @@
+package org.metrolink.bas.core.alarm;
+
+/**
+ * Fires when |Δvalue/Δt| between consecutive samples exceeds {@code maxPerSecond}; clears below
+ * {@code maxPerSecond - hysteresis}.
+ */
+public record RateOfChangeRule(String id, String pointId, double maxPerSecond, double hysteresis, long delayMs)
+        implements AlarmRule {
+
+    public RateOfChangeRule {
+        if (id == null || id.isBlank()) throw new IllegalArgumentException("id is required");
+        if (pointId == null || pointId.isBlank()) throw new IllegalArgumentException("pointId is required");
+        if (!(maxPerSecond > 0)) throw new IllegalArgumentException("maxPerSecond must be > 0");
+        if (!(hysteresis >= 0)) throw new IllegalArgumentException("hysteresis must be >= 0");
+        if (delayMs < 0) throw new IllegalArgumentException("delayMs must be >= 0");
+    }
+}
@@ -0,0 +1,202 @@
+package org.metrolink.bas.core.alarm;
+
+import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.time.Clock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Incremental alarm evaluation on the live value stream.
+ * <p>
+ * Rules are indexed by the point they watch, so each incoming {@link Value} touches only that point's rules
+ * (O(rules on the point), independent of the total rule count). Feed it from poll batches via
+ * {@link #accept(Map)} and from COV by passing it to {@code SubscribePort.subscribe} as a subscriber.
+ * <p>
+ * A condition with a {@code delayMs} is entered on the first sample past the delay or, when the point goes quiet
+ * (COV only reports changes), by a sweep every {@value #SWEEP_MS} ms over the rules still waiting, stamped with the
+ * moment the delay ran out. Replacing a rule on the same point and kind keeps its condition; otherwise, and on
+ * removal, an active alarm is closed with an event back to NORMAL.
+ */
+public final class RuleEngine implements Flow.Subscriber<Value>, Consumer<Map<String, Value>>, AutoCloseable {
+    private static final RuleState[] NONE = new RuleState[0];
+    private static final long SWEEP_MS = 1000;
+
+    // point id → rules on it; arrays are replaced on change so the hot path reads without locking
+    private final Map<String, RuleState[]> byPoint = new ConcurrentHashMap<>();
+    private final Map<String, RuleState> byId = new ConcurrentHashMap<>();
+    private final List<Consumer<AlarmEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final Set<RuleState> waiting = ConcurrentHashMap.newKeySet();    // pending condition with a delay
+    private final LongAdder evaluations = new LongAdder();
+    private final Clock clock;
+    private final ScheduledExecutorService ses;
+    private final boolean ownsExecutor;
+
+    public RuleEngine() {
+        this(Clock.SYSTEM, Executors.newSingleThreadScheduledExecutor(r -> {
+            var t = new Thread(r, "alarm-sweep");
+            t.setDaemon(true);
+            return t;
+        }), true);
+    }
+
+    /**
+     * Sweeps on {@code ses} by {@code clock}, e.g. a {@code VirtualScheduler} and its clock. The executor stays the
+     * caller's: {@link #close()} leaves it running.
+     */
+    public RuleEngine(Clock clock, ScheduledExecutorService ses) {
+        this(clock, ses, false);
+    }
+
+    private RuleEngine(Clock clock, ScheduledExecutorService ses, boolean ownsExecutor) {
+        this.clock = Objects.requireNonNull(clock);
+        this.ses = Objects.requireNonNull(ses);
+        this.ownsExecutor = ownsExecutor;
+        ses.scheduleWithFixedDelay(this::sweep, SWEEP_MS, SWEEP_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void addRule(AlarmRule rule) {
+        var old = byId.get(rule.id());
+        boolean carry = old != null && old.rule.pointId().equals(rule.pointId())
+                && old.rule.getClass() == rule.getClass();
+        var state = carry ? new RuleState(rule, old) : new RuleState(rule);
+        var prev = byId.put(rule.id(), state);
+        if (prev != null) {
+            detach(prev);
+            if (!carry || prev != old) publish(prev.retire(clock.currentTimeMillis()));
+        }
+        if (rule.delayMs() > 0) track(state);
+        byPoint.merge(rule.pointId(), new RuleState[]{state}, (a, b) -> {
+            var out = Arrays.copyOf(a, a.length + 1);
+            out[a.length] = b[0];
+            return out;
+        });
+    }
+
+    public boolean removeRule(String ruleId) {
+        var state = byId.remove(ruleId);
+        if (state == null) return false;
+        detach(state);
+        publish(state.retire(clock.currentTimeMillis()));
+        return true;
+    }
+
+    public List<AlarmRule> rules() {
+        return byId.values().stream().map(s -> s.rule).toList();
+    }
+
+    public void addListener(Consumer<AlarmEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void onValue(Value v) {
+        var states = byPoint.getOrDefault(v.pointId(), NONE);
+        if (states.length == 0 || !(v.value() instanceof Number n)) return;
+        double x = n.doubleValue();
+        for (var s : states) {
+            evaluations.increment();
+            var ev = s.evaluate(x, v.tsEpochMs());
+            if (s.rule.delayMs() > 0) track(s);
+            publish(ev);
+        }
+    }
+
+    /** Enters every delayed condition that came due by now; runs on the sweep schedule. */
+    public void sweep() {
+        try {
+            long now = clock.currentTimeMillis();
+            for (var s : waiting) {
+                var ev = s.promoteIfDue(now);
+                track(s);
+                publish(ev);
+            }
+        } catch (Throwable t) {
+            t.printStackTrace();   // keep sweeping
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) ses.shutdownNow();
+    }
+
+    /** Poll batch entry point. */
+    @Override
+    public void accept(Map<String, Value> batch) {
+        for (var v : batch.values()) onValue(v);
+    }
+
+    /** Rules currently not NORMAL; {@code tsEpochMs} is when they entered that condition. */
+    public List<AlarmEvent> active() {
+        var out = new ArrayList<AlarmEvent>();
+        for (var s : byId.values()) {
+            if (s.current() != AlarmCondition.NORMAL) out.add(s.snapshot());
+        }
+        return out;
+    }
+
+    /** Max {@code proximity} over the rules watching {@code pointId}, in [0, 1]; 0 when unwatched. */
+    public double proximity(String pointId) {
+        double p = 0;
+        for (var s : byPoint.getOrDefault(pointId, NONE)) p = Math.max(p, s.proximity());
+        return p;
+    }
+
+    public long evaluations() {
+        return evaluations.sum();
+    }
+
+    // ---- Flow.Subscriber (COV) ----
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(Value item) {
+        onValue(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        throwable.printStackTrace();
+    }
+
+    @Override
+    public void onComplete() { /* no-op */ }
+
+    // remove-then-recheck, so a sample that makes the rule pending concurrently is not lost from the sweep
+    private void track(RuleState s) {
+        if (s.pending()) {
+            waiting.add(s);
+        } else if (waiting.remove(s) && s.pending()) {
+            waiting.add(s);
+        }
+    }
+
+    private void publish(AlarmEvent ev) {
+        if (ev == null) return;
+        for (var l : listeners) l.accept(ev);
+    }
+
+    private void detach(RuleState state) {
+        waiting.remove(state);
+        byPoint.computeIfPresent(state.rule.pointId(), (k, arr) -> {
+            var out = Arrays.stream(arr).filter(s -> s != state).toArray(RuleState[]::new);
+            return out.length == 0 ? null : out;
+        });
+    }
+}
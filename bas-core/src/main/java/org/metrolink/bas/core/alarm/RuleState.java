@@ -0,0 +1,128 @@
+package org.metrolink.bas.core.alarm;
+
+/**
+ * Constant-size evaluation state for one rule. Calls are serialized per rule.
+ */
+final class RuleState {
+    final AlarmRule rule;
+
+    private AlarmCondition current = AlarmCondition.NORMAL;
+    private AlarmCondition pending = AlarmCondition.NORMAL;
+    private long pendingSinceMs;
+    private double lastValue = Double.NaN;
+    private long lastTsMs;
+    private double currentValue = Double.NaN;
+    private double lastRate;
+    private long sinceMs;
+
+    RuleState(AlarmRule rule) {
+        this.rule = rule;
+    }
+
+    /** Replacement for {@code prev} (same point, same kind): keeps its condition and history. */
+    RuleState(AlarmRule rule, RuleState prev) {
+        this.rule = rule;
+        synchronized (prev) {
+            current = prev.current;
+            pending = prev.pending;
+            pendingSinceMs = prev.pendingSinceMs;
+            lastValue = prev.lastValue;
+            lastTsMs = prev.lastTsMs;
+            currentValue = prev.currentValue;
+            lastRate = prev.lastRate;
+            sinceMs = prev.sinceMs;
+        }
+    }
+
+    /** Returns the transition caused by this sample, or {@code null}. */
+    synchronized AlarmEvent evaluate(double x, long tsMs) {
+        var target = (rule instanceof LimitRule r) ? limit(r, x) : rate((RateOfChangeRule) rule, x, tsMs);
+        lastValue = x;
+        lastTsMs = tsMs;
+        currentValue = x;
+
+        if (target == current) {
+            pending = current;
+            return null;
+        }
+        if (target != pending) {
+            pending = target;
+            pendingSinceMs = tsMs;
+        }
+        if (tsMs - pendingSinceMs < rule.delayMs()) return null;
+
+        var from = current;
+        current = target;
+        sinceMs = tsMs;
+        return new AlarmEvent(rule.id(), rule.pointId(), from, target, x, tsMs);
+    }
+
+    /** Enters a pending condition whose delay ran out without a new sample; {@code null} when none is due. */
+    synchronized AlarmEvent promoteIfDue(long nowMs) {
+        if (pending == current || nowMs - pendingSinceMs < rule.delayMs()) return null;
+        var from = current;
+        current = pending;
+        sinceMs = pendingSinceMs + rule.delayMs();
+        return new AlarmEvent(rule.id(), rule.pointId(), from, current, currentValue, sinceMs);
+    }
+
+    /** A condition change is waiting out its delay. */
+    synchronized boolean pending() {
+        return pending != current;
+    }
+
+    /** The event a removed rule leaves behind: back to NORMAL, or {@code null} when it already was. */
+    synchronized AlarmEvent retire(long nowMs) {
+        if (current == AlarmCondition.NORMAL) return null;
+        return new AlarmEvent(rule.id(), rule.pointId(), current, AlarmCondition.NORMAL, currentValue, nowMs);
+    }
+
+    synchronized AlarmCondition current() {
+        return current;
+    }
+
+    /** Current condition as an event stamped with the time it was entered. */
+    synchronized AlarmEvent snapshot() {
+        return new AlarmEvent(rule.id(), rule.pointId(), current, current, currentValue, sinceMs);
+    }
+
+    /**
+     * How close the point is to tripping this rule: 1 when not NORMAL, otherwise the fraction of the approach band
+     * already covered (10% of the limit span, or a few hysteresis widths for a one-sided limit), 0 when far away.
+     */
+    synchronized double proximity() {
+        if (current != AlarmCondition.NORMAL) return 1;
+        if (Double.isNaN(currentValue)) return 0;
+        if (rule instanceof RateOfChangeRule r) return clamp(lastRate / r.maxPerSecond());
+        var r = (LimitRule) rule;
+        if (r.high() == null && r.low() == null) return 0;
+        double margin = Double.MAX_VALUE;
+        if (r.high() != null) margin = Math.min(margin, r.high() - currentValue);
+        if (r.low() != null) margin = Math.min(margin, currentValue - r.low());
+        double band = (r.high() != null && r.low() != null)
+                ? 0.1 * (r.high() - r.low())
+                : Math.max(4 * r.hysteresis(), 0.05 * Math.abs(r.high() != null ? r.high() : r.low()));
+        return band > 0 ? clamp(1 - margin / band) : 0;
+    }
+
+    private static double clamp(double x) {
+        return x < 0 ? 0 : Math.min(x, 1);
+    }
+
+    private AlarmCondition limit(LimitRule r, double x) {
+        if (r.high() != null && x > r.high()) return AlarmCondition.HIGH;
+        if (r.low() != null && x < r.low()) return AlarmCondition.LOW;
+        if (current == AlarmCondition.HIGH && r.high() != null && x > r.high() - r.hysteresis()) return current;
+        if (current == AlarmCondition.LOW && r.low() != null && x < r.low() + r.hysteresis()) return current;
+        return AlarmCondition.NORMAL;
+    }
+
+    private AlarmCondition rate(RateOfChangeRule r, double x, long tsMs) {
+        if (Double.isNaN(lastValue) || tsMs <= lastTsMs) return current;
+        double perSecond = Math.abs(x - lastValue) * 1000.0 / (tsMs - lastTsMs);
+        lastRate = perSecond;
+        if (perSecond > r.maxPerSecond()) return AlarmCondition.RATE;
+        if (current == AlarmCondition.RATE && perSecond > r.maxPerSecond() - r.hysteresis()) return current;
+        return AlarmCondition.NORMAL;
+    }
+}
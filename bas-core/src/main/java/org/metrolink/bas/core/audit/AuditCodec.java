@@ -0,0 +1,104 @@
+package org.metrolink.bas.core.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Record payload: {@code i64 seq · i64 ts · str caller · str point · value old · value new · u8 priority(0 = none)
+ * · u8 success · str error · i64 latencyNanos}; str = {@code u16 length · utf8} (0xFFFF = null); value =
+ * {@code u8 tag · payload} (0 null | 1 f64 | 2 bool | 3 i64 | 4 str).
+ */
+final class AuditCodec {
+    private static final byte NULL = 0, F64 = 1, BOOL = 2, I64 = 3, STR = 4;
+    private static final int NULL_STR = 0xFFFF;
+    private static final int MAX_STR = 0xFFFE;
+
+    private AuditCodec() {
+    }
+
+    static void encode(AuditRecord r, ByteBuffer buf) {
+        buf.putLong(r.seq()).putLong(r.tsEpochMs());
+        putString(buf, r.caller());
+        putString(buf, r.pointId());
+        putValue(buf, r.oldValue());
+        putValue(buf, r.newValue());
+        buf.put((byte) (r.priority() != null ? r.priority() : 0));
+        buf.put((byte) (r.success() ? 1 : 0));
+        putString(buf, r.error());
+        buf.putLong(r.latencyNanos());
+    }
+
+    static AuditRecord decode(ByteBuffer buf) {
+        long seq = buf.getLong();
+        long ts = buf.getLong();
+        var caller = getString(buf);
+        var point = getString(buf);
+        var oldValue = getValue(buf);
+        var newValue = getValue(buf);
+        int priority = Byte.toUnsignedInt(buf.get());
+        boolean success = buf.get() != 0;
+        var error = getString(buf);
+        long latency = buf.getLong();
+        return new AuditRecord(seq, ts, caller, point, oldValue, newValue, priority == 0 ? null : priority, success,
+                error, latency);
+    }
+
+    /** Upper bound of the encoded size (strings are clipped to {@value #MAX_STR} bytes). */
+    static int maxSize(AuditRecord r) {
+        return 8 + 8 + str(r.caller()) + str(r.pointId()) + val(r.oldValue()) + val(r.newValue()) + 2
+                + str(r.error()) + 8;
+    }
+
+    private static int str(String s) {
+        return 2 + (s == null ? 0 : Math.min(MAX_STR, s.length() * 3));
+    }
+
+    private static int val(Object v) {
+        return v == null ? 1 : (v instanceof Number || v instanceof Boolean) ? 9 : 1 + str(String.valueOf(v));
+    }
+
+    private static void putString(ByteBuffer buf, String s) {
+        if (s == null) {
+            buf.putShort((short) NULL_STR);
+            return;
+        }
+        var b = s.getBytes(StandardCharsets.UTF_8);
+        int len = Math.min(b.length, MAX_STR);
+        buf.putShort((short) len).put(b, 0, len);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int len = Short.toUnsignedInt(buf.getShort());
+        if (len == NULL_STR) return null;
+        var b = new byte[len];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void putValue(ByteBuffer buf, Object v) {
+        if (v == null) {
+            buf.put(NULL);
+        } else if (v instanceof Boolean b) {
+            buf.put(BOOL).put((byte) (b ? 1 : 0));
+        } else if (v instanceof Long || v instanceof Integer || v instanceof Short || v instanceof Byte) {
+            buf.put(I64).putLong(((Number) v).longValue());
+        } else if (v instanceof Number n) {
+            buf.put(F64).putDouble(n.doubleValue());
+        } else {
+            buf.put(STR);
+            putString(buf, String.valueOf(v));
+        }
+    }
+
+    private static Object getValue(ByteBuffer buf) {
+        byte tag = buf.get();
+        return switch (tag) {
+            case NULL -> null;
+            case F64 -> buf.getDouble();
+            case BOOL -> buf.get() != 0;
+            case I64 -> buf.getLong();
+            case STR -> getString(buf);
+            default -> throw new IllegalArgumentException("Unknown value tag " + tag);
+        };
+    }
+}
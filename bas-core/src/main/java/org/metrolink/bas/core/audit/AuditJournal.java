@@ -0,0 +1,336 @@
+package org.metrolink.bas.core.audit;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only audit journal for control writes.
+ * <p>
+ * The write path only builds a record and offers it to a lock-free queue (bounded; overflow is counted, never
+ * blocks). One writer thread drains the queue in batches into a memory-mapped file of fixed size; records are
+ * framed like the replication outbox ({@code i32 length · i32 crc32 · payload}, see {@link AuditCodec}) and the
+ * length is written last, so a reader never sees a half-written frame as valid. Files are named by their first
+ * sequence number ({@code audit-00000000000000000001.log}), rotated when full and deleted beyond
+ * {@code maxFiles}. Mapped pages reach the OS page cache immediately (they survive a JVM crash); {@code force()}
+ * to the device runs every {@code syncInterval} and on rotation/close.
+ * <p>
+ * A record too large for an empty file has its strings clipped to fit (counted as {@code truncated}); one that
+ * still cannot be written is counted as {@code failed} and the writer moves on. {@code lastLossMs} in
+ * {@link #stats()} is when a record was last dropped or failed (0 = never), for health checks.
+ * <p>
+ * On open the newest file is scanned to its last valid frame and appending resumes there.
+ */
+public final class AuditJournal implements AuditSink, AutoCloseable {
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER = 8;
+    private static final int MAX_BATCH = 4096;
+
+    private record Segment(Path path, long firstSeq, long firstTsMs) {
+    }
+
+    private final Path dir;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final int capacity;
+    private final long syncNanos;
+    private final Queue<AuditRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong seq = new AtomicLong();
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();   // guarded by this
+    private final Thread writer;
+    private final ByteBuffer scratch = ByteBuffer.allocate(1 << 16);
+    private final CRC32 crc = new CRC32();
+
+    private MappedByteBuffer active;
+    private long lastSyncNanos = System.nanoTime();
+    private volatile long lastLossMs;
+    private volatile boolean closed;
+
+    public AuditJournal(Path dir, long maxFileBytes, int maxFiles, int queueCapacity, Duration syncInterval)
+            throws IOException {
+        if (maxFileBytes < 4096 || maxFileBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("maxFileBytes must be in [4 KiB, 2 GiB)");
+        }
+        this.dir = Files.createDirectories(dir);
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.capacity = queueCapacity;
+        this.syncNanos = syncInterval.toNanos();
+        recover();
+        this.writer = new Thread(this::drainLoop, "audit-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void record(long tsEpochMs, String caller, String pointId, Object oldValue, Object newValue,
+                       Integer priority, String error, long latencyNanos) {
+        if (closed || pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            dropped.increment();
+            lastLossMs = System.currentTimeMillis();
+            return;
+        }
+        // seq is assigned by the writer so it follows file order
+        queue.offer(new AuditRecord(0, tsEpochMs, caller, pointId, oldValue, newValue, priority, error == null,
+                error, latencyNanos));
+    }
+
+    /**
+     * Records with {@code fromMs <= ts < toMs}, optionally for one point, oldest first, at most {@code limit}.
+     * Only what the writer has already drained is visible (typically within a millisecond).
+     */
+    public List<AuditRecord> query(long fromMs, long toMs, String pointId, int limit) throws IOException {
+        List<Segment> files;
+        synchronized (this) {
+            files = new ArrayList<>(segments.values());
+        }
+        var out = new ArrayList<AuditRecord>();
+        for (int i = 0; i < files.size() && out.size() < limit; i++) {
+            var seg = files.get(i);
+            if (seg.firstTsMs() >= toMs) break;
+            // every record in a file precedes the next file's first record
+            if (i + 1 < files.size() && files.get(i + 1).firstTsMs() < fromMs) continue;
+            try (var ch = FileChannel.open(seg.path(), StandardOpenOption.READ)) {
+                var buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                scan(buf, r -> {
+                    if (r.tsEpochMs() >= fromMs && r.tsEpochMs() < toMs
+                            && (pointId == null || pointId.equals(r.pointId()))) {
+                        out.add(r);
+                    }
+                    return out.size() < limit;
+                });
+            } catch (NoSuchFileException e) {
+                // rotated away while we were reading
+            }
+        }
+        return out;
+    }
+
+    public Map<String, Object> stats() {
+        var m = new LinkedHashMap<String, Object>();
+        m.put("appended", appended.sum());
+        m.put("dropped", dropped.sum());
+        m.put("failed", failed.sum());
+        m.put("truncated", truncated.sum());
+        m.put("pending", pending.get());
+        synchronized (this) {
+            m.put("files", segments.size());
+        }
+        m.put("lastSeq", seq.get());
+        m.put("lastLossMs", lastLossMs);
+        return m;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            writer.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---- writer thread ----
+
+    private void drainLoop() {
+        while (true) {
+            int n = 0;
+            AuditRecord r;
+            while (n < MAX_BATCH && (r = queue.poll()) != null) {
+                n++;
+                try {
+                    write(r);
+                    appended.increment();
+                } catch (Throwable t) {
+                    failed.increment();
+                    lastLossMs = System.currentTimeMillis();
+                    t.printStackTrace();   // keep draining; a full disk must not wedge the write path
+                } finally {
+                    pending.decrementAndGet();
+                }
+            }
+            try {
+                if (System.nanoTime() - lastSyncNanos >= syncNanos) sync();
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+            if (n == 0) {
+                if (closed && queue.isEmpty()) break;
+                LockSupport.parkNanos(1_000_000);
+            }
+        }
+        sync();
+    }
+
+    private void write(AuditRecord queued) throws IOException {
+        var r = new AuditRecord(seq.incrementAndGet(), queued.tsEpochMs(), queued.caller(), queued.pointId(),
+                queued.oldValue(), queued.newValue(), queued.priority(), queued.success(), queued.error(),
+                queued.latencyNanos());
+        var payload = encode(r);
+        if (HEADER + payload.remaining() + HEADER > maxFileBytes) {    // would not fit even an empty file
+            r = clipped(r);
+            payload = encode(r);
+            truncated.increment();
+        }
+        int frame = HEADER + payload.remaining();
+        if (active == null || active.remaining() < frame + HEADER) rotate(r);   // keep room for the 0 terminator
+        int pos = active.position();
+        crc.reset();
+        crc.update(payload.duplicate());
+        active.position(pos + HEADER);
+        active.put(payload);
+        active.putInt(pos + 4, (int) crc.getValue());
+        active.putInt(pos, payload.limit());          // length last: publishes the frame
+    }
+
+    // five strings at up to 3 UTF-8 bytes per char, plus the fixed fields, stay under one file
+    private AuditRecord clipped(AuditRecord r) {
+        int chars = (int) ((maxFileBytes - 128) / 15);
+        return new AuditRecord(r.seq(), r.tsEpochMs(), clip(r.caller(), chars), clip(r.pointId(), chars),
+                clipValue(r.oldValue(), chars), clipValue(r.newValue(), chars), r.priority(), r.success(),
+                clip(r.error(), chars), r.latencyNanos());
+    }
+
+    private static Object clipValue(Object v, int chars) {
+        return v == null || v instanceof Number || v instanceof Boolean ? v : clip(String.valueOf(v), chars);
+    }
+
+    private static String clip(String s, int chars) {
+        return s == null || s.length() <= chars ? s : s.substring(0, chars);
+    }
+
+    private ByteBuffer encode(AuditRecord r) {
+        int max = AuditCodec.maxSize(r);
+        var buf = max <= scratch.capacity() ? scratch.clear() : ByteBuffer.allocate(max);
+        AuditCodec.encode(r, buf);
+        return buf.flip();
+    }
+
+    private void rotate(AuditRecord first) throws IOException {
+        sync();
+        var path = dir.resolve(String.format("%s%020d%s", PREFIX, first.seq(), SUFFIX));
+        try (var ch = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            active = ch.map(FileChannel.MapMode.READ_WRITE, 0, maxFileBytes);
+        }
+        synchronized (this) {
+            segments.put(first.seq(), new Segment(path, first.seq(), first.tsEpochMs()));
+            while (segments.size() > maxFiles) {
+                var oldest = segments.pollFirstEntry().getValue();
+                Files.deleteIfExists(oldest.path());
+            }
+        }
+    }
+
+    private void sync() {
+        if (active != null) active.force();
+        lastSyncNanos = System.nanoTime();
+    }
+
+    // ---- recovery ----
+
+    private void recover() throws IOException {
+        try (var files = Files.list(dir)) {
+            for (var f : files.filter(p -> {
+                var name = p.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).toList()) {
+                var name = f.getFileName().toString();
+                long first = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                segments.put(first, new Segment(f, first, firstTs(f)));
+            }
+        }
+        if (segments.isEmpty()) return;
+
+        var last = segments.lastEntry().getValue();
+        try (var ch = FileChannel.open(last.path(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (ch.size() != maxFileBytes) {
+                seq.set(lastSeq(last));   // written with another size: leave it, start a new file on first write
+                return;
+            }
+            active = ch.map(FileChannel.MapMode.READ_WRITE, 0, maxFileBytes);
+        }
+        long[] lastSeq = {last.firstSeq() - 1};
+        int end = scan(active.duplicate(), r -> {
+            lastSeq[0] = r.seq();
+            return true;
+        });
+        active.position(end);
+        active.putInt(end, 0);   // clear a torn frame, if any
+        seq.set(lastSeq[0]);
+    }
+
+    private long lastSeq(Segment s) throws IOException {
+        try (var ch = FileChannel.open(s.path(), StandardOpenOption.READ)) {
+            long[] last = {s.firstSeq() - 1};
+            scan(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()), r -> {
+                last[0] = r.seq();
+                return true;
+            });
+            return last[0];
+        }
+    }
+
+    private static long firstTs(Path f) throws IOException {
+        try (var ch = FileChannel.open(f, StandardOpenOption.READ)) {
+            long[] ts = {Long.MAX_VALUE};
+            scan(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()), r -> {
+                ts[0] = r.tsEpochMs();
+                return false;
+            });
+            return ts[0];
+        }
+    }
+
+    /** Visits valid frames from the start until the visitor returns false; returns the offset after the last one. */
+    private static int scan(ByteBuffer buf, Predicate<AuditRecord> visitor) {
+        var crc = new CRC32();
+        int pos = 0;
+        while (pos + HEADER <= buf.limit()) {
+            int len = buf.getInt(pos);
+            if (len <= 0 || pos + HEADER + len > buf.limit()) break;
+            var payload = buf.duplicate().position(pos + HEADER).limit(pos + HEADER + len);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buf.getInt(pos + 4)) break;
+            AuditRecord r;
+            try {
+                r = AuditCodec.decode(payload.slice());
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                break;
+            }
+            pos += HEADER + len;
+            if (!visitor.test(r)) break;
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,9 @@
+package org.metrolink.bas.core.audit;
+
+/**
+ * One command issued through {@code Kernel.writeNow}. {@code oldValue} is the last known value (no extra field-bus
+ * read); {@code priority} is null when the caller did not set one; {@code error} is null on success.
+ */
+public record AuditRecord(long seq, long tsEpochMs, String caller, String pointId, Object oldValue, Object newValue,
+                          Integer priority, boolean success, String error, long latencyNanos) {
+}
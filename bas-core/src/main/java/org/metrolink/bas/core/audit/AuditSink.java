@@ -0,0 +1,14 @@
+package org.metrolink.bas.core.audit;
+
+/**
+ * Receives audit records on the write path; implementations must not block.
+ */
+@FunctionalInterface
+public interface AuditSink {
+    AuditSink NONE = (tsEpochMs, caller, pointId, oldValue, newValue, priority, error, latencyNanos) -> {
+    };
+
+    /** {@code error} is null for a successful write. */
+    void record(long tsEpochMs, String caller, String pointId, Object oldValue, Object newValue, Integer priority,
+                String error, long latencyNanos);
+}
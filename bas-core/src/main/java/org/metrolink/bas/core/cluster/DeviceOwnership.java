@@ -0,0 +1,74 @@
+package org.metrolink.bas.core.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Which member polls and historizes which device: a {@link HashRing} over the live members, rebuilt on every
+ * membership change. Listeners run after the new ring is in place, on their own thread so a slow re-plan never
+ * stalls heartbeats; changes arriving while they run are coalesced into one more pass over the latest ring.
+ */
+public final class DeviceOwnership implements AutoCloseable {
+    private final Member self;
+    private final int virtualNodes;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(r -> {
+        var t = new Thread(r, "cluster-ownership");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile HashRing ring;
+
+    public DeviceOwnership(UdpMembership membership, int virtualNodes) {
+        this.self = membership.self();
+        this.virtualNodes = virtualNodes;
+        this.ring = new HashRing(membership.members(), virtualNodes);
+        membership.addListener(this::onMembers);
+    }
+
+    public Member self() {
+        return self;
+    }
+
+    public HashRing ring() {
+        return ring;
+    }
+
+    public Member ownerOf(String deviceId) {
+        var owner = ring.owner(deviceId);
+        return owner != null ? owner : self;
+    }
+
+    public boolean isLocal(String deviceId) {
+        return ownerOf(deviceId).id().equals(self.id());
+    }
+
+    public void addListener(Runnable onChange) {
+        listeners.add(onChange);
+    }
+
+    @Override
+    public void close() {
+        notifier.shutdownNow();
+    }
+
+    private void onMembers(List<Member> members) {
+        ring = new HashRing(members, virtualNodes);
+        if (dirty.compareAndSet(false, true)) notifier.execute(this::notifyListeners);
+    }
+
+    private void notifyListeners() {
+        dirty.set(false);
+        for (var l : listeners) {
+            try {
+                l.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
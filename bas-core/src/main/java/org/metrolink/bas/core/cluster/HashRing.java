@@ -0,0 +1,47 @@
+package org.metrolink.bas.core.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent-hash ring. Each member gets {@code virtualNodes} points on the ring; a key belongs to the
+ * first member clockwise from its hash. Adding or removing one member moves only about 1/n of the keys.
+ */
+public final class HashRing {
+    private final TreeMap<Long, Member> ring = new TreeMap<>();
+    private final List<Member> members;
+
+    public HashRing(Collection<Member> members, int virtualNodes) {
+        if (virtualNodes <= 0) throw new IllegalArgumentException("virtualNodes must be > 0");
+        this.members = List.copyOf(members);
+        for (var m : this.members) {
+            for (int i = 0; i < virtualNodes; i++) ring.put(hash(m.id() + "#" + i), m);
+        }
+    }
+
+    public List<Member> members() {
+        return members;
+    }
+
+    /** Owner of {@code key}, or {@code null} for an empty ring. */
+    public Member owner(String key) {
+        if (ring.isEmpty()) return null;
+        Map.Entry<Long, Member> e = ring.ceilingEntry(hash(key));
+        return (e != null ? e : ring.firstEntry()).getValue();
+    }
+
+    // FNV-1a 64 with a splitmix finalizer: cheap, stable across JVMs and well spread for short ids
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
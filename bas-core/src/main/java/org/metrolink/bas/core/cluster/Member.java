@@ -0,0 +1,7 @@
+package org.metrolink.bas.core.cluster;
+
+/**
+ * A live cluster member: stable id plus the base URL other members forward requests to.
+ */
+public record Member(String id, String url) {
+}
@@ -0,0 +1,265 @@
+package org.metrolink.bas.core.cluster;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Heartbeat membership over UDP unicast. Every {@code heartbeat} each member sends its id, URL and the peer
+ * addresses it knows to every known address (seeds plus anything learned), so one reachable seed is enough to join.
+ * A member not heard from for {@code failAfter} is dropped; {@link #close()} announces a leave so peers react at
+ * once. Several processes on one machine just use different ports and list each other (or one) as seeds.
+ * <p>
+ * With a shared {@code secret} every packet carries its send time and an HMAC-SHA256 over the rest; packets with a
+ * bad MAC or sent more than {@value #REPLAY_WINDOW_MS} ms ago are ignored, so only key holders can join, gossip
+ * addresses or evict a member. Without one, packets are accepted only from seeds and addresses gossiped by them,
+ * so every member must then be reachable through someone's {@code seeds}.
+ * <p>
+ * Listeners get the full sorted member list (self included) on every change, on the membership thread.
+ */
+public final class UdpMembership implements AutoCloseable {
+    private static final String HEARTBEAT = "BAS1 HB";
+    private static final String BYE = "BAS1 BYE";
+    private static final int MAX_PACKET = 8192;
+    private static final int MAX_GOSSIP = 64;
+    private static final long REPLAY_WINDOW_MS = 30_000;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private record Peer(Member member, long lastSeenNanos) {
+    }
+
+    private final Member self;
+    private final DatagramSocket socket;
+    private final Set<InetSocketAddress> targets = ConcurrentHashMap.newKeySet();
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+    private final List<Consumer<List<Member>>> listeners = new CopyOnWriteArrayList<>();
+    private final long heartbeatMs;
+    private final long failAfterNanos;
+    private final SecretKeySpec key;        // null = sender allow-list only
+    private final ScheduledExecutorService ses = Executors.newSingleThreadScheduledExecutor(r -> {
+        var t = new Thread(r, "cluster-membership");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Thread receiver;
+    private volatile List<Member> view;
+    private volatile boolean closed;
+
+    public UdpMembership(Member self, InetSocketAddress bind, Collection<InetSocketAddress> seeds,
+                         Duration heartbeat, Duration failAfter) throws IOException {
+        this(self, bind, seeds, heartbeat, failAfter, null);
+    }
+
+    /** {@code secret} null or empty = unauthenticated, senders restricted to seeds and their gossip. */
+    public UdpMembership(Member self, InetSocketAddress bind, Collection<InetSocketAddress> seeds,
+                         Duration heartbeat, Duration failAfter, byte[] secret) throws IOException {
+        if (self.id().isBlank() || self.id().contains(" ")) throw new IllegalArgumentException("bad member id");
+        this.self = self;
+        this.socket = new DatagramSocket(bind);
+        this.socket.setSoTimeout(1000);
+        this.heartbeatMs = heartbeat.toMillis();
+        this.failAfterNanos = failAfter.toNanos();
+        this.key = secret == null || secret.length == 0 ? null : new SecretKeySpec(secret.clone(), MAC_ALGORITHM);
+        for (var s : seeds) if (!s.equals(bind)) targets.add(s);
+        this.view = List.of(self);
+        this.receiver = new Thread(this::receiveLoop, "cluster-membership-rx");
+        this.receiver.setDaemon(true);
+    }
+
+    public UdpMembership start() {
+        receiver.start();
+        ses.scheduleWithFixedDelay(this::tick, 0, heartbeatMs, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    public Member self() {
+        return self;
+    }
+
+    /** Live members including self, sorted by id. */
+    public List<Member> members() {
+        return view;
+    }
+
+    public void addListener(Consumer<List<Member>> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        send(seal(BYE + " " + self.id() + "\n"));
+        ses.shutdownNow();
+        socket.close();
+    }
+
+    private void tick() {
+        try {
+            long now = System.nanoTime();
+            boolean changed = peers.values().removeIf(p -> now - p.lastSeenNanos() > failAfterNanos);
+            send(heartbeat());
+            if (changed) publish();
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+
+    private byte[] heartbeat() {
+        var sb = new StringBuilder(HEARTBEAT).append(' ').append(self.id()).append(' ').append(self.url()).append('\n');
+        int n = 0;
+        for (var t : targets) {
+            if (n++ == MAX_GOSSIP) break;
+            sb.append("P ").append(t.getHostString()).append(':').append(t.getPort()).append('\n');
+        }
+        return seal(sb.toString());
+    }
+
+    // body · "T <sentMs>" · "M <hex hmac of everything before it>"
+    private byte[] seal(String body) {
+        if (key == null) return body.getBytes(StandardCharsets.UTF_8);
+        var signed = body + "T " + System.currentTimeMillis() + "\n";
+        return (signed + "M " + HexFormat.of().formatHex(mac(signed)) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** The signed part of {@code text}, or {@code null} when the MAC or send time is bad. */
+    private String open(String text) {
+        int m = text.lastIndexOf("M ");
+        if (m <= 0 || text.charAt(m - 1) != '\n') return null;
+        var signed = text.substring(0, m);
+        byte[] tag;
+        try {
+            tag = HexFormat.of().parseHex(text.substring(m + 2).strip());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(tag, mac(signed))) return null;
+        int t = signed.lastIndexOf("\nT ");
+        if (t < 0) return null;
+        try {
+            long sent = Long.parseLong(signed.substring(t + 3).strip());
+            return Math.abs(System.currentTimeMillis() - sent) <= REPLAY_WINDOW_MS ? signed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private byte[] mac(String signed) {
+        try {
+            var mac = Mac.getInstance(MAC_ALGORITHM);    // per call: sent and received on different threads
+            mac.init(key);
+            return mac.doFinal(signed.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void send(byte[] payload) {
+        for (var t : targets) {
+            try {
+                socket.send(new DatagramPacket(payload, payload.length, t));
+            } catch (IOException ignored) {
+                // unreachable peers simply age out
+            }
+        }
+    }
+
+    private void receiveLoop() {
+        var buf = new byte[MAX_PACKET];
+        while (!closed) {
+            var packet = new DatagramPacket(buf, buf.length);
+            try {
+                socket.receive(packet);
+            } catch (SocketTimeoutException e) {
+                continue;
+            } catch (IOException e) {
+                if (!closed) e.printStackTrace();
+                return;
+            }
+            var text = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
+            handle(text, (InetSocketAddress) packet.getSocketAddress());
+        }
+    }
+
+    private void handle(String text, InetSocketAddress from) {
+        if (key != null) {
+            text = open(text);
+            if (text == null) return;
+        } else if (!targets.contains(from)) {
+            return;                     // unauthenticated: only seeds and the addresses they gossip
+        }
+        var lines = text.split("\n");
+        var head = lines[0].split(" ");
+        if (head.length < 3 || !"BAS1".equals(head[0])) return;
+        var id = head[2];
+        if (id.equals(self.id())) {   // our own address came back through gossip
+            targets.remove(from);
+            return;
+        }
+
+        if ("BYE".equals(head[1])) {
+            if (peers.remove(id) != null) publish();
+            return;
+        }
+        if (!"HB".equals(head[1]) || head.length < 4) return;
+
+        targets.add(from);
+        for (int i = 1; i < lines.length; i++) {
+            if (!lines[i].startsWith("P ")) continue;
+            var addr = parseAddress(lines[i].substring(2));
+            if (addr != null && !addr.equals(socket.getLocalSocketAddress())) targets.add(addr);
+        }
+        var member = new Member(id, head[3]);
+        var prev = peers.put(id, new Peer(member, System.nanoTime()));
+        if (prev == null || !prev.member().equals(member)) publish();
+    }
+
+    private synchronized void publish() {
+        var all = new ArrayList<Member>();
+        all.add(self);
+        for (var p : peers.values()) all.add(p.member());
+        all.sort(Comparator.comparing(Member::id));
+        var next = List.copyOf(all);
+        if (next.equals(view)) return;
+        view = next;
+        for (var l : listeners) {
+            try {
+                l.accept(next);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** {@code host:port}, or {@code null} when malformed. */
+    public static InetSocketAddress parseAddress(String hostPort) {
+        int i = hostPort.lastIndexOf(':');
+        if (i <= 0) return null;
+        try {
+            return new InetSocketAddress(hostPort.substring(0, i), Integer.parseInt(hostPort.substring(i + 1).trim()));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package org.metrolink.bas.core.command;
+
+import org.metrolink.bas.core.Kernel;
+import org.metrolink.bas.core.metrics.ConnectorMetrics;
+import org.metrolink.bas.core.metrics.Op;
+import org.metrolink.bas.core.time.Clock;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fires {@link Schedule}d writes through {@link Kernel#writeNow}.
+ * <p>
+ * Each point has exactly one pending entry in a {@link TimingWheel}: its next possible change. When it comes due the
+ * value in effect is recomputed from the schedule (not taken from the entry), so an entry that fires late, or a
+ * schedule replaced in between, still writes the right value, and nothing is replayed. {@link #put} schedules an
+ * immediate evaluation, which is also how a restart converges: every point gets its current state written once.
+ * Replaced or removed schedules leave their old entry in the wheel; it is recognised by its generation and dropped.
+ * <p>
+ * Per tick, due writes are grouped by device and each device's group runs back to back on one writer thread, so a
+ * device sees one burst per tick rather than interleaved single writes; devices proceed in parallel. A value equal
+ * to the last one written successfully is skipped; a failed write is re-evaluated after {@code retryDelay}.
+ */
+public final class CommandScheduler implements AutoCloseable {
+    /** {@link Kernel#CALLER} recorded for scheduled writes. */
+    public static final String CALLER = "scheduler";
+    private static final int SLOTS = 512;
+
+    public record Stats(int schedules, int pending, long evaluations, long writes, long unchanged, long failures,
+                        long batches, long lastTickLagMs) {
+    }
+
+    /** What a point's schedule says now and when it may change next ({@link Long#MAX_VALUE}: never). */
+    public record State(String pointId, Schedule.Effective effective, long nextChangeMs, Object lastWritten) {
+    }
+
+    // a retry only re-evaluates; the point's regular entry keeps the chain of next changes going
+    private record Pending(String pointId, long generation, long dueMs, boolean retry) {
+    }
+
+    private static final class PointState {
+        final Schedule schedule;
+        final long generation;
+        volatile Object lastWritten;
+
+        PointState(Schedule schedule, long generation) {
+            this.schedule = schedule;
+            this.generation = generation;
+        }
+    }
+
+    private record Action(String pointId, Object value, PointState state, boolean retry) {
+    }
+
+    private final Kernel kernel;
+    private final ZoneId zone;
+    private final long tickMs;
+    private final long retryMs;
+    private final Map<String, PointState> points = new ConcurrentHashMap<>();
+    private final TimingWheel<Pending> wheel;                // guarded by this
+    private long generations;                                // guarded by this
+    private final Clock clock;
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService writers;
+    private final boolean ownsExecutors;
+    private volatile ScheduledFuture<?> ticking;
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile long lastTickLagMs;   // how late the most overdue entry of the last busy tick fired
+
+    public CommandScheduler(Kernel kernel, ZoneId zone, Duration tick, Duration retryDelay, int writerThreads) {
+        this(kernel, zone, tick, retryDelay, Clock.SYSTEM, Executors.newSingleThreadScheduledExecutor(r -> {
+            var t = new Thread(r, "command-scheduler");
+            t.setDaemon(true);
+            return t;
+        }), writerPool(writerThreads), true);
+    }
+
+    /**
+     * Ticks and writes on {@code ses} and reads time from {@code clock}, e.g. a {@code VirtualScheduler} and its
+     * clock. The executor stays the caller's: {@link #close()} only stops this scheduler's tick.
+     */
+    public CommandScheduler(Kernel kernel, ZoneId zone, Duration tick, Duration retryDelay, Clock clock,
+                            ScheduledExecutorService ses) {
+        this(kernel, zone, tick, retryDelay, clock, ses, ses, false);
+    }
+
+    private CommandScheduler(Kernel kernel, ZoneId zone, Duration tick, Duration retryDelay, Clock clock,
+                             ScheduledExecutorService ticker, ExecutorService writers, boolean ownsExecutors) {
+        this.kernel = Objects.requireNonNull(kernel);
+        this.zone = zone != null ? zone : ZoneId.systemDefault();
+        this.tickMs = Math.max(1, tick.toMillis());
+        this.retryMs = retryDelay.toMillis();
+        this.clock = Objects.requireNonNull(clock);
+        this.ticker = Objects.requireNonNull(ticker);
+        this.writers = writers;
+        this.ownsExecutors = ownsExecutors;
+        this.wheel = new TimingWheel<>(tickMs, SLOTS, clock.currentTimeMillis());
+    }
+
+    private static ExecutorService writerPool(int threads) {
+        var n = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            var t = new Thread(r, "command-writer-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start() {
+        ticking = ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Adds or replaces the schedule for its point; the value in effect is written on the next tick. */
+    public synchronized void put(Schedule schedule) {
+        var s = new PointState(schedule, ++generations);
+        var old = points.put(schedule.pointId(), s);
+        if (old != null) s.lastWritten = old.lastWritten;
+        long now = clock.currentTimeMillis();
+        wheel.add(now, new Pending(schedule.pointId(), s.generation, now, false));
+    }
+
+    /** Stops commanding the point; the last written value stays in the device. */
+    public synchronized boolean remove(String pointId) {
+        return points.remove(pointId) != null;
+    }
+
+    public List<Schedule> schedules() {
+        return points.values().stream().map(p -> p.schedule).toList();
+    }
+
+    public State state(String pointId) {
+        var p = points.get(pointId);
+        if (p == null) return null;
+        long now = clock.currentTimeMillis();
+        return new State(pointId, p.schedule.valueAt(now, zone), p.schedule.nextChange(now, zone), p.lastWritten);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(points.size(), wheel.size(), evaluations.sum(), writes.sum(), unchanged.sum(),
+                failures.sum(), batches.sum(), lastTickLagMs);
+    }
+
+    @Override
+    public void close() {
+        var t = ticking;
+        if (t != null) t.cancel(false);
+        if (ownsExecutors) {
+            ticker.shutdownNow();
+            writers.shutdown();
+        }
+    }
+
+    // ---- ticker thread ----
+
+    private void tick() {
+        try {
+            long now = clock.currentTimeMillis();
+            var due = new ArrayList<Pending>();
+            synchronized (this) {
+                wheel.advance(now, due::add);
+            }
+            if (due.isEmpty()) return;
+
+            var byDevice = new HashMap<String, List<Action>>();
+            long lag = 0;
+            synchronized (this) {
+                for (var d : due) {
+                    lag = Math.max(lag, now - d.dueMs());
+                    var p = points.get(d.pointId());
+                    if (p == null || p.generation != d.generation()) continue;   // replaced or removed
+                    evaluations.increment();
+                    var eff = p.schedule.valueAt(now, zone);
+                    long next = p.schedule.nextChange(now, zone);
+                    if (next != Long.MAX_VALUE && !d.retry()) {
+                        wheel.add(next, new Pending(d.pointId(), d.generation(), next, false));
+                    }
+                    if (eff == null) continue;
+                    if (Objects.equals(eff.value(), p.lastWritten)) {
+                        unchanged.increment();
+                        continue;
+                    }
+                    byDevice.computeIfAbsent(deviceOf(d.pointId()), k -> new ArrayList<>())
+                            .add(new Action(d.pointId(), eff.value(), p, d.retry()));
+                }
+            }
+            lastTickLagMs = lag;
+            byDevice.values().forEach(actions -> {
+                batches.increment();
+                writers.execute(() -> write(actions));
+            });
+        } catch (Throwable t) {
+            t.printStackTrace();   // keep ticking
+        }
+    }
+
+    private void write(List<Action> actions) {
+        for (var a : actions) {
+            var opts = new LinkedHashMap<String, Object>();
+            opts.put(Kernel.CALLER, CALLER);
+            if (a.state().schedule.priority() != null) opts.put("priority", a.state().schedule.priority());
+            if (a.retry()) kernel.metrics().recordRetry(deviceOf(a.pointId()), Op.WRITE);
+            try {
+                kernel.writeNow(a.pointId(), a.value(), opts);
+                a.state().lastWritten = a.value();
+                writes.increment();
+            } catch (Exception e) {
+                failures.increment();
+                long retryAt = clock.currentTimeMillis() + retryMs;
+                synchronized (this) {
+                    wheel.add(retryAt, new Pending(a.pointId(), a.state().generation, retryAt, true));
+                }
+            }
+        }
+    }
+
+    private String deviceOf(String pointId) {
+        var n = kernel.registry().get(pointId);
+        return n != null ? n.deviceId() : ConnectorMetrics.UNKNOWN_DEVICE;
+    }
+}
@@ -0,0 +1,133 @@
+package org.metrolink.bas.core.command;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Time-driven commands for one point, with BACnet Schedule semantics:
+ * <ul>
+ *   <li>{@code weekly} — transitions per day of week</li>
+ *   <li>{@code exceptions} — dates whose transitions replace the weekly ones (holidays, events)</li>
+ *   <li>{@code oneShots} — single writes at an instant; they hold until the next transition</li>
+ *   <li>{@code defaultValue} — in effect from midnight until a day's first transition (null: the previous value
+ *       carries over)</li>
+ * </ul>
+ * Wall-clock times are interpreted in the zone passed to {@link #valueAt}/{@link #nextChange}.
+ */
+public record Schedule(String pointId, Map<DayOfWeek, List<Transition>> weekly,
+                       Map<LocalDate, List<Transition>> exceptions, List<OneShot> oneShots, Object defaultValue,
+                       Integer priority) {
+
+    private static final int DAYS_BACK = 8;             // a week plus one day always holds the last weekly transition
+
+    public record Transition(LocalTime at, Object value) {
+    }
+
+    public record OneShot(long atEpochMs, Object value) {
+    }
+
+    /** A value and the instant it took effect. */
+    public record Effective(Object value, long sinceEpochMs) {
+    }
+
+    public Schedule {
+        if (pointId == null || pointId.isBlank()) throw new IllegalArgumentException("pointId is required");
+        var w = new EnumMap<DayOfWeek, List<Transition>>(DayOfWeek.class);
+        if (weekly != null) weekly.forEach((d, ts) -> w.put(d, sorted(ts)));
+        weekly = Map.copyOf(w);
+        var x = new TreeMap<LocalDate, List<Transition>>();
+        if (exceptions != null) exceptions.forEach((d, ts) -> x.put(d, sorted(ts)));
+        exceptions = Collections.unmodifiableNavigableMap(x);
+        var o = new ArrayList<OneShot>(oneShots != null ? oneShots : List.of());
+        o.sort(Comparator.comparingLong(OneShot::atEpochMs));
+        oneShots = List.copyOf(o);
+    }
+
+    /** The value in effect at {@code epochMs}, or null when nothing has been scheduled before it. */
+    public Effective valueAt(long epochMs, ZoneId zone) {
+        Effective best = null;
+        var now = ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMs), zone);
+        var today = now.toLocalDate();
+        for (int back = 0; back < DAYS_BACK && best == null; back++) {
+            var day = today.minusDays(back);
+            var ts = transitions(day);
+            for (int i = ts.size() - 1; i >= 0 && best == null; i--) {
+                long at = day.atTime(ts.get(i).at()).atZone(zone).toInstant().toEpochMilli();
+                if (at <= epochMs) best = new Effective(ts.get(i).value(), at);
+            }
+            if (best == null && defaultValue != null) {
+                best = new Effective(defaultValue, day.atStartOfDay(zone).toInstant().toEpochMilli());
+            }
+        }
+        for (int i = oneShots.size() - 1; i >= 0; i--) {
+            var s = oneShots.get(i);
+            if (s.atEpochMs() > epochMs) continue;
+            if (best == null || s.atEpochMs() >= best.sinceEpochMs()) best = new Effective(s.value(), s.atEpochMs());
+            break;
+        }
+        return best;
+    }
+
+    /** The first instant after {@code afterEpochMs} at which the value may change, or {@link Long#MAX_VALUE}. */
+    public long nextChange(long afterEpochMs, ZoneId zone) {
+        long next = Long.MAX_VALUE;
+        var today = ZonedDateTime.ofInstant(Instant.ofEpochMilli(afterEpochMs), zone).toLocalDate();
+        for (int ahead = 0; ahead < DAYS_BACK && next == Long.MAX_VALUE; ahead++) {
+            var day = today.plusDays(ahead);
+            if (defaultValue != null) {
+                long midnight = day.atStartOfDay(zone).toInstant().toEpochMilli();
+                if (midnight > afterEpochMs) next = midnight;
+            }
+            for (var t : transitions(day)) {
+                long at = day.atTime(t.at()).atZone(zone).toInstant().toEpochMilli();
+                if (at > afterEpochMs) {
+                    next = Math.min(next, at);
+                    break;
+                }
+            }
+        }
+        if (next == Long.MAX_VALUE) {
+            // no weekly program: the next exception date, however far out
+            for (var e : ((NavigableMap<LocalDate, List<Transition>>) exceptions).tailMap(today, true).entrySet()) {
+                for (var t : e.getValue()) {
+                    long at = e.getKey().atTime(t.at()).atZone(zone).toInstant().toEpochMilli();
+                    if (at > afterEpochMs) {
+                        next = at;
+                        break;
+                    }
+                }
+                if (next != Long.MAX_VALUE) break;
+            }
+        }
+        for (var s : oneShots) {
+            if (s.atEpochMs() > afterEpochMs) {
+                next = Math.min(next, s.atEpochMs());
+                break;
+            }
+        }
+        return next;
+    }
+
+    private List<Transition> transitions(LocalDate day) {
+        var x = exceptions.get(day);
+        return x != null ? x : weekly.getOrDefault(day.getDayOfWeek(), List.of());
+    }
+
+    private static List<Transition> sorted(List<Transition> ts) {
+        var out = new ArrayList<>(ts != null ? ts : List.<Transition>of());
+        out.sort(Comparator.comparing(Transition::at));
+        return List.copyOf(out);
+    }
+}
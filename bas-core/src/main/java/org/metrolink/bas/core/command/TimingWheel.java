@@ -0,0 +1,112 @@
+package org.metrolink.bas.core.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@code slots} buckets of {@code tickMs}, with a lazily created overflow wheel whose tick
+ * is this wheel's whole span (and so on upward). Adding an entry and firing it are O(1); entries in an outer wheel
+ * are cascaded one level down when the inner wheel enters their span. With 1 s ticks and 512 slots, three levels
+ * cover about four years.
+ * <p>
+ * Entries fire at the start of the tick that contains their due time, i.e. up to one tick early. Not thread-safe.
+ */
+final class TimingWheel<T> {
+
+    private record Entry<T>(long dueMs, T item) {
+    }
+
+    private final long tickMs;
+    private final long spanMs;
+    private final List<List<Entry<T>>> slots;
+    private final List<Entry<T>> overdue = new ArrayList<>();   // top level only
+    private long currentMs;                                     // start of the current tick
+    private TimingWheel<T> overflow;
+    private int size;                                           // entries in this wheel and above
+
+    TimingWheel(long tickMs, int slots, long startMs) {
+        if (tickMs <= 0 || slots < 2) throw new IllegalArgumentException("tickMs > 0 and slots >= 2 required");
+        this.tickMs = tickMs;
+        this.spanMs = Math.multiplyExact(tickMs, (long) slots);
+        this.slots = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) this.slots.add(new ArrayList<>());
+        this.currentMs = Math.floorDiv(startMs, tickMs) * tickMs;
+    }
+
+    /** Entries already due (before the current tick ends) fire on the next {@link #advance}. */
+    void add(long dueMs, T item) {
+        size++;
+        var e = new Entry<>(dueMs, item);
+        if (!place(e)) overdue.add(e);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Moves time forward to {@code nowMs}, one tick at a time, handing every entry that comes due to {@code due}. */
+    void advance(long nowMs, Consumer<T> due) {
+        if (!overdue.isEmpty()) {
+            size -= overdue.size();
+            overdue.forEach(e -> due.accept(e.item()));
+            overdue.clear();
+        }
+        while (currentMs + tickMs <= nowMs) {
+            currentMs += tickMs;
+            if (overflow != null && currentMs % spanMs == 0) {
+                // the outer wheel's next tick starts now: pull its entries down into this wheel's slots
+                overflow.tick(currentMs, e -> {
+                    if (!place(e)) fire(e, due);
+                });
+            }
+            var slot = slots.get(slotOf(currentMs));
+            if (slot.isEmpty()) continue;
+            var fired = new ArrayList<>(slot);
+            slot.clear();
+            for (var e : fired) fire(e, due);
+        }
+    }
+
+    private void fire(Entry<T> e, Consumer<T> due) {
+        size--;
+        due.accept(e.item());
+    }
+
+    // outer wheels: advance to nowMs and hand over (not fire) what falls into the inner wheel's span
+    private void tick(long nowMs, Consumer<Entry<T>> cascade) {
+        while (currentMs + tickMs <= nowMs) {
+            currentMs += tickMs;
+            if (overflow != null && currentMs % spanMs == 0) {
+                overflow.tick(currentMs, e -> {
+                    if (!place(e)) {
+                        size--;
+                        cascade.accept(e);
+                    }
+                });
+            }
+            var slot = slots.get(slotOf(currentMs));
+            if (slot.isEmpty()) continue;
+            size -= slot.size();
+            slot.forEach(cascade);
+            slot.clear();
+        }
+    }
+
+    /** False when {@code e} is due within the current tick. */
+    private boolean place(Entry<T> e) {
+        if (e.dueMs() < currentMs + tickMs) return false;
+        if (e.dueMs() < currentMs + spanMs) {
+            slots.get(slotOf(e.dueMs())).add(e);
+            return true;
+        }
+        if (overflow == null) overflow = new TimingWheel<>(spanMs, slots.size(), currentMs);
+        overflow.size++;
+        if (!overflow.place(e)) throw new IllegalStateException("overflow wheel out of step");
+        return true;
+    }
+
+    private int slotOf(long ms) {
+        return (int) (Math.floorDiv(ms, tickMs) % slots.size());
+    }
+}
@@ -0,0 +1,140 @@
+package org.metrolink.bas.core.compute;
+
+import org.metrolink.bas.core.model.Device;
+import org.metrolink.bas.core.model.HealthStatus;
+import org.metrolink.bas.core.model.Point;
+import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.ports.*;
+import org.metrolink.bas.core.spi.ConnectorPlugin;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+
+/**
+ * Built-in connector exposing {@link ComputedPointEngine} results as read-only points on one virtual device.
+ */
+public final class ComputedConnector implements ConnectorPlugin {
+    public static final String DEVICE_ID = "computed";
+
+    private final ComputedPointEngine engine;
+    private final List<Sub> subscribers = new CopyOnWriteArrayList<>();
+
+    private record Sub(Set<String> ids, Flow.Subscriber<? super Value> subscriber) {
+    }
+
+    public ComputedConnector(ComputedPointEngine engine) {
+        this.engine = engine;
+        engine.addListener(v -> {
+            for (var s : subscribers) {
+                if (!s.ids().contains(v.pointId())) continue;
+                try {
+                    s.subscriber().onNext(v);
+                } catch (Throwable ignored) {
+                }
+            }
+        });
+    }
+
+    public boolean owns(String pointId) {
+        return engine.isComputed(pointId);
+    }
+
+    /** Yields to physical points sharing an id with a definition; see {@link ComputedPointEngine#dropShadowed}. */
+    public List<String> yieldTo(Collection<Point> physicalPoints) {
+        return engine.dropShadowed(physicalPoints.stream().map(Point::id).toList());
+    }
+
+    @Override
+    public String id() {
+        return "computed";
+    }
+
+    // ---- Lifecycle (nothing to do: the engine is fed by the ingest loop) ----
+    @Override
+    public void init(Map<String, Object> config) {
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+        subscribers.clear();
+    }
+
+    // ---- Ports ----
+    @Override
+    public DiscoveryPort discovery() {
+        return new DiscoveryPort() {
+            @Override
+            public List<Device> discoverDevices(Duration timeout) {
+                return List.of(new Device(DEVICE_ID, "Computed Points", Map.of()));
+            }
+
+            @Override
+            public List<Point> discoverPoints(Device device, Duration timeout) {
+                if (!DEVICE_ID.equals(device.id())) return List.of();
+                return engine.definitions().stream().map(def -> {
+                    var meta = new LinkedHashMap<String, Object>(def.meta());
+                    meta.put("expression", def.expression());
+                    return new Point(def.id(), DEVICE_ID, def.name(), "computed", false, meta);
+                }).toList();
+            }
+        };
+    }
+
+    @Override
+    public ReaderPort reader() {
+        return pointIds -> {
+            Map<String, Value> out = new HashMap<>();
+            for (var id : pointIds) {
+                var v = engine.current(id);
+                if (v != null) out.put(id, v);
+            }
+            return out;
+        };
+    }
+
+    @Override
+    public WriterPort writer() {
+        return (pointId, value, options) -> {
+            throw new UnsupportedOperationException("Computed point " + pointId + " is read-only");
+        };
+    }
+
+    @Override
+    public SubscribePort subscribe() {
+        return (pointIds, subscriber) -> {
+            var sub = new Sub(Set.copyOf(pointIds), subscriber);
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) { /* no-op */ }
+
+                @Override
+                public void cancel() {
+                    subscribers.remove(sub);
+                }
+            });
+            subscribers.add(sub);
+            return () -> subscribers.remove(sub);
+        };
+    }
+
+    @Override
+    public HealthPort health() {
+        return () -> new HealthStatus(true, Map.of(
+                "points", engine.definitions().size(),
+                "shadowed", engine.shadowed(),
+                "evaluations", engine.evaluations(),
+                "subscribers", subscribers.size()
+        ));
+    }
+}
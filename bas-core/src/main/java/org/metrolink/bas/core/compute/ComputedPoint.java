@@ -0,0 +1,13 @@
+package org.metrolink.bas.core.compute;
+
+import java.util.Map;
+
+/**
+ * Definition of a virtual point whose value is {@code expression} over other point ids (physical or computed).
+ */
+public record ComputedPoint(String id, String name, String expression, Map<String, Object> meta) {
+
+    public ComputedPoint {
+        meta = (meta != null) ? Map.copyOf(meta) : Map.of();
+    }
+}
@@ -0,0 +1,221 @@
+package org.metrolink.bas.core.compute;
+
+import org.metrolink.bas.core.model.Value;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Maintains computed points as an incremental dependency DAG.
+ * <p>
+ * Each definition is compiled once; edges run from every input id to the computed points that read it, and each
+ * computed point gets a rank (longest path from a physical input). On {@link #onValues} the engine marks the
+ * downstream closure of the changed inputs dirty and recomputes each dirty node exactly once, in rank order, so a
+ * poll batch that changes many inputs still costs one evaluation per affected node.
+ */
+public final class ComputedPointEngine {
+    private final Map<String, Compiled> defs = new LinkedHashMap<>();
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private final Map<String, Double> latest = new HashMap<>();
+    private final Map<String, Value> outputs = new ConcurrentHashMap<>();
+    private final Set<String> ids = ConcurrentHashMap.newKeySet();
+    private final Set<String> shadowed = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<Value>> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder evaluations = new LongAdder();
+    private volatile Predicate<String> physical = id -> false;
+
+    private record Compiled(ComputedPoint def, Expression expr, int rank) {
+    }
+
+    /** Ids already taken by physical points; a computed point may not shadow one. */
+    public void setPhysicalIds(Predicate<String> isPhysical) {
+        this.physical = isPhysical;
+    }
+
+    /** Adds or replaces a definition; rejects unknown syntax, dependency cycles and ids of physical points. */
+    public synchronized void define(ComputedPoint point) {
+        if (physical.test(point.id())) {
+            throw new IllegalArgumentException("'" + point.id() + "' is already a physical point");
+        }
+        var expr = Expression.parse(point.expression());
+        var previous = defs.get(point.id());
+        unlink(point.id(), previous);
+        defs.put(point.id(), new Compiled(point, expr, 0));
+        ids.add(point.id());
+        for (var in : expr.inputs()) dependents.computeIfAbsent(in, k -> new HashSet<>()).add(point.id());
+        try {
+            rerank();
+        } catch (IllegalArgumentException cycle) {
+            unlink(point.id(), defs.remove(point.id()));
+            ids.remove(point.id());
+            if (previous != null) define(previous.def());
+            throw cycle;
+        }
+        shadowed.remove(point.id());
+        recompute(Set.of(point.id()), System.currentTimeMillis());
+    }
+
+    /**
+     * Drops the definitions whose ids a physical point turned out to have (config and startup definitions predate
+     * discovery, and devices gain points later); the physical point wins. Returns the ids dropped by this call.
+     */
+    public synchronized List<String> dropShadowed(Collection<String> physicalIds) {
+        var out = new ArrayList<String>();
+        for (var id : physicalIds) {
+            if (defs.containsKey(id) && remove(id)) {
+                shadowed.add(id);
+                out.add(id);
+            }
+        }
+        return out;
+    }
+
+    /** Ids dropped by {@link #dropShadowed} and not defined again since. */
+    public Set<String> shadowed() {
+        return Set.copyOf(shadowed);
+    }
+
+    public synchronized boolean remove(String id) {
+        var c = defs.remove(id);
+        if (c == null) return false;
+        unlink(id, c);
+        ids.remove(id);
+        outputs.remove(id);
+        latest.remove(id);
+        rerank();
+        return true;
+    }
+
+    public synchronized List<ComputedPoint> definitions() {
+        return defs.values().stream().map(Compiled::def).toList();
+    }
+
+    public boolean isComputed(String id) {
+        return ids.contains(id);
+    }
+
+    public Value current(String id) {
+        return outputs.get(id);
+    }
+
+    public void addListener(Consumer<Value> listener) {
+        listeners.add(listener);
+    }
+
+    public long evaluations() {
+        return evaluations.sum();
+    }
+
+    /** Applies a batch of input values (e.g. one poll tick) and recomputes only what depends on them. */
+    public void onValues(Collection<Value> values) {
+        List<Value> changed;
+        synchronized (this) {
+            var seeds = new HashSet<String>();
+            long ts = 0;
+            for (var v : values) {
+                if (defs.containsKey(v.pointId()) || !(v.value() instanceof Number n)) continue;
+                latest.put(v.pointId(), n.doubleValue());
+                var deps = dependents.get(v.pointId());
+                if (deps != null) seeds.addAll(deps);
+                ts = Math.max(ts, v.tsEpochMs());
+            }
+            if (seeds.isEmpty()) return;
+            changed = recompute(seeds, ts);
+        }
+        for (var v : changed) {
+            for (var l : listeners) l.accept(v);
+        }
+    }
+
+    public void onValue(Value v) {
+        onValues(List.of(v));
+    }
+
+    // caller holds the lock
+    private List<Value> recompute(Set<String> seeds, long ts) {
+        var dirty = new TreeMap<Integer, List<String>>();
+        var seen = new HashSet<String>();
+        var queue = new ArrayDeque<>(seeds);
+        while (!queue.isEmpty()) {
+            var id = queue.poll();
+            if (!seen.add(id)) continue;
+            var c = defs.get(id);
+            if (c == null) continue;
+            dirty.computeIfAbsent(c.rank(), k -> new ArrayList<>()).add(id);
+            var next = dependents.get(id);
+            if (next != null) queue.addAll(next);
+        }
+
+        var changed = new ArrayList<Value>();
+        for (var level : dirty.values()) {
+            for (var id : level) {
+                evaluations.increment();
+                double x = defs.get(id).expr().eval(in -> latest.getOrDefault(in, Double.NaN));
+                Double prev = latest.get(id);
+                if (Double.isNaN(x)) {              // an input is missing: no value rather than a stale one
+                    latest.remove(id);
+                    outputs.remove(id);
+                    continue;
+                }
+                latest.put(id, x);
+                if (prev != null && prev == x) continue;
+                var v = new Value(id, x, ts);
+                outputs.put(id, v);
+                changed.add(v);
+            }
+        }
+        return changed;
+    }
+
+    private void unlink(String id, Compiled c) {
+        if (c == null) return;
+        for (var in : c.expr().inputs()) {
+            var s = dependents.get(in);
+            if (s != null && s.remove(id) && s.isEmpty()) dependents.remove(in);
+        }
+    }
+
+    // Kahn's algorithm over computed nodes; rank = longest distance from a physical input
+    private void rerank() {
+        var indegree = new HashMap<String, Integer>();
+        for (var e : defs.entrySet()) {
+            int d = 0;
+            for (var in : e.getValue().expr().inputs()) if (defs.containsKey(in)) d++;
+            indegree.put(e.getKey(), d);
+        }
+        var rank = new HashMap<String, Integer>();
+        var queue = new ArrayDeque<String>();
+        indegree.forEach((id, d) -> {
+            if (d == 0) {
+                queue.add(id);
+                rank.put(id, 0);
+            }
+        });
+        int visited = 0;
+        while (!queue.isEmpty()) {
+            var id = queue.poll();
+            visited++;
+            var next = dependents.get(id);
+            if (next == null) continue;
+            for (var n : next) {
+                rank.merge(n, rank.get(id) + 1, Math::max);
+                if (indegree.merge(n, -1, Integer::sum) == 0) queue.add(n);
+            }
+        }
+        if (visited != defs.size()) throw new IllegalArgumentException("Computed points form a dependency cycle");
+        defs.replaceAll((id, c) -> new Compiled(c.def(), c.expr(), rank.get(id)));
+    }
+}
@@ -0,0 +1,18 @@
+package org.metrolink.bas.core.compute;
+
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compiled arithmetic expression over point ids. Point values are looked up by id at evaluation time;
+ * a missing input evaluates to NaN, which propagates.
+ */
+public interface Expression {
+    double eval(ToDoubleFunction<String> values);
+
+    Set<String> inputs();
+
+    static Expression parse(String source) {
+        return new ExpressionParser(source).parse();
+    }
+}
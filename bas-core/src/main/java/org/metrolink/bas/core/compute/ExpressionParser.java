@@ -0,0 +1,199 @@
+package org.metrolink.bas.core.compute;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Recursive-descent parser for computed-point expressions.
+ * <pre>
+ * expr    := term (('+' | '-') term)*
+ * term    := unary (('*' | '/') unary)*
+ * unary   := '-' unary | primary
+ * primary := number | '{' pointId '}' | name '(' expr (',' expr)* ')' | '(' expr ')'
+ * name    := avg | min | max | sum | abs | sqrt
+ * </pre>
+ * Example: {@code avg({dev1/AI1}, {dev2/AI1}) - {dev1/AI3}}.
+ */
+final class ExpressionParser {
+    private interface Node {
+        double eval(ToDoubleFunction<String> values);
+    }
+
+    private final String src;
+    private final Set<String> inputs = new LinkedHashSet<>();
+    private int pos;
+
+    ExpressionParser(String src) {
+        this.src = src;
+    }
+
+    Expression parse() {
+        var root = expr();
+        skipWs();
+        if (pos != src.length()) throw error("unexpected '" + src.charAt(pos) + "'");
+        var deps = Set.copyOf(inputs);
+        return new Expression() {
+            @Override
+            public double eval(ToDoubleFunction<String> values) {
+                return root.eval(values);
+            }
+
+            @Override
+            public Set<String> inputs() {
+                return deps;
+            }
+
+            @Override
+            public String toString() {
+                return src;
+            }
+        };
+    }
+
+    private Node expr() {
+        var left = term();
+        while (true) {
+            if (eat('+')) {
+                var l = left;
+                var r = term();
+                left = v -> l.eval(v) + r.eval(v);
+            } else if (eat('-')) {
+                var l = left;
+                var r = term();
+                left = v -> l.eval(v) - r.eval(v);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node term() {
+        var left = unary();
+        while (true) {
+            if (eat('*')) {
+                var l = left;
+                var r = unary();
+                left = v -> l.eval(v) * r.eval(v);
+            } else if (eat('/')) {
+                var l = left;
+                var r = unary();
+                left = v -> l.eval(v) / r.eval(v);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node unary() {
+        if (eat('-')) {
+            var inner = unary();
+            return v -> -inner.eval(v);
+        }
+        return primary();
+    }
+
+    private Node primary() {
+        skipWs();
+        if (eat('(')) {
+            var inner = expr();
+            expect(')');
+            return inner;
+        }
+        if (eat('{')) {
+            int end = src.indexOf('}', pos);
+            if (end < 0) throw error("unterminated point reference");
+            var id = src.substring(pos, end).trim();
+            if (id.isEmpty()) throw error("empty point reference");
+            pos = end + 1;
+            inputs.add(id);
+            return v -> v.applyAsDouble(id);
+        }
+        if (pos < src.length() && (Character.isDigit(src.charAt(pos)) || src.charAt(pos) == '.')) {
+            int start = pos;
+            while (pos < src.length()) {
+                char ch = src.charAt(pos);
+                boolean exponentSign = (ch == '+' || ch == '-') && "eE".indexOf(src.charAt(pos - 1)) >= 0;
+                if (!Character.isDigit(ch) && ch != '.' && ch != 'e' && ch != 'E' && !exponentSign) break;
+                pos++;
+            }
+            double c;
+            try {
+                c = Double.parseDouble(src.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("bad number " + src.substring(start, pos));
+            }
+            return v -> c;
+        }
+        if (pos < src.length() && Character.isLetter(src.charAt(pos))) {
+            int start = pos;
+            while (pos < src.length() && Character.isLetter(src.charAt(pos))) pos++;
+            return function(src.substring(start, pos));
+        }
+        throw error(pos < src.length() ? "unexpected '" + src.charAt(pos) + "'" : "unexpected end");
+    }
+
+    private Node function(String name) {
+        expect('(');
+        var args = new ArrayList<Node>();
+        args.add(expr());
+        while (eat(',')) args.add(expr());
+        expect(')');
+        var a = args.toArray(Node[]::new);
+        return switch (name) {
+            case "avg" -> v -> sum(a, v) / a.length;
+            case "sum" -> v -> sum(a, v);
+            case "min" -> v -> fold(a, v, true);
+            case "max" -> v -> fold(a, v, false);
+            case "abs" -> unaryFn(name, a, Math::abs);
+            case "sqrt" -> unaryFn(name, a, Math::sqrt);
+            default -> throw error("unknown function " + name);
+        };
+    }
+
+    private Node unaryFn(String name, Node[] a, DoubleUnaryOperator f) {
+        if (a.length != 1) throw error(name + "() takes one argument");
+        var arg = a[0];
+        return v -> f.applyAsDouble(arg.eval(v));
+    }
+
+    private static double sum(Node[] a, ToDoubleFunction<String> v) {
+        double s = 0;
+        for (var n : a) s += n.eval(v);
+        return s;
+    }
+
+    private static double fold(Node[] a, ToDoubleFunction<String> v, boolean min) {
+        double acc = a[0].eval(v);
+        for (int i = 1; i < a.length; i++) {
+            double x = a[i].eval(v);
+            if (Double.isNaN(x)) return Double.NaN;
+            acc = min ? Math.min(acc, x) : Math.max(acc, x);
+        }
+        return acc;
+    }
+
+    private boolean eat(char c) {
+        skipWs();
+        if (pos < src.length() && src.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!eat(c)) throw error("expected '" + c + "'");
+    }
+
+    private void skipWs() {
+        while (pos < src.length() && Character.isWhitespace(src.charAt(pos))) pos++;
+    }
+
+    private IllegalArgumentException error(String msg) {
+        return new IllegalArgumentException("Expression '" + src + "' at " + pos + ": " + msg);
+    }
+}
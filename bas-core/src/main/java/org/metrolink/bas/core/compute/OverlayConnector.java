@@ -0,0 +1,154 @@
+package org.metrolink.bas.core.compute;
+
+import org.metrolink.bas.core.model.Device;
+import org.metrolink.bas.core.model.HealthStatus;
+import org.metrolink.bas.core.model.Point;
+import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.ports.*;
+import org.metrolink.bas.core.spi.ConnectorPlugin;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+/**
+ * Presents a physical connector plus the computed-point connector as one plugin: discovery is merged and every
+ * port call is routed by point id, so Kernel consumers see computed points exactly like physical ones. Physical
+ * devices are discovered first and a computed definition sharing an id with one of their points is dropped, so
+ * the physical point is never shadowed.
+ * Lifecycle calls go to the physical connector.
+ */
+public final class OverlayConnector implements ConnectorPlugin {
+    private final ConnectorPlugin physical;
+    private final ComputedConnector computed;
+
+    public OverlayConnector(ConnectorPlugin physical, ComputedConnector computed) {
+        this.physical = physical;
+        this.computed = computed;
+    }
+
+    @Override
+    public String id() {
+        return physical.id();
+    }
+
+    @Override
+    public void init(Map<String, Object> config) {
+        physical.init(config);
+    }
+
+    @Override
+    public void start() throws Exception {
+        physical.start();
+    }
+
+    @Override
+    public void stop() throws Exception {
+        computed.stop();
+        physical.stop();
+    }
+
+    @Override
+    public DiscoveryPort discovery() {
+        return new DiscoveryPort() {
+            @Override
+            public List<Device> discoverDevices(Duration timeout) throws Exception {
+                var out = new ArrayList<>(physical.discovery().discoverDevices(timeout));
+                out.addAll(computed.discovery().discoverDevices(timeout));
+                return out;
+            }
+
+            @Override
+            public List<Point> discoverPoints(Device device, Duration timeout) throws Exception {
+                if (ComputedConnector.DEVICE_ID.equals(device.id())) {
+                    return computed.discovery().discoverPoints(device, timeout);
+                }
+                var points = physical.discovery().discoverPoints(device, timeout);
+                computed.yieldTo(points);
+                return points;
+            }
+        };
+    }
+
+    @Override
+    public ReaderPort reader() {
+        return pointIds -> {
+            var split = split(pointIds);
+            if (split.virtual.isEmpty()) return physical.reader().read(pointIds);
+            Map<String, Value> out = new HashMap<>(computed.reader().read(split.virtual));
+            if (!split.real.isEmpty()) out.putAll(physical.reader().read(split.real));
+            return out;
+        };
+    }
+
+    @Override
+    public WriterPort writer() {
+        return (pointId, value, options) -> {
+            if (computed.owns(pointId)) computed.writer().write(pointId, value, options);
+            else physical.writer().write(pointId, value, options);
+        };
+    }
+
+    @Override
+    public SubscribePort subscribe() {
+        return (pointIds, subscriber) -> {
+            var split = split(pointIds);
+            if (split.virtual.isEmpty()) return physical.subscribe().subscribe(pointIds, subscriber);
+            if (split.real.isEmpty()) return computed.subscribe().subscribe(pointIds, subscriber);
+            var a = physical.subscribe().subscribe(split.real, subscriber);
+            var b = computed.subscribe().subscribe(split.virtual, new Flow.Subscriber<Value>() {
+                // the subscriber already got its onSubscribe from the physical side; close() ends both streams
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                }
+
+                @Override
+                public void onNext(Value item) {
+                    subscriber.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    subscriber.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+            return () -> {
+                try {
+                    a.close();
+                } finally {
+                    b.close();
+                }
+            };
+        };
+    }
+
+    @Override
+    public HealthPort health() {
+        return () -> {
+            var p = physical.health().health();
+            var m = new LinkedHashMap<String, Object>();
+            if (p.metrics() != null) m.putAll(p.metrics());
+            m.put("computed", computed.health().health().metrics());
+            return new HealthStatus(p.up(), m);
+        };
+    }
+
+    private Split split(List<String> ids) {
+        var s = new Split();
+        for (var id : ids) (computed.owns(id) ? s.virtual : s.real).add(id);
+        return s;
+    }
+
+    private static final class Split {
+        final List<String> real = new ArrayList<>();
+        final List<String> virtual = new ArrayList<>();
+    }
+}
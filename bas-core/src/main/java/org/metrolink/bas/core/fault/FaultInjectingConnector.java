@@ -0,0 +1,261 @@
+package org.metrolink.bas.core.fault;
+
+import org.metrolink.bas.core.model.Device;
+import org.metrolink.bas.core.model.HealthStatus;
+import org.metrolink.bas.core.model.Point;
+import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.ports.*;
+import org.metrolink.bas.core.spi.ConnectorPlugin;
+import org.metrolink.bas.core.time.Clock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps any plugin and degrades it according to a {@link FaultScenario}: injected latency, exceptions and timeouts
+ * on discovery/read/write, dropped COV events, and device outages/reboots on a timeline that starts at construction
+ * and restarts with {@link #start()}.
+ * <p>
+ * Points are attributed to devices from discovery results passing through; unknown ids fall back to the prefix
+ * before the first '/'. A batch read spanning a down device waits out the timeout and returns the reachable subset,
+ * as a multi-device field-bus read would. Sampling is seeded, so a scenario replays the same fault sequence for the
+ * same call sequence. Latency and timeouts are waited out on the given {@link Clock}, so under a
+ * {@code VirtualClock} they advance virtual time instead of blocking.
+ */
+public final class FaultInjectingConnector implements ConnectorPlugin {
+    private final ConnectorPlugin delegate;
+    private final FaultScenario scenario;
+    private final SplittableRandom seed;
+    private final Map<String, String> deviceOf = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private volatile long epochNanos;
+
+    private final LongAdder delayedCalls = new LongAdder();
+    private final LongAdder delayMs = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder unreachable = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+
+    public FaultInjectingConnector(ConnectorPlugin delegate, FaultScenario scenario, long seed) {
+        this(delegate, scenario, seed, Clock.SYSTEM);
+    }
+
+    public FaultInjectingConnector(ConnectorPlugin delegate, FaultScenario scenario, long seed, Clock clock) {
+        this.delegate = delegate;
+        this.scenario = scenario;
+        this.seed = new SplittableRandom(seed);
+        this.clock = Objects.requireNonNull(clock);
+        this.epochNanos = clock.nanoTime();
+    }
+
+    public FaultScenario scenario() {
+        return scenario;
+    }
+
+    public long elapsedMs() {
+        return (clock.nanoTime() - epochNanos) / 1_000_000;
+    }
+
+    @Override
+    public String id() {
+        return delegate.id();
+    }
+
+    @Override
+    public void init(Map<String, Object> config) {
+        delegate.init(config);
+    }
+
+    @Override
+    public void start() throws Exception {
+        delegate.start();
+        epochNanos = clock.nanoTime();
+    }
+
+    @Override
+    public void stop() throws Exception {
+        delegate.stop();
+    }
+
+    @Override
+    public DiscoveryPort discovery() {
+        return new DiscoveryPort() {
+            @Override
+            public List<Device> discoverDevices(Duration timeout) throws Exception {
+                inject("discoverDevices");
+                long now = elapsedMs();
+                return delegate.discovery().discoverDevices(timeout).stream()
+                        .filter(d -> !scenario.isDown(d.id(), now))
+                        .toList();
+            }
+
+            @Override
+            public List<Point> discoverPoints(Device device, Duration timeout) throws Exception {
+                unreachable(device.id());
+                inject("discoverPoints");
+                var points = delegate.discovery().discoverPoints(device, timeout);
+                for (var p : points) deviceOf.put(p.id(), p.deviceId());
+                return points;
+            }
+        };
+    }
+
+    @Override
+    public ReaderPort reader() {
+        return pointIds -> {
+            inject("read");
+            long now = elapsedMs();
+            List<String> reachable = null;
+            for (int i = 0; i < pointIds.size(); i++) {
+                var id = pointIds.get(i);
+                if (!scenario.isDown(deviceOf(id), now)) {
+                    if (reachable != null) reachable.add(id);
+                    continue;
+                }
+                if (reachable == null) reachable = new ArrayList<>(pointIds.subList(0, i));
+            }
+            if (reachable == null) return delegate.reader().read(pointIds);
+
+            // some devices are down: the read waits for them to time out
+            unreachable.increment();
+            sleep(timeoutMs());
+            if (reachable.isEmpty()) throw new TimeoutException("read: all devices unreachable (injected)");
+            return delegate.reader().read(reachable);
+        };
+    }
+
+    @Override
+    public WriterPort writer() {
+        return (pointId, value, options) -> {
+            unreachable(deviceOf(pointId));
+            inject("write");
+            delegate.writer().write(pointId, value, options);
+        };
+    }
+
+    @Override
+    public SubscribePort subscribe() {
+        return (pointIds, subscriber) -> {
+            inject("subscribe");
+            long since = elapsedMs();
+            return delegate.subscribe().subscribe(pointIds, new Flow.Subscriber<>() {
+                private Flow.Subscription upstream;
+
+                @Override
+                public void onSubscribe(Flow.Subscription s) {
+                    upstream = s;
+                    subscriber.onSubscribe(s);
+                }
+
+                @Override
+                public void onNext(Value item) {
+                    long now = elapsedMs();
+                    var dev = deviceOf(item.pointId());
+                    boolean drop = scenario.isDown(dev, now)
+                            || scenario.rebootedBetween(dev, since, now)
+                            || roll(scenario.profileAt(now).dropRate());
+                    if (!drop) {
+                        subscriber.onNext(item);
+                        return;
+                    }
+                    droppedEvents.increment();
+                    upstream.request(1);   // the consumer never saw it, so its demand is still outstanding
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    subscriber.onError(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            });
+        };
+    }
+
+    @Override
+    public HealthPort health() {
+        return () -> {
+            var h = delegate.health().health();
+            var m = new LinkedHashMap<String, Object>();
+            if (h.metrics() != null) m.putAll(h.metrics());
+            var f = new LinkedHashMap<String, Object>();
+            long now = elapsedMs();
+            f.put("elapsedMs", now);
+            f.put("delayedCalls", delayedCalls.sum());
+            f.put("delayMs", delayMs.sum());
+            f.put("errors", errors.sum());
+            f.put("timeouts", timeouts.sum());
+            f.put("unreachable", unreachable.sum());
+            f.put("droppedEvents", droppedEvents.sum());
+            f.put("devicesDown", scenario.outages().stream().map(FaultScenario.Outage::deviceId).distinct()
+                    .filter(d -> scenario.isDown(d, now)).toList());
+            m.put("faults", f);
+            return new HealthStatus(h.up(), m);
+        };
+    }
+
+    private void inject(String op) throws Exception {
+        var p = scenario.profileAt(elapsedMs());
+        long delay = p.latency().sampleMs(random());
+        if (delay > 0) {
+            delayedCalls.increment();
+            delayMs.add(delay);
+            sleep(delay);
+        }
+        if (roll(p.timeoutRate())) {
+            timeouts.increment();
+            sleep(p.timeoutMs());
+            throw new TimeoutException(op + " timed out (injected)");
+        }
+        if (roll(p.errorRate())) {
+            errors.increment();
+            throw new IllegalStateException(op + " failed (injected)");
+        }
+    }
+
+    private void unreachable(String deviceId) throws Exception {
+        if (!scenario.isDown(deviceId, elapsedMs())) return;
+        unreachable.increment();
+        sleep(timeoutMs());
+        throw new TimeoutException("device " + deviceId + " unreachable (injected)");
+    }
+
+    private long timeoutMs() {
+        return scenario.profileAt(elapsedMs()).timeoutMs();
+    }
+
+    private String deviceOf(String pointId) {
+        var d = deviceOf.get(pointId);
+        if (d != null) return d;
+        int slash = pointId.indexOf('/');
+        return slash > 0 ? pointId.substring(0, slash) : pointId;
+    }
+
+    private boolean roll(double rate) {
+        return rate > 0 && random().nextDouble() < rate;
+    }
+
+    // SplittableRandom is not thread-safe; split per call under the lock (cheap) so callers never share state
+    private SplittableRandom random() {
+        synchronized (seed) {
+            return seed.split();
+        }
+    }
+
+    private void sleep(long ms) throws InterruptedException {
+        clock.sleep(ms);
+    }
+}
@@ -0,0 +1,41 @@
+package org.metrolink.bas.core.fault;
+
+/**
+ * What goes wrong on each call while a profile is active. Rates are probabilities in [0, 1]; an injected timeout
+ * blocks the caller for {@code timeoutMs} and then throws {@link java.util.concurrent.TimeoutException}.
+ */
+public record FaultProfile(LatencyDistribution latency, double errorRate, double timeoutRate, long timeoutMs,
+                           double dropRate) {
+
+    public FaultProfile {
+        if (latency == null) latency = LatencyDistribution.none();
+        check("errorRate", errorRate);
+        check("timeoutRate", timeoutRate);
+        check("dropRate", dropRate);
+        if (timeoutMs < 0) throw new IllegalArgumentException("timeoutMs < 0");
+    }
+
+    public static FaultProfile none() {
+        return new FaultProfile(LatencyDistribution.none(), 0, 0, 0, 0);
+    }
+
+    public FaultProfile withLatency(LatencyDistribution latency) {
+        return new FaultProfile(latency, errorRate, timeoutRate, timeoutMs, dropRate);
+    }
+
+    public FaultProfile withErrors(double errorRate) {
+        return new FaultProfile(latency, errorRate, timeoutRate, timeoutMs, dropRate);
+    }
+
+    public FaultProfile withTimeouts(double timeoutRate, long timeoutMs) {
+        return new FaultProfile(latency, errorRate, timeoutRate, timeoutMs, dropRate);
+    }
+
+    public FaultProfile withDrops(double dropRate) {
+        return new FaultProfile(latency, errorRate, timeoutRate, timeoutMs, dropRate);
+    }
+
+    private static void check(String name, double rate) {
+        if (!(rate >= 0 && rate <= 1)) throw new IllegalArgumentException(name + " must be in [0, 1]: " + rate);
+    }
+}
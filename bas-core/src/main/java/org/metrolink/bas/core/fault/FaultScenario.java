@@ -0,0 +1,100 @@
+package org.metrolink.bas.core.fault;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scripted fault timeline, in offsets from the moment the decorated connector starts. Phases override the
+ * baseline profile while they run (the last matching phase wins); outages make one device unreachable.
+ * With {@code loop} set, the timeline repeats with that period, which keeps long soak runs degraded on a rhythm.
+ */
+public record FaultScenario(FaultProfile baseline, List<Phase> phases, List<Outage> outages, Duration loop) {
+
+    public record Phase(Duration at, Duration duration, FaultProfile profile) {
+        boolean covers(long ms) {
+            long from = at.toMillis();
+            return ms >= from && ms < from + duration.toMillis();
+        }
+    }
+
+    /**
+     * {@code reboot}: the device lost its volatile state, so COV subscriptions made before the outage ended stay
+     * silent until the consumer subscribes again, like a real controller after a power cycle.
+     */
+    public record Outage(String deviceId, Duration at, Duration duration, boolean reboot) {
+        long fromMs() {
+            return at.toMillis();
+        }
+
+        long toMs() {
+            return at.toMillis() + duration.toMillis();
+        }
+    }
+
+    public FaultScenario {
+        if (baseline == null) baseline = FaultProfile.none();
+        phases = phases != null ? List.copyOf(phases) : List.of();
+        outages = outages != null ? List.copyOf(outages) : List.of();
+        if (loop != null && (loop.isZero() || loop.isNegative())) loop = null;
+    }
+
+    public static FaultScenario of(FaultProfile baseline) {
+        return new FaultScenario(baseline, List.of(), List.of(), null);
+    }
+
+    public FaultScenario withPhase(Duration at, Duration duration, FaultProfile profile) {
+        var next = new ArrayList<>(phases);
+        next.add(new Phase(at, duration, profile));
+        return new FaultScenario(baseline, next, outages, loop);
+    }
+
+    public FaultScenario withOutage(String deviceId, Duration at, Duration duration, boolean reboot) {
+        var next = new ArrayList<>(outages);
+        next.add(new Outage(deviceId, at, duration, reboot));
+        return new FaultScenario(baseline, phases, next, loop);
+    }
+
+    public FaultScenario looping(Duration period) {
+        return new FaultScenario(baseline, phases, outages, period);
+    }
+
+    long position(long elapsedMs) {
+        return loop == null ? elapsedMs : elapsedMs % loop.toMillis();
+    }
+
+    FaultProfile profileAt(long elapsedMs) {
+        long t = position(elapsedMs);
+        var p = baseline;
+        for (var ph : phases) if (ph.covers(t)) p = ph.profile();
+        return p;
+    }
+
+    boolean isDown(String deviceId, long elapsedMs) {
+        long t = position(elapsedMs);
+        for (var o : outages) {
+            if (o.deviceId().equals(deviceId) && t >= o.fromMs() && t < o.toMs()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether {@code deviceId} finished a reboot in {@code (sinceMs, nowMs]} (both elapsed times).
+     */
+    boolean rebootedBetween(String deviceId, long sinceMs, long nowMs) {
+        for (var o : outages) {
+            if (!o.reboot() || !o.deviceId().equals(deviceId)) continue;
+            if (loop == null) {
+                if (o.toMs() > sinceMs && o.toMs() <= nowMs) return true;
+            } else {
+                long period = loop.toMillis();
+                // most recent occurrence of the reboot end at or before nowMs
+                long cycleStart = nowMs - position(nowMs);
+                long end = cycleStart + o.toMs();
+                if (end > nowMs) end -= period;
+                if (end > sinceMs && end >= 0) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,33 @@
+package org.metrolink.bas.core.fault;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Injected per-call delay in milliseconds.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    long sampleMs(RandomGenerator random);
+
+    static LatencyDistribution none() {
+        return r -> 0;
+    }
+
+    static LatencyDistribution fixed(long ms) {
+        return r -> ms;
+    }
+
+    static LatencyDistribution uniform(long minMs, long maxMs) {
+        if (maxMs < minMs) throw new IllegalArgumentException("maxMs < minMs");
+        return r -> minMs + r.nextLong(maxMs - minMs + 1);
+    }
+
+    /**
+     * Long-tailed field-bus style latency: median {@code medianMs}, spread {@code sigma} (0.5 ≈ p99 at 3x median).
+     */
+    static LatencyDistribution logNormal(double medianMs, double sigma) {
+        double mu = Math.log(Math.max(medianMs, 1e-3));
+        return r -> Math.round(Math.exp(mu + sigma * r.nextGaussian()));
+    }
+}
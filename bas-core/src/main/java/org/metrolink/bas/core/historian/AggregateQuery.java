@@ -0,0 +1,44 @@
+package org.metrolink.bas.core.historian;
+
+import org.metrolink.bas.core.registry.NodeQuery;
+
+import java.time.Duration;
+
+/**
+ * Cross-point aggregation over {@code [fromMs, toMs)} for {@link QueryEngine}.
+ * <p>
+ * {@code selection} picks points from the registry; {@code groupBy} is {@code "device"}, {@code "type"},
+ * {@code "point"}, {@code "meta:<key>"} or null (one group, {@code "all"}). With a {@code resolution} each group
+ * gets one row per bucket (aligned like {@link Historian#aggregate}), without it one row for the whole window.
+ */
+public record AggregateQuery(NodeQuery selection, long fromMs, long toMs, Duration resolution, String groupBy,
+                             Aggregation aggregation) {
+    /** Rows per group a single query may produce. */
+    public static final int MAX_ROWS = 100_000;
+
+    public enum Aggregation {
+        /** Mean of the per-point means: a fast-polled point does not outweigh a slow one. */
+        MEAN,
+        MIN,
+        MAX,
+        SUM,
+        /** Number of samples. */
+        COUNT
+    }
+
+    public AggregateQuery {
+        if (selection == null) selection = NodeQuery.all();
+        if (aggregation == null) aggregation = Aggregation.MEAN;
+        if (fromMs >= toMs) throw new IllegalArgumentException("from must be before to");
+        if (resolution != null && resolution.toMillis() <= 0) {
+            throw new IllegalArgumentException("resolution must be >= 1ms");
+        }
+        if (resolution != null && (toMs - fromMs) / resolution.toMillis() > MAX_ROWS) {
+            throw new IllegalArgumentException("more than " + MAX_ROWS + " rows; use a coarser resolution");
+        }
+        if (groupBy != null && !groupBy.isBlank() && !groupBy.equals("device") && !groupBy.equals("type")
+                && !groupBy.equals("point") && !groupBy.startsWith("meta:")) {
+            throw new IllegalArgumentException("groupBy must be device, type, point or meta:<key>, got " + groupBy);
+        }
+    }
+}
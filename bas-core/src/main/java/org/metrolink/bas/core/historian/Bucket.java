@@ -0,0 +1,105 @@
+package org.metrolink.bas.core.historian;
+
+import org.metrolink.bas.core.model.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregate of the samples in {@code [startMs, startMs + widthMs)}. Booleans count as 0/1 (run-time totals);
+ * other non-numeric samples (null, strings, NaN) only move {@code count} and {@code last}, so {@code sum}, the
+ * extremes and the mean cover the {@code numericCount} numeric ones.
+ */
+public record Bucket(long startMs, long widthMs, long count, long numericCount, double sum, double min, double max,
+                     Object last, long lastTsMs) {
+
+    public double mean() {
+        return numericCount == 0 ? Double.NaN : sum / numericCount;
+    }
+
+    static double numeric(Object v) {
+        if (v instanceof Number n) return n.doubleValue();
+        if (v instanceof Boolean b) return b ? 1 : 0;
+        return Double.NaN;
+    }
+
+    /** Merges consecutive finer buckets (sorted by start) into buckets of {@code widthMs}. */
+    static List<Bucket> coarsen(List<Bucket> fine, long widthMs) {
+        var out = new ArrayList<Bucket>();
+        Acc acc = null;
+        for (var b : fine) {
+            long start = Math.floorDiv(b.startMs(), widthMs) * widthMs;
+            if (acc == null || acc.start != start) {
+                if (acc != null) out.add(acc.toBucket(widthMs));
+                acc = new Acc(start);
+            }
+            acc.merge(b);
+        }
+        if (acc != null) out.add(acc.toBucket(widthMs));
+        return out;
+    }
+
+    static List<Bucket> fromSamples(List<Value> samples, long widthMs) {
+        var out = new ArrayList<Bucket>();
+        Acc acc = null;
+        for (var v : samples) {
+            long start = Math.floorDiv(v.tsEpochMs(), widthMs) * widthMs;
+            if (acc == null || acc.start != start) {
+                if (acc != null) out.add(acc.toBucket(widthMs));
+                acc = new Acc(start);
+            }
+            acc.add(v.value(), v.tsEpochMs());
+        }
+        if (acc != null) out.add(acc.toBucket(widthMs));
+        return out;
+    }
+
+    /** Mutable accumulator; callers synchronize. */
+    static final class Acc {
+        final long start;
+        long count;
+        long numericCount;
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        Object last;
+        long lastTs = Long.MIN_VALUE;
+
+        Acc(long start) {
+            this.start = start;
+        }
+
+        void add(Object value, long ts) {
+            count++;
+            double x = numeric(value);
+            if (!Double.isNaN(x)) {
+                numericCount++;
+                sum += x;
+                if (x < min) min = x;
+                if (x > max) max = x;
+            }
+            if (ts >= lastTs) {
+                last = value;
+                lastTs = ts;
+            }
+        }
+
+        void merge(Bucket b) {
+            count += b.count();
+            numericCount += b.numericCount();
+            sum += b.sum();
+            if (b.min() < min) min = b.min();
+            if (b.max() > max) max = b.max();
+            if (b.lastTsMs() >= lastTs) {
+                last = b.last();
+                lastTs = b.lastTsMs();
+            }
+        }
+
+        Bucket toBucket(long widthMs) {
+            boolean numeric = min <= max;
+            return new Bucket(start, widthMs, count, numericCount, sum, numeric ? min : Double.NaN,
+                    numeric ? max : Double.NaN, last, lastTs);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package org.metrolink.bas.core.historian;
+
+import org.metrolink.bas.core.model.Value;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Disk archive of numeric samples in a columnar layout, for bulk export.
+ * <p>
+ * One file per point per UTC day ({@code <dir>/p_<urlencoded id>/<yyyy-MM-dd>.col}), made of chunks
+ * {@code i32 count · i64[count] tsEpochMs · f64[count] value} (big-endian, each chunk time-ordered; booleans are
+ * 0/1, non-numeric samples are not archived). {@link #accept} only offers to a bounded queue (overflow is counted,
+ * never blocks ingest); one writer thread buffers per point and appends a chunk per point every
+ * {@code flushInterval} or {@code chunkSamples}. A day's file is sealed once the day is over and the writer has
+ * flushed past it; days older than {@code retentionDays} are deleted.
+ * <p>
+ * {@link #export} writes {@code "BASX" · u8 version(=1) · section* · u16 0xFFFF} with
+ * {@code section := u16 idLength · utf8 id · chunk* · i32 0}, i.e. the file format itself, so a sealed day that
+ * lies wholly inside the requested range is sent with {@link FileChannel#transferTo} without touching the heap.
+ * Boundary and still-open days are read chunk by chunk, filtered and re-encoded into a fixed-size buffer.
+ */
+public final class ColumnarArchive implements Consumer<Value>, AutoCloseable {
+    public static final String MEDIA_TYPE = "application/x-bas-columns";
+    private static final byte[] MAGIC = {'B', 'A', 'S', 'X'};
+    private static final byte VERSION = 1;
+    private static final int END = 0xFFFF;
+    private static final long DAY_MS = 86_400_000L;
+    private static final String PREFIX = "p_";
+    private static final String SUFFIX = ".col";
+
+    // grown on demand: most points log a handful of samples per flush, far below chunkSamples
+    private static final class Pending {
+        long[] ts = new long[8];
+        double[] values = new double[8];
+        int n;
+
+        void add(long t, double v, int max) {
+            if (n == ts.length) {
+                int cap = Math.min(max, ts.length * 2);
+                ts = Arrays.copyOf(ts, cap);
+                values = Arrays.copyOf(values, cap);
+            }
+            ts[n] = t;
+            values[n++] = v;
+        }
+    }
+
+    private final Path dir;
+    private final int chunkSamples;
+    private final long flushNanos;
+    private final int retentionDays;
+    private final BlockingQueue<Value> queue;
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder exportedBytes = new LongAdder();
+    private final LongAdder transferredBytes = new LongAdder();
+    private final Map<String, Pending> pending = new HashMap<>();    // writer thread only
+    private final Thread writer;
+    private volatile long sealedBeforeMs;                            // days starting before this are sealed
+    private volatile boolean closed;
+
+    public ColumnarArchive(Path dir, int chunkSamples, Duration flushInterval, int queueCapacity,
+                           int retentionDays) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.chunkSamples = Math.max(16, chunkSamples);
+        this.flushNanos = flushInterval.toNanos();
+        this.retentionDays = retentionDays;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.sealedBeforeMs = dayStart(System.currentTimeMillis());
+        this.writer = new Thread(this::drainLoop, "columnar-archive");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void accept(Value v) {
+        if (closed || !(v.value() instanceof Number || v.value() instanceof Boolean) || !queue.offer(v)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Streams {@code ids} over {@code [fromMs, toMs)} to {@code out}; returns the bytes written. Samples still in the
+     * writer's buffers (at most {@code flushInterval} old) are not included.
+     */
+    public long export(List<String> ids, long fromMs, long toMs, WritableByteChannel out) throws IOException {
+        var buf = ByteBuffer.allocate(1 << 16);
+        long written = 0;
+        buf.put(MAGIC).put(VERSION);
+        for (var id : ids) {
+            var name = id.getBytes(StandardCharsets.UTF_8);
+            if (name.length >= END) throw new IllegalArgumentException("point id too long: " + id);
+            written += ensure(buf, 2 + name.length, out);
+            buf.putShort((short) name.length).put(name);
+            for (var day = LocalDate.ofEpochDay(Math.floorDiv(fromMs, DAY_MS)); dayStart(day) < toMs;
+                 day = day.plusDays(1)) {
+                var file = pointDir(id).resolve(day + SUFFIX);
+                long start = dayStart(day);
+                boolean whole = start >= fromMs && start + DAY_MS <= toMs && start + DAY_MS <= sealedBeforeMs;
+                try (var ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                    if (whole) {
+                        written += drain(buf, out);
+                        written += transfer(ch, out);
+                    } else {
+                        written += filter(ch, fromMs, toMs, buf, out);
+                    }
+                } catch (NoSuchFileException e) {
+                    // no samples that day
+                }
+            }
+            written += ensure(buf, 4, out);
+            buf.putInt(0);
+        }
+        written += ensure(buf, 2, out);
+        buf.putShort((short) END);
+        written += drain(buf, out);
+        exportedBytes.add(written);
+        return written;
+    }
+
+    public Map<String, Object> stats() {
+        var m = new LinkedHashMap<String, Object>();
+        m.put("archived", archived.sum());
+        m.put("dropped", dropped.sum());
+        m.put("queued", queue.size());
+        m.put("exportedBytes", exportedBytes.sum());
+        m.put("zeroCopyBytes", transferredBytes.sum());
+        return m;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            writer.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---- export ----
+
+    // a backfilled sample can still append to a sealed day; only whole chunks are sent
+    private long transfer(FileChannel ch, WritableByteChannel out) throws IOException {
+        long size = complete(ch), pos = 0;
+        while (pos < size) pos += ch.transferTo(pos, size - pos, out);
+        transferredBytes.add(size);
+        return size;
+    }
+
+    private static long complete(FileChannel ch) throws IOException {
+        long size = ch.size(), pos = 0;
+        var head = ByteBuffer.allocate(4);
+        while (pos + 4 <= size) {
+            head.clear();
+            if (ch.read(head, pos) < 4) break;
+            int n = head.flip().getInt();
+            if (n <= 0 || pos + 4 + 16L * n > size) break;
+            pos += 4 + 16L * n;
+        }
+        return pos;
+    }
+
+    // complete chunks only: a chunk still being appended past the size we saw is left out
+    private long filter(FileChannel ch, long fromMs, long toMs, ByteBuffer buf, WritableByteChannel out)
+            throws IOException {
+        long size = ch.size(), pos = 0, written = 0;
+        var head = ByteBuffer.allocate(4);
+        var col = ByteBuffer.allocate(chunkSamples * 16);
+        while (pos + 4 <= size) {
+            head.clear();
+            ch.read(head, pos);
+            int n = head.flip().getInt();
+            long len = 4 + 16L * n;
+            if (n <= 0 || pos + len > size) break;
+            if (col.capacity() < 16 * n) col = ByteBuffer.allocate(16 * n);
+            col.clear().limit(16 * n);
+            while (col.hasRemaining()) {
+                if (ch.read(col, pos + 4 + col.position()) < 0) throw new IOException("truncated chunk");
+            }
+            col.flip();
+            // chunks are time-ordered, so the samples in range are one contiguous run [first, first + count)
+            int first = -1, count = 0;
+            for (int i = 0; i < n; i++) {
+                long ts = col.getLong(8 * i);
+                if (ts >= fromMs && ts < toMs) {
+                    if (first < 0) first = i;
+                    count = i - first + 1;
+                }
+            }
+            // re-chunk runs that exceed the export buffer (chunkSamples may have been larger when written)
+            for (int part = (buf.capacity() - 4) / 16; count > 0; first += part, count -= part) {
+                int k = Math.min(count, part);
+                written += ensure(buf, 4 + 16 * k, out);
+                buf.putInt(k);
+                for (int i = first; i < first + k; i++) buf.putLong(col.getLong(8 * i));
+                for (int i = first; i < first + k; i++) buf.putDouble(col.getDouble(8 * n + 8 * i));
+            }
+            pos += len;
+        }
+        return written;
+    }
+
+    private static long ensure(ByteBuffer buf, int bytes, WritableByteChannel out) throws IOException {
+        if (buf.remaining() >= bytes) return 0;
+        long n = drain(buf, out);
+        if (buf.capacity() < bytes) throw new IllegalStateException("chunk larger than export buffer");
+        return n;
+    }
+
+    private static long drain(ByteBuffer buf, WritableByteChannel out) throws IOException {
+        buf.flip();
+        long n = buf.remaining();
+        while (buf.hasRemaining()) out.write(buf);
+        buf.clear();
+        return n;
+    }
+
+    // ---- writer thread ----
+
+    private void drainLoop() {
+        long lastFlush = System.nanoTime();
+        var batch = new ArrayList<Value>(4096);
+        while (true) {
+            try {
+                var v = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (v != null) {
+                    batch.add(v);
+                    queue.drainTo(batch, 4095);
+                    for (var s : batch) add(s);
+                    archived.add(batch.size());
+                    batch.clear();
+                }
+                long now = System.currentTimeMillis();
+                if (System.nanoTime() - lastFlush >= flushNanos || dayStart(now) > sealedBeforeMs) {
+                    flushAll();
+                    lastFlush = System.nanoTime();
+                    if (dayStart(now) > sealedBeforeMs) {
+                        sealedBeforeMs = dayStart(now);     // everything before today is on disk now
+                        expire(now);
+                    }
+                }
+                if (closed && queue.isEmpty()) {
+                    flushAll();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                closed = true;
+            } catch (Throwable t) {
+                t.printStackTrace();   // keep archiving; a full disk must not wedge ingest
+            }
+        }
+    }
+
+    private void add(Value v) throws IOException {
+        var p = pending.computeIfAbsent(v.pointId(), k -> new Pending());
+        double d = v.value() instanceof Boolean b ? (b ? 1 : 0) : ((Number) v.value()).doubleValue();
+        p.add(v.tsEpochMs(), d, chunkSamples);
+        if (p.n == chunkSamples) flush(v.pointId(), p);
+    }
+
+    private void flushAll() throws IOException {
+        for (var e : pending.entrySet()) {
+            if (e.getValue().n > 0) flush(e.getKey(), e.getValue());
+        }
+    }
+
+    // one chunk per day touched, each appended in a single write so readers never see half of it
+    private void flush(String id, Pending p) throws IOException {
+        var byDay = new TreeMap<Long, List<Integer>>();
+        for (int i = 0; i < p.n; i++) {
+            byDay.computeIfAbsent(Math.floorDiv(p.ts[i], DAY_MS), k -> new ArrayList<>()).add(i);
+        }
+        Files.createDirectories(pointDir(id));
+        for (var e : byDay.entrySet()) {
+            var idx = e.getValue();
+            idx.sort((a, b) -> Long.compare(p.ts[a], p.ts[b]));
+            var buf = ByteBuffer.allocate(4 + 16 * idx.size());
+            buf.putInt(idx.size());
+            for (int i : idx) buf.putLong(p.ts[i]);
+            for (int i : idx) buf.putDouble(p.values[i]);
+            buf.flip();
+            var file = pointDir(id).resolve(LocalDate.ofEpochDay(e.getKey()) + SUFFIX);
+            try (var ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                while (buf.hasRemaining()) ch.write(buf);
+            }
+        }
+        p.n = 0;
+    }
+
+    private void expire(long nowMs) throws IOException {
+        if (retentionDays <= 0) return;
+        var cutoff = LocalDate.ofEpochDay(Math.floorDiv(nowMs, DAY_MS) - retentionDays);
+        try (var points = Files.list(dir)) {
+            for (var p : points.toList()) {
+                try (var days = Files.list(p)) {
+                    for (var f : days.toList()) {
+                        var name = f.getFileName().toString();
+                        if (!name.endsWith(SUFFIX)) continue;
+                        var day = LocalDate.parse(name.substring(0, name.length() - SUFFIX.length()));
+                        if (day.isBefore(cutoff)) {
+                            Files.deleteIfExists(f);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Point ids that have archived data. */
+    public List<String> points() throws IOException {
+        try (var points = Files.list(dir)) {
+            return points.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(PREFIX))
+                    .map(n -> URLDecoder.decode(n.substring(PREFIX.length()), StandardCharsets.UTF_8))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path pointDir(String id) {
+        return dir.resolve(PREFIX + URLEncoder.encode(id, StandardCharsets.UTF_8));
+    }
+
+    private static long dayStart(long ms) {
+        return Math.floorDiv(ms, DAY_MS) * DAY_MS;
+    }
+
+    private static long dayStart(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+}
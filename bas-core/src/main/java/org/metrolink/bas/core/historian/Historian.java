@@ -2,10 +2,39 @@ package org.metrolink.bas.core.historian;
 
 import org.metrolink.bas.core.model.Value;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 public interface Historian {
     void append(Value v);                       // store one sample
 
     List<Value> last(String pointId, int n);    // last N samples for a point
+
+    /** Bulk insert (e.g. backfill); callers should pass samples in timestamp order. */
+    default void appendAll(Collection<Value> values) {
+        for (var v : values) append(v);
+    }
+
+    /** Raw samples with {@code fromMs <= ts < toMs}, oldest first. */
+    default List<Value> range(String pointId, long fromMs, long toMs) {
+        var out = new ArrayList<Value>();
+        for (var v : last(pointId, Integer.MAX_VALUE)) {
+            if (v.tsEpochMs() >= fromMs && v.tsEpochMs() < toMs) out.add(v);
+        }
+        out.sort(Comparator.comparingLong(Value::tsEpochMs));
+        return out;
+    }
+
+    /** Aggregates over {@code [fromMs, toMs)} in buckets of {@code resolution}; empty buckets are omitted. */
+    default List<Bucket> aggregate(String pointId, long fromMs, long toMs, Duration resolution) {
+        return Bucket.fromSamples(range(pointId, fromMs, toMs), resolution.toMillis());
+    }
+
+    /** Resolutions {@link #aggregate} answers from stored rollups rather than raw samples, finest first. */
+    default List<Duration> rollupResolutions() {
+        return List.of();
+    }
 }
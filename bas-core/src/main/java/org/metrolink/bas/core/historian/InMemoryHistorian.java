@@ -1,29 +1,133 @@
 package org.metrolink.bas.core.historian;
 
 import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.trace.HistorianAppendEvent;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class InMemoryHistorian implements Historian {
-    // per-point ring buffers (unbounded for now; simple)
-    private final Map<String, Deque<Value>> store = new ConcurrentHashMap<>();
+    private static final class Series {
+        final ConcurrentLinkedDeque<Value> samples = new ConcurrentLinkedDeque<>();
+        final AtomicInteger size = new AtomicInteger();   // ConcurrentLinkedDeque.size() is O(n)
+    }
+
+    // per-point sample queues, trimmed by age and count on append
+    private final Map<String, Series> store = new ConcurrentHashMap<>();
+    private final long retentionMs;
+    private final int maxSamplesPerPoint;
+
+    /** Unbounded (demo behaviour). */
+    public InMemoryHistorian() {
+        this(null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param retention          drop samples older than this relative to the newest one appended (null = keep)
+     * @param maxSamplesPerPoint hard cap per point
+     */
+    public InMemoryHistorian(Duration retention, int maxSamplesPerPoint) {
+        this.retentionMs = retention != null ? retention.toMillis() : Long.MAX_VALUE;
+        this.maxSamplesPerPoint = maxSamplesPerPoint;
+    }
 
     @Override
     public void append(Value v) {
-        store.computeIfAbsent(v.pointId(), k -> new ConcurrentLinkedDeque<>()).addLast(v);
+        var ev = new HistorianAppendEvent();
+        ev.begin();
+        var s = store.computeIfAbsent(v.pointId(), k -> new Series());
+        synchronized (s) {                  // uncontended except against a backfill merge
+            s.samples.addLast(v);
+            s.size.incrementAndGet();
+            trim(s, v.tsEpochMs());
+        }
+        if (ev.shouldCommit()) {
+            ev.pointId = v.pointId();
+            ev.tsEpochMs = v.tsEpochMs();
+            ev.commit();
+        }
+    }
+
+    /**
+     * Backfilled samples older than the series tail are merged into place (the newer tail is lifted off and
+     * re-appended), so {@link #last} keeps returning the newest samples by timestamp.
+     */
+    @Override
+    public void appendAll(Collection<Value> values) {
+        var byPoint = new LinkedHashMap<String, List<Value>>();
+        for (var v : values) byPoint.computeIfAbsent(v.pointId(), k -> new ArrayList<>()).add(v);
+        byPoint.forEach((id, batch) -> {
+            batch.sort(Comparator.comparingLong(Value::tsEpochMs));
+            var s = store.computeIfAbsent(id, k -> new Series());
+            synchronized (s) {
+                long first = batch.get(0).tsEpochMs();
+                var tail = new ArrayDeque<Value>();
+                Value t;
+                while ((t = s.samples.peekLast()) != null && t.tsEpochMs() > first) tail.addFirst(s.samples.pollLast());
+                int i = 0;
+                while (i < batch.size() || !tail.isEmpty()) {
+                    boolean fromBatch = i < batch.size()
+                            && (tail.isEmpty() || batch.get(i).tsEpochMs() <= tail.peekFirst().tsEpochMs());
+                    if (fromBatch) {
+                        s.samples.addLast(batch.get(i++));
+                    } else {
+                        s.samples.addLast(tail.pollFirst());
+                    }
+                }
+                s.size.addAndGet(batch.size());
+                trim(s, s.samples.peekLast().tsEpochMs());
+            }
+        });
+    }
+
+    /** Samples held across all points. */
+    public long sampleCount() {
+        long n = 0;
+        for (var s : store.values()) n += s.size.get();
+        return n;
     }
 
     @Override
     public List<Value> last(String pointId, int n) {
-        var q = store.getOrDefault(pointId, new ConcurrentLinkedDeque<>());
-        var out = new ArrayList<Value>(Math.min(n, q.size()));
-        var it = q.descendingIterator();
+        var s = store.get(pointId);
+        if (s == null) return List.of();
+        var out = new ArrayList<Value>(Math.min(n, s.size.get()));
+        var it = s.samples.descendingIterator();
         while (it.hasNext() && out.size() < n) out.add(it.next());
         return out;
     }
+
+    @Override
+    public List<Value> range(String pointId, long fromMs, long toMs) {
+        var s = store.get(pointId);
+        if (s == null) return List.of();
+        var out = new ArrayList<Value>();
+        for (var v : s.samples) {
+            if (v.tsEpochMs() >= fromMs && v.tsEpochMs() < toMs) out.add(v);
+        }
+        out.sort(Comparator.comparingLong(Value::tsEpochMs));   // backfilled samples arrive out of order
+        return out;
+    }
+
+    private void trim(Series s, long newestMs) {
+        long cutoff = retentionMs == Long.MAX_VALUE ? Long.MIN_VALUE : newestMs - retentionMs;
+        while (s.size.get() > maxSamplesPerPoint || oldest(s) < cutoff) {
+            if (s.samples.pollFirst() == null) break;
+            s.size.decrementAndGet();
+        }
+    }
+
+    private static long oldest(Series s) {
+        var first = s.samples.peekFirst();
+        return first != null ? first.tsEpochMs() : Long.MAX_VALUE;
+    }
 }
@@ -0,0 +1,243 @@
+package org.metrolink.bas.core.historian;
+
+import org.metrolink.bas.core.model.Node;
+import org.metrolink.bas.core.registry.NodeRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs {@link AggregateQuery}s across many points on a dedicated fork-join pool.
+ * <p>
+ * The selected points are split recursively; each leaf reads its points' buckets through
+ * {@link Historian#aggregate} (so rollup tiers answer coarse queries) and folds them into per-group, per-row
+ * partials, which are merged pairwise on the way back up. A whole-window query (no resolution) takes the interior
+ * of the window from the coarsest rollup tier that fits inside it and fills both ragged ends from successively finer
+ * tiers and finally raw samples, so it counts exactly the samples in {@code [from, to)} that are still retained at
+ * some level. Only partials travel between tasks, never samples, so
+ * memory is bounded by groups × rows rather than by the number of samples scanned. Groups are then handed to the
+ * consumer one by one, in group order.
+ */
+public final class QueryEngine implements AutoCloseable {
+    private static final int LEAF_POINTS = 32;
+
+    public record Row(long startMs, long widthMs, int points, long samples, double value) {
+    }
+
+    public record GroupResult(String group, int points, List<Row> rows) {
+    }
+
+    public record Stats(long queries, long pointsScanned, int parallelism) {
+    }
+
+    // per (group, row) partial; combined with merge(), which is associative
+    private static final class Partial {
+        int points;
+        long samples;
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double meanSum;
+        int numericPoints;
+
+        void add(Bucket b) {
+            points++;
+            samples += b.count();
+            if (!Double.isNaN(b.min())) {
+                sum += b.sum();
+                min = Math.min(min, b.min());
+                max = Math.max(max, b.max());
+                meanSum += b.mean();
+                numericPoints++;
+            }
+        }
+
+        void merge(Partial o) {
+            points += o.points;
+            samples += o.samples;
+            sum += o.sum;
+            min = Math.min(min, o.min);
+            max = Math.max(max, o.max);
+            meanSum += o.meanSum;
+            numericPoints += o.numericPoints;
+        }
+
+        double value(AggregateQuery.Aggregation a) {
+            if (a == AggregateQuery.Aggregation.COUNT) return samples;
+            if (numericPoints == 0) return Double.NaN;
+            return switch (a) {
+                case MEAN -> meanSum / numericPoints;
+                case MIN -> min;
+                case MAX -> max;
+                case SUM -> sum;
+                case COUNT -> samples;
+            };
+        }
+    }
+
+    // group → row start → partial, plus the number of points that landed in each group
+    private static final class Partials {
+        final Map<String, Map<Long, Partial>> rows = new HashMap<>();
+        final Map<String, Integer> points = new HashMap<>();
+
+        Partials merge(Partials o) {
+            o.points.forEach((g, n) -> points.merge(g, n, Integer::sum));
+            o.rows.forEach((g, byStart) -> {
+                var mine = rows.computeIfAbsent(g, k -> new HashMap<>());
+                byStart.forEach((start, p) -> {
+                    var m = mine.get(start);
+                    if (m == null) mine.put(start, p);
+                    else m.merge(p);
+                });
+            });
+            return this;
+        }
+    }
+
+    private final Historian historian;
+    private final NodeRegistry registry;
+    private final ForkJoinPool pool;
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder pointsScanned = new LongAdder();
+
+    public QueryEngine(Historian historian, NodeRegistry registry, int parallelism) {
+        this.historian = historian;
+        this.registry = registry;
+        this.pool = new ForkJoinPool(Math.max(1, parallelism), p -> {
+            var t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("historian-query-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+    }
+
+    /** Runs the query and passes each group's rows to {@code out}; returns the number of points scanned. */
+    public int run(AggregateQuery q, Consumer<GroupResult> out) {
+        long width = q.resolution() != null ? q.resolution().toMillis() : q.toMs() - q.fromMs();
+        var nodes = registry.query(q.selection());
+        queries.increment();
+        pointsScanned.add(nodes.size());
+        if (nodes.isEmpty()) return 0;
+
+        var tiers = historian.rollupResolutions().stream().mapToLong(Duration::toMillis).toArray();
+        var result = pool.invoke(new Scan(q, width, tiers, groupKey(q.groupBy()), nodes, 0, nodes.size()));
+        for (var g : new TreeMap<>(result.rows).entrySet()) {
+            var rows = new ArrayList<Row>(g.getValue().size());
+            for (var r : new TreeMap<>(g.getValue()).entrySet()) {
+                var p = r.getValue();
+                rows.add(new Row(r.getKey(), width, p.points, p.samples, p.value(q.aggregation())));
+            }
+            out.accept(new GroupResult(g.getKey(), result.points.getOrDefault(g.getKey(), 0), rows));
+        }
+        return nodes.size();
+    }
+
+    public Stats stats() {
+        return new Stats(queries.sum(), pointsScanned.sum(), pool.getParallelism());
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private final class Scan extends RecursiveTask<Partials> {
+        private final AggregateQuery q;
+        private final long width;
+        private final long[] tiers;
+        private final Function<Node, String> group;
+        private final List<Node> nodes;
+        private final int from;
+        private final int to;
+
+        Scan(AggregateQuery q, long width, long[] tiers, Function<Node, String> group, List<Node> nodes, int from,
+             int to) {
+            this.q = q;
+            this.width = width;
+            this.tiers = tiers;
+            this.group = group;
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partials compute() {
+            if (to - from > LEAF_POINTS) {
+                int mid = (from + to) >>> 1;
+                var right = new Scan(q, width, tiers, group, nodes, mid, to);
+                right.fork();
+                var left = new Scan(q, width, tiers, group, nodes, from, mid).compute();
+                return left.merge(right.join());
+            }
+            var out = new Partials();
+            for (int i = from; i < to; i++) scan(nodes.get(i), out);
+            return out;
+        }
+
+        private void scan(Node n, Partials out) {
+            if (q.resolution() != null) {
+                var buckets = historian.aggregate(n.id(), q.fromMs(), q.toMs(), q.resolution());
+                if (buckets.isEmpty()) return;
+                var rows = rowsOf(n, out);
+                for (var b : buckets) rows.computeIfAbsent(b.startMs(), k -> new Partial()).add(b);
+                return;
+            }
+            var acc = new Bucket.Acc(q.fromMs());
+            window(n.id(), q.fromMs(), q.toMs(), tiers.length - 1, acc);
+            if (acc.count == 0) return;
+            rowsOf(n, out).computeIfAbsent(q.fromMs(), k -> new Partial()).add(acc.toBucket(width));
+        }
+
+        private Map<Long, Partial> rowsOf(Node n, Partials out) {
+            var g = group.apply(n);
+            out.points.merge(g, 1, Integer::sum);
+            return out.rows.computeIfAbsent(g, k -> new HashMap<>());
+        }
+
+        // tier buckets never straddle [from, to): the part a tier cannot cover whole goes one level finer
+        private void window(String id, long from, long to, int tier, Bucket.Acc acc) {
+            if (from >= to) return;
+            if (tier < 0) {
+                for (var v : historian.range(id, from, to)) acc.add(v.value(), v.tsEpochMs());
+                return;
+            }
+            long w = tiers[tier];
+            long a = Math.floorDiv(from + w - 1, w) * w;
+            long b = Math.floorDiv(to, w) * w;
+            if (a >= b) {
+                window(id, from, to, tier - 1, acc);
+                return;
+            }
+            for (var bucket : historian.aggregate(id, a, b, Duration.ofMillis(w))) acc.merge(bucket);
+            window(id, from, a, tier - 1, acc);
+            window(id, b, to, tier - 1, acc);
+        }
+    }
+
+    private static Function<Node, String> groupKey(String groupBy) {
+        if (groupBy == null || groupBy.isBlank()) return n -> "all";
+        return switch (groupBy) {
+            case "device" -> n -> Objects.toString(n.deviceId(), "(none)");
+            case "type" -> n -> Objects.toString(n.type(), "(none)");
+            case "point" -> Node::id;
+            default -> {
+                var key = groupBy.substring("meta:".length());
+                yield n -> {
+                    var v = n.meta() != null ? n.meta().get(key) : null;
+                    return v != null ? v.toString() : "(none)";
+                };
+            }
+        };
+    }
+}
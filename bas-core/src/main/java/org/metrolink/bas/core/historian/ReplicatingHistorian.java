@@ -0,0 +1,53 @@
+package org.metrolink.bas.core.historian;
+
+import org.metrolink.bas.core.model.Value;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tees every appended sample into an upstream sink (e.g. a replication pipeline) after storing it locally.
+ */
+public final class ReplicatingHistorian implements Historian {
+    private final Historian local;
+    private final Consumer<Value> upstream;
+
+    public ReplicatingHistorian(Historian local, Consumer<Value> upstream) {
+        this.local = local;
+        this.upstream = upstream;
+    }
+
+    @Override
+    public void append(Value v) {
+        local.append(v);
+        upstream.accept(v);
+    }
+
+    @Override
+    public void appendAll(Collection<Value> values) {
+        local.appendAll(values);
+        for (var v : values) upstream.accept(v);
+    }
+
+    @Override
+    public List<Value> last(String pointId, int n) {
+        return local.last(pointId, n);
+    }
+
+    @Override
+    public List<Value> range(String pointId, long fromMs, long toMs) {
+        return local.range(pointId, fromMs, toMs);
+    }
+
+    @Override
+    public List<Bucket> aggregate(String pointId, long fromMs, long toMs, Duration resolution) {
+        return local.aggregate(pointId, fromMs, toMs, resolution);
+    }
+
+    @Override
+    public List<Duration> rollupResolutions() {
+        return local.rollupResolutions();
+    }
+}
@@ -0,0 +1,136 @@
+package org.metrolink.bas.core.historian;
+
+import org.metrolink.bas.core.model.Value;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains rollup tiers (count/sum/min/max/last per bucket) incrementally on every append and answers
+ * {@link #aggregate} from the coarsest tier whose resolution divides the requested one, merging its buckets up to
+ * the requested width. Only resolutions finer than every tier fall back to raw samples, so long-range trends never
+ * touch raw data and the raw store can keep a much shorter retention than the aggregates.
+ * <p>
+ * Late samples update the bucket they belong to as long as it is still retained. Each tier evicts buckets older
+ * than its retention, measured from the newest sample seen for that point.
+ */
+public final class RollupHistorian implements Historian {
+
+    private static final class Series {
+        final long widthMs;
+        final long retentionMs;
+        final TreeMap<Long, Bucket.Acc> buckets = new TreeMap<>();
+        long newestMs = Long.MIN_VALUE;
+
+        Series(RollupTier tier) {
+            this.widthMs = tier.resolution().toMillis();
+            this.retentionMs = tier.retention().toMillis();
+        }
+
+        synchronized void add(Object value, long ts) {
+            if (ts > newestMs) newestMs = ts;
+            long cutoff = newestMs - retentionMs;
+            if (ts < cutoff) return;
+            long start = Math.floorDiv(ts, widthMs) * widthMs;
+            buckets.computeIfAbsent(start, Bucket.Acc::new).add(value, ts);
+            if (buckets.firstKey() + widthMs <= cutoff) buckets.headMap(Math.floorDiv(cutoff, widthMs) * widthMs).clear();
+        }
+
+        synchronized List<Bucket> range(long fromMs, long toMs) {
+            var out = new ArrayList<Bucket>();
+            long from = Math.floorDiv(fromMs, widthMs) * widthMs;
+            for (var acc : buckets.subMap(from, true, toMs, false).values()) out.add(acc.toBucket(widthMs));
+            return out;
+        }
+
+        synchronized int size() {
+            return buckets.size();
+        }
+    }
+
+    private final Historian raw;
+    private final List<RollupTier> tiers;            // finest first
+    private final Map<String, Series[]> series = new ConcurrentHashMap<>();
+
+    public RollupHistorian(Historian raw, Collection<RollupTier> tiers) {
+        this.raw = raw;
+        var sorted = new ArrayList<>(tiers);
+        sorted.sort(Comparator.comparing(RollupTier::resolution));
+        this.tiers = List.copyOf(sorted);
+    }
+
+    public List<RollupTier> tiers() {
+        return tiers;
+    }
+
+    @Override
+    public void append(Value v) {
+        raw.append(v);
+        roll(v);
+    }
+
+    @Override
+    public void appendAll(Collection<Value> values) {
+        raw.appendAll(values);
+        for (var v : values) roll(v);
+    }
+
+    @Override
+    public List<Value> last(String pointId, int n) {
+        return raw.last(pointId, n);
+    }
+
+    @Override
+    public List<Value> range(String pointId, long fromMs, long toMs) {
+        return raw.range(pointId, fromMs, toMs);
+    }
+
+    @Override
+    public List<Bucket> aggregate(String pointId, long fromMs, long toMs, Duration resolution) {
+        long width = resolution.toMillis();
+        int tier = tierFor(width);
+        if (tier < 0) return Historian.super.aggregate(pointId, fromMs, toMs, resolution);
+
+        var s = series.get(pointId);
+        if (s == null) return List.of();
+        var buckets = s[tier].range(fromMs, toMs);
+        return s[tier].widthMs == width ? buckets : Bucket.coarsen(buckets, width);
+    }
+
+    @Override
+    public List<Duration> rollupResolutions() {
+        return tiers.stream().map(RollupTier::resolution).toList();
+    }
+
+    /** Buckets held per tier, summed over points (memory footprint indicator). */
+    public long[] bucketCounts() {
+        var out = new long[tiers.size()];
+        for (var s : series.values()) for (int i = 0; i < s.length; i++) out[i] += s[i].size();
+        return out;
+    }
+
+    // coarsest tier whose width divides the requested one; -1 = finer than all tiers, use raw samples
+    private int tierFor(long widthMs) {
+        for (int i = tiers.size() - 1; i >= 0; i--) {
+            long w = tiers.get(i).resolution().toMillis();
+            if (w <= widthMs && widthMs % w == 0) return i;
+        }
+        return -1;
+    }
+
+    private void roll(Value v) {
+        if (tiers.isEmpty()) return;
+        var s = series.computeIfAbsent(v.pointId(), k -> {
+            var arr = new Series[tiers.size()];
+            for (int i = 0; i < arr.length; i++) arr[i] = new Series(tiers.get(i));
+            return arr;
+        });
+        for (var tier : s) tier.add(v.value(), v.tsEpochMs());
+    }
+}
@@ -0,0 +1,14 @@
+package org.metrolink.bas.core.historian;
+
+import java.time.Duration;
+
+/**
+ * One materialized resolution and how long its buckets are kept.
+ */
+public record RollupTier(Duration resolution, Duration retention) {
+
+    public RollupTier {
+        if (resolution.toMillis() <= 0) throw new IllegalArgumentException("resolution must be >= 1 ms");
+        if (retention.compareTo(resolution) < 0) throw new IllegalArgumentException("retention < resolution");
+    }
+}
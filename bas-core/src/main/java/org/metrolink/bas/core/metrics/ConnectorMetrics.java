@@ -0,0 +1,100 @@
+package org.metrolink.bas.core.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Per-device, per-operation latency and error stats. The number of distinct devices is capped so exported
+ * metrics keep a bounded cardinality; devices beyond the cap share the {@link #OTHER_DEVICE} series.
+ */
+public final class ConnectorMetrics {
+    public static final String ANY_DEVICE = "_all";
+    public static final String UNKNOWN_DEVICE = "_unknown";
+    public static final String OTHER_DEVICE = "_other";
+
+    public interface Listener {
+        void seriesAdded(String deviceId, Op op, OpStats stats);
+    }
+
+    private static final Op[] OPS = Op.values();
+
+    private final int maxDevices;
+    private final Map<String, OpStats[]> byDevice = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public ConnectorMetrics() {
+        this(256);
+    }
+
+    public ConnectorMetrics(int maxDevices) {
+        this.maxDevices = Math.max(1, maxDevices);
+    }
+
+    public OpStats stats(String deviceId, Op op) {
+        var key = deviceId != null ? deviceId : UNKNOWN_DEVICE;
+        var series = byDevice.get(key);               // hot path: no allocation once the series exists
+        if (series == null) series = register(key);
+        return series[op.ordinal()];
+    }
+
+    public void recordRetry(String deviceId, Op op) {
+        stats(deviceId, op).recordRetry();
+    }
+
+    /** Adds the listener and replays every series created so far. */
+    public void addListener(Listener l) {
+        listeners.add(l);
+        byDevice.forEach((dev, series) -> {
+            for (var op : OPS) l.seriesAdded(dev, op, series[op.ordinal()]);
+        });
+    }
+
+    public int deviceCount() {
+        return byDevice.size();
+    }
+
+    /** Calls {@code action} with every device's series for {@code op}. */
+    public void forEach(Op op, BiConsumer<String, OpStats> action) {
+        byDevice.forEach((dev, series) -> action.accept(dev, series[op.ordinal()]));
+    }
+
+    /** device → op → snapshot, skipping operations that never ran. */
+    public Map<String, Object> snapshot() {
+        var out = new TreeMap<String, Object>();
+        byDevice.forEach((dev, series) -> {
+            var ops = new TreeMap<String, Object>();
+            for (var op : OPS) {
+                var s = series[op.ordinal()];
+                if (s.latency().count() > 0) ops.put(op.tag(), s.snapshot().toMap());
+            }
+            if (!ops.isEmpty()) out.put(dev, ops);
+        });
+        return out;
+    }
+
+    private OpStats[] register(String deviceId) {
+        var key = deviceId;
+        if (byDevice.size() >= maxDevices) {
+            var other = byDevice.get(OTHER_DEVICE);
+            if (other != null) return other;
+            key = OTHER_DEVICE;
+        }
+        var created = new boolean[1];
+        var series = byDevice.computeIfAbsent(key, k -> {
+            created[0] = true;
+            var arr = new OpStats[OPS.length];
+            for (int i = 0; i < arr.length; i++) arr[i] = new OpStats();
+            return arr;
+        });
+        if (created[0]) {
+            for (var l : listeners) {
+                for (var op : OPS) l.seriesAdded(key, op, series[op.ordinal()]);
+            }
+        }
+        return series;
+    }
+}
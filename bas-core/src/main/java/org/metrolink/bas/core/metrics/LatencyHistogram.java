@@ -0,0 +1,85 @@
+package org.metrolink.bas.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HDR-style log-linear histogram over nanoseconds: 16 linear sub-buckets per power of two, so the relative
+ * error of a reported percentile stays below ~6% from 16ns up to the cap (~39h); in-process connectors answer in
+ * well under a microsecond. Recording is a handful of atomic increments, no locks and no allocation.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_SHIFT = 42;
+    private static final long MAX_NANOS = ((long) (2 * SUB_COUNT) << MAX_SHIFT) - 1;
+    private static final int BUCKETS = (MAX_SHIFT + 2) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(indexOf(Math.min(nanos, MAX_NANOS)));
+        count.increment();
+        totalNanos.add(nanos);
+        long m = maxNanos.get();
+        while (nanos > m && !maxNanos.compareAndSet(m, nanos)) m = maxNanos.get();
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long maxNanos() {
+        return maxNanos.get();
+    }
+
+    /** Value (in nanoseconds) at or below which {@code q} (0..1) of the recorded samples fall. */
+    public long percentileNanos(double q) {
+        long total = 0;
+        var snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) total += (snapshot[i] = counts.get(i));
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(midpointOf(i), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Samples recorded at or below {@code nanos} since start, as a cumulative histogram bucket: a sample in the
+     * sub-bucket holding {@code nanos} counts, so the bound is effective to within the same ~6%.
+     */
+    public long countAtOrBelow(long nanos) {
+        if (nanos < 0) return 0;
+        int last = indexOf(Math.min(nanos, MAX_NANOS));
+        long n = 0;
+        for (int i = 0; i <= last; i++) n += counts.get(i);
+        return n;
+    }
+
+    static int indexOf(long nanos) {
+        if (nanos < SUB_COUNT) return (int) nanos;
+        int shift = (63 - Long.numberOfLeadingZeros(nanos)) - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) ((nanos >>> shift) - SUB_COUNT);
+    }
+
+    static long midpointOf(int index) {
+        if (index < SUB_COUNT) return index;
+        int shift = index / SUB_COUNT - 1;
+        long lower = (long) (index % SUB_COUNT + SUB_COUNT) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+}
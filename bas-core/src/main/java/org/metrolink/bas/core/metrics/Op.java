@@ -0,0 +1,9 @@
+package org.metrolink.bas.core.metrics;
+
+public enum Op {
+    READ, WRITE, DISCOVERY, COV;
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
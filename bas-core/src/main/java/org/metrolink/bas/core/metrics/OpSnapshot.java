@@ -0,0 +1,21 @@
+package org.metrolink.bas.core.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public record OpSnapshot(long count, long errors, long timeouts, long retries,
+                         long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+
+    public Map<String, Object> toMap() {
+        var m = new LinkedHashMap<String, Object>();
+        m.put("count", count);
+        m.put("errors", errors);
+        m.put("timeouts", timeouts);
+        m.put("retries", retries);
+        m.put("p50Ms", p50Nanos / 1e6);
+        m.put("p95Ms", p95Nanos / 1e6);
+        m.put("p99Ms", p99Nanos / 1e6);
+        m.put("maxMs", maxNanos / 1e6);
+        return m;
+    }
+}
@@ -0,0 +1,56 @@
+package org.metrolink.bas.core.metrics;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class OpStats {
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    public void recordSuccess(long nanos) {
+        latency.record(nanos);
+    }
+
+    public void recordFailure(long nanos, Throwable error) {
+        latency.record(nanos);
+        errors.increment();
+        if (isTimeout(error)) timeouts.increment();
+    }
+
+    /** A re-attempt of an operation that failed earlier; the attempt itself is recorded as usual. */
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public OpSnapshot snapshot() {
+        return new OpSnapshot(latency.count(), errors(), timeouts(), retries(),
+                latency.percentileNanos(0.50), latency.percentileNanos(0.95), latency.percentileNanos(0.99),
+                latency.maxNanos());
+    }
+
+    // connectors surface timeouts as TimeoutException or a protocol-specific "...TimeoutException"
+    static boolean isTimeout(Throwable t) {
+        for (int depth = 0; t != null && depth < 8; t = t.getCause(), depth++) {
+            if (t instanceof TimeoutException || t.getClass().getSimpleName().endsWith("TimeoutException")) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,238 @@
+package org.metrolink.bas.core.overload;
+
+import org.metrolink.bas.core.model.HealthStatus;
+import org.metrolink.bas.core.ports.HealthPort;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Gateway-wide admission control.
+ * <p>
+ * Registered {@link Signal}s (queue depths, scheduler lag, heap after GC, connector latency) are sampled every
+ * {@code sampleInterval}; each one's pressure is {@code value / limit} and the gateway's pressure is the highest.
+ * Pressure at or above {@code shedBackgroundAt} sheds {@link Priority#BACKGROUND} work, at or above
+ * {@code shedNormalAt} also {@link Priority#NORMAL} work; a level is left only once pressure drops
+ * {@code hysteresis} below its threshold, so shedding does not flap. {@link Priority#CRITICAL} work is never shed.
+ * <p>
+ * Independently of pressure, request-style work ({@link #acquire}) is capped at a number in flight per class, so
+ * a flood of slow reads cannot pile up threads before the signals notice. Polls and COV deliveries use
+ * {@link #admit} instead: no permit, a refused one is simply skipped and counted.
+ */
+public final class OverloadController implements HealthPort, AutoCloseable {
+
+    public enum Level {
+        NORMAL, SHED_BACKGROUND, SHED_NORMAL;
+
+        boolean sheds(Priority p) {
+            return switch (p) {
+                case CRITICAL -> false;
+                case NORMAL -> this == SHED_NORMAL;
+                case BACKGROUND -> this != NORMAL;
+            };
+        }
+    }
+
+    /** Limits of 0 disable the in-flight cap for that class. */
+    public record Config(Duration sampleInterval, double shedBackgroundAt, double shedNormalAt, double hysteresis,
+                         int maxInFlightNormal, int maxInFlightBackground, Duration retryAfter) {
+
+        public Config {
+            if (shedBackgroundAt <= 0 || shedNormalAt < shedBackgroundAt) {
+                throw new IllegalArgumentException("need 0 < shedBackgroundAt <= shedNormalAt");
+            }
+        }
+
+        public static Config defaults() {
+            return new Config(Duration.ofMillis(500), 0.8, 1.0, 0.1, 64, 4, Duration.ofSeconds(5));
+        }
+    }
+
+    /** A load measure and the value at which it counts as fully loaded (pressure 1.0). */
+    public record Signal(String name, DoubleSupplier value, double limit) {
+    }
+
+    public record Stats(Level level, double pressure, Map<String, Double> signals, Map<Priority, Long> admitted,
+                        Map<Priority, Long> shed, Map<Priority, Integer> inFlight) {
+    }
+
+    /** Held while admitted request-style work runs; {@link #close()} is idempotent. */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Permit NO_OP = () -> { };
+
+    private final Config cfg;
+    private final List<Signal> signals = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Level>> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Priority, AtomicInteger> inFlight = new EnumMap<>(Priority.class);
+    private final Map<Priority, LongAdder> admitted = new EnumMap<>(Priority.class);
+    private final Map<Priority, LongAdder> shed = new EnumMap<>(Priority.class);
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        var t = new Thread(r, "overload-monitor");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile Level level = Level.NORMAL;
+    private volatile double pressure;
+    private volatile Map<String, Double> last = Map.of();
+
+    public OverloadController(Config cfg) {
+        this.cfg = cfg;
+        for (var p : Priority.values()) {
+            inFlight.put(p, new AtomicInteger());
+            admitted.put(p, new LongAdder());
+            shed.put(p, new LongAdder());
+        }
+    }
+
+    public OverloadController addSignal(String name, DoubleSupplier value, double limit) {
+        if (limit <= 0) throw new IllegalArgumentException("limit must be > 0 for signal " + name);
+        signals.add(new Signal(name, value, limit));
+        return this;
+    }
+
+    /** Called from the sampler thread on every level change. */
+    public void addListener(Consumer<Level> l) {
+        listeners.add(l);
+    }
+
+    public void start() {
+        long ms = Math.max(10, cfg.sampleInterval().toMillis());
+        sampler.scheduleAtFixedRate(this::sample, 0, ms, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Admits request-style work or throws {@link OverloadException}; the permit must be closed when the work ends.
+     */
+    public Permit acquire(Priority p) {
+        var lv = level;
+        if (lv.sheds(p)) throw refuse(p, "pressure " + String.format("%.2f", pressure));
+        int max = maxInFlight(p);
+        if (max <= 0) {
+            admitted.get(p).increment();
+            return NO_OP;
+        }
+        var n = inFlight.get(p);
+        if (n.incrementAndGet() > max) {
+            n.decrementAndGet();
+            throw refuse(p, max + " " + p.name().toLowerCase() + " requests in flight");
+        }
+        admitted.get(p).increment();
+        var released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) n.decrementAndGet();
+        };
+    }
+
+    /** Whether fire-and-forget work (a poll, a COV sample) of this class should run now; refusals are counted. */
+    public boolean admit(Priority p) {
+        if (level.sheds(p)) {
+            shed.get(p).increment();
+            return false;
+        }
+        admitted.get(p).increment();
+        return true;
+    }
+
+    public Level level() {
+        return level;
+    }
+
+    public Stats stats() {
+        var a = new EnumMap<Priority, Long>(Priority.class);
+        var s = new EnumMap<Priority, Long>(Priority.class);
+        var f = new EnumMap<Priority, Integer>(Priority.class);
+        for (var p : Priority.values()) {
+            a.put(p, admitted.get(p).sum());
+            s.put(p, shed.get(p).sum());
+            f.put(p, inFlight.get(p).get());
+        }
+        return new Stats(level, pressure, last, a, s, f);
+    }
+
+    /** Always up: shedding is the gateway degrading on purpose, not failing. */
+    @Override
+    public HealthStatus health() {
+        var st = stats();
+        var m = new LinkedHashMap<String, Object>();
+        m.put("level", st.level().name());
+        m.put("pressure", st.pressure());
+        m.put("signals", st.signals());
+        m.put("admitted", st.admitted());
+        m.put("shed", st.shed());
+        m.put("inFlight", st.inFlight());
+        return new HealthStatus(true, m);
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+    }
+
+    // ---- sampler thread ----
+
+    private void sample() {
+        try {
+            double max = 0;
+            var values = new LinkedHashMap<String, Double>();
+            for (var s : signals) {
+                double p;
+                try {
+                    p = s.value().getAsDouble() / s.limit();
+                } catch (RuntimeException e) {
+                    p = 0;                  // a broken probe must not shed traffic
+                }
+                if (Double.isNaN(p)) p = 0;
+                values.put(s.name(), p);
+                max = Math.max(max, p);
+            }
+            last = values;
+            pressure = max;
+            var next = next(level, max);
+            if (next != level) {
+                level = next;
+                for (var l : listeners) l.accept(next);
+            }
+        } catch (Throwable t) {
+            t.printStackTrace();   // keep sampling
+        }
+    }
+
+    // a level is entered at its threshold and left only below threshold − hysteresis
+    private Level next(Level current, double p) {
+        double h = cfg.hysteresis();
+        if (p >= cfg.shedNormalAt()) return Level.SHED_NORMAL;
+        if (current == Level.SHED_NORMAL && p >= cfg.shedNormalAt() - h) return Level.SHED_NORMAL;
+        if (p >= cfg.shedBackgroundAt()) return Level.SHED_BACKGROUND;
+        if (current != Level.NORMAL && p >= cfg.shedBackgroundAt() - h) return Level.SHED_BACKGROUND;
+        return Level.NORMAL;
+    }
+
+    private int maxInFlight(Priority p) {
+        return switch (p) {
+            case CRITICAL -> 0;
+            case NORMAL -> cfg.maxInFlightNormal();
+            case BACKGROUND -> cfg.maxInFlightBackground();
+        };
+    }
+
+    private OverloadException refuse(Priority p, String reason) {
+        shed.get(p).increment();
+        return new OverloadException(p, reason, cfg.retryAfter().toMillis());
+    }
+}
@@ -0,0 +1,23 @@
+package org.metrolink.bas.core.overload;
+
+/**
+ * Work refused by {@link OverloadController}; the caller should retry after {@link #retryAfterMs()}.
+ */
+public final class OverloadException extends RuntimeException {
+    private final Priority priority;
+    private final long retryAfterMs;
+
+    public OverloadException(Priority priority, String reason, long retryAfterMs) {
+        super("Overloaded, " + priority.name().toLowerCase() + " work shed: " + reason);
+        this.priority = priority;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public Priority priority() {
+        return priority;
+    }
+
+    public long retryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -0,0 +1,14 @@
+package org.metrolink.bas.core.overload;
+
+/**
+ * Admission classes, in the order they are protected: background work is shed first, then normal work; critical
+ * work is never shed.
+ */
+public enum Priority {
+    /** Control writes (API, schedules) and the fast poll lane. */
+    CRITICAL,
+    /** Slow poll lanes, COV of non-critical points, API reads. */
+    NORMAL,
+    /** Analytics: history queries, aggregates, exports, audit queries. */
+    BACKGROUND
+}
@@ -0,0 +1,62 @@
+package org.metrolink.bas.core.overload;
+
+import org.metrolink.bas.core.metrics.ConnectorMetrics;
+import org.metrolink.bas.core.metrics.Op;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Ready-made {@link OverloadController} signals for load the gateway cannot see through a queue of its own.
+ */
+public final class Signals {
+    private Signals() {
+    }
+
+    /**
+     * Fraction of the heap still in use after the last collection (live data, not garbage waiting to be collected);
+     * 0 until the first GC or when the heap has no max.
+     */
+    public static DoubleSupplier heapAfterGc() {
+        var pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(p -> p.getType() == MemoryType.HEAP && p.isCollectionUsageThresholdSupported())
+                .toList();
+        long max = Runtime.getRuntime().maxMemory();
+        return () -> {
+            if (max == Long.MAX_VALUE) return 0;
+            long used = 0;
+            for (var p : pools) {
+                var u = p.getCollectionUsage();
+                if (u != null) used += u.getUsed();
+            }
+            return (double) used / max;
+        };
+    }
+
+    /**
+     * Mean latency in ms of {@code op} across all devices since the previous call, i.e. over one sample interval
+     * (the histograms themselves are cumulative). Keeps the last mean while no call completed.
+     */
+    public static DoubleSupplier meanLatencyMs(ConnectorMetrics metrics, Op op) {
+        return new DoubleSupplier() {
+            private long lastCount;
+            private long lastNanos;
+            private double mean;
+
+            @Override
+            public synchronized double getAsDouble() {
+                long[] sum = new long[2];
+                metrics.forEach(op, (dev, s) -> {
+                    sum[0] += s.latency().count();
+                    sum[1] += s.latency().totalNanos();
+                });
+                long dc = sum[0] - lastCount, dn = sum[1] - lastNanos;
+                lastCount = sum[0];
+                lastNanos = sum[1];
+                if (dc > 0) mean = dn / 1e6 / dc;
+                return mean;
+            }
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package org.metrolink.bas.core.plugin;
+
+import org.metrolink.bas.core.spi.ConnectorPlugin;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+
+/**
+ * A plugin instance plus the isolated classloader it came from; closing releases the jar.
+ * {@code loader} is {@code null} for plugins found on the application classpath.
+ */
+public record LoadedPlugin(ConnectorPlugin plugin, Path source, URLClassLoader loader) implements AutoCloseable {
+
+    @Override
+    public void close() throws IOException {
+        if (loader != null) loader.close();
+    }
+}
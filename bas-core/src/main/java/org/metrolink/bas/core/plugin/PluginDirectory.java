@@ -0,0 +1,68 @@
+package org.metrolink.bas.core.plugin;
+
+import org.metrolink.bas.core.spi.ConnectorPlugin;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.ServiceLoader;
+
+/**
+ * Loads connector plugins from jars in a directory, one {@link URLClassLoader} per jar. The parent loader is the
+ * one that defines the SPI, so plugins share the core contracts but keep their own protocol libraries.
+ */
+public final class PluginDirectory {
+    private final Path dir;
+
+    public PluginDirectory(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Newest jar (by modification time) that provides a plugin with the given id. The caller owns the result and
+     * must close it once the plugin is retired.
+     */
+    public Optional<LoadedPlugin> load(String id) throws IOException {
+        if (!Files.isDirectory(dir)) return Optional.empty();
+        try (var files = Files.list(dir)) {
+            var jars = files.filter(p -> p.getFileName().toString().endsWith(".jar"))
+                    .sorted(Comparator.comparing(PluginDirectory::modified).reversed())
+                    .toList();
+            for (var jar : jars) {
+                var loaded = tryLoad(jar, id);
+                if (loaded.isPresent()) return loaded;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<LoadedPlugin> tryLoad(Path jar, String id) throws IOException {
+        var cl = new URLClassLoader("plugin:" + jar.getFileName(), new URL[]{jar.toUri().toURL()},
+                ConnectorPlugin.class.getClassLoader());
+        try {
+            var found = ServiceLoader.load(ConnectorPlugin.class, cl).stream()
+                    .filter(p -> p.type().getClassLoader() == cl)   // ignore providers inherited from the parent
+                    .map(ServiceLoader.Provider::get)
+                    .filter(p -> id.equals(p.id()))
+                    .findFirst();
+            if (found.isPresent()) return Optional.of(new LoadedPlugin(found.get(), jar, cl));
+        } catch (RuntimeException | LinkageError e) {
+            cl.close();
+            throw new IOException("Failed to load plugins from " + jar, e);
+        }
+        cl.close();
+        return Optional.empty();
+    }
+
+    private static long modified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package org.metrolink.bas.core.plugin;
+
+import org.metrolink.bas.core.model.Device;
+import org.metrolink.bas.core.model.HealthStatus;
+import org.metrolink.bas.core.model.Node;
+import org.metrolink.bas.core.model.Point;
+import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.ports.*;
+import org.metrolink.bas.core.spi.ConnectorPlugin;
+import org.metrolink.bas.core.spi.ExclusiveTransport;
+import org.metrolink.bas.core.spi.HistoryBackfill;
+import org.metrolink.bas.core.spi.NodeHandoff;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stable facade over a swappable plugin instance. Ports handed out once keep working across reloads: every call is
+ * routed to the current generation and counted in flight.
+ * <p>
+ * {@link #reload} brings the new instance up next to the old one, hands over the registered nodes
+ * ({@link NodeHandoff}) and re-creates every active subscription on it, swaps, then drains in-flight calls on the
+ * old instance before stopping it and closing its classloader. Polling never sees a gap; subscribers may see a
+ * duplicate value during the overlap. If any subscription fails to attach, the new instance is torn down and the
+ * old one stays in place untouched.
+ * <p>
+ * A plugin marked {@link ExclusiveTransport} cannot overlap (e.g. both would bind the same UDP port): the old
+ * instance is drained and stopped first, calls fail for the moment it takes the new one to start, and if the new
+ * one does not come up the old one is started again.
+ * <p>
+ * Optional capabilities ({@link HistoryBackfill}) are forwarded when the current instance has them.
+ */
+public final class ReloadableConnector implements ConnectorPlugin, HistoryBackfill {
+
+    private static final class Generation {
+        final LoadedPlugin loaded;
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        Generation(LoadedPlugin loaded) {
+            this.loaded = loaded;
+        }
+
+        ConnectorPlugin plugin() {
+            return loaded.plugin();
+        }
+    }
+
+    /**
+     * One consumer subscription, attached to one generation at a time (two during a reload's overlap). The consumer
+     * sees a single onSubscribe and a single {@link Flow.Subscription}: demand is tracked here and handed to each
+     * generation as it attaches, {@code request}/{@code cancel} go to whichever generations are attached now.
+     */
+    private final class ActiveSubscription implements AutoCloseable, Flow.Subscription {
+        final List<String> ids;
+        final Flow.Subscriber<Value> subscriber;
+        final AtomicBoolean subscribed = new AtomicBoolean();
+        final AtomicLong demand = new AtomicLong();        // outstanding; Long.MAX_VALUE = unbounded
+        final List<Relay> relays = new CopyOnWriteArrayList<>();
+        volatile Relay current;
+        volatile boolean cancelled;
+
+        ActiveSubscription(List<String> ids, Flow.Subscriber<Value> subscriber) {
+            this.ids = List.copyOf(ids);
+            this.subscriber = subscriber;
+        }
+
+        /** Subscribes on {@code p}; the relay receives but is not {@link #current} until the caller says so. */
+        Relay attach(ConnectorPlugin p) throws Exception {
+            var r = new Relay();
+            relays.add(r);
+            try {
+                r.handle = p.subscribe().subscribe(ids, r);
+            } catch (Exception | Error e) {
+                detach(r);
+                throw e;
+            }
+            return r;
+        }
+
+        void detach(Relay r) {
+            r.retired = true;
+            relays.remove(r);
+            var up = r.upstream;
+            if (up != null) up.cancel();
+            try {
+                if (r.handle != null) r.handle.close();
+            } catch (Exception ignored) {
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                subscriber.onError(new IllegalArgumentException("request must be > 0, got " + n));
+                return;
+            }
+            demand.accumulateAndGet(n, (d, k) -> d + k < 0 ? Long.MAX_VALUE : d + k);
+            for (var r : relays) {
+                var up = r.upstream;
+                if (up != null) up.request(n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            try {
+                close();
+            } catch (Exception ignored) {
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            subscriptions.remove(this);
+            for (var r : relays) detach(r);
+        }
+
+        final class Relay implements Flow.Subscriber<Value> {
+            volatile Flow.Subscription upstream;
+            volatile AutoCloseable handle;
+            volatile boolean retired;
+
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                upstream = s;
+                if (cancelled || retired) {
+                    s.cancel();
+                } else if (subscribed.compareAndSet(false, true)) {
+                    subscriber.onSubscribe(ActiveSubscription.this);
+                } else {
+                    long d = demand.get();      // a later generation picks up what the consumer still wants
+                    if (d > 0) s.request(d);
+                }
+            }
+
+            @Override
+            public void onNext(Value item) {
+                if (retired) return;
+                demand.getAndUpdate(d -> d == Long.MAX_VALUE ? d : Math.max(0, d - 1));
+                subscriber.onNext(item);
+            }
+
+            // a retired generation completing on stop() is not the end of the consumer's stream
+            @Override
+            public void onError(Throwable t) {
+                if (!retired) subscriber.onError(t);
+            }
+
+            @Override
+            public void onComplete() {
+                if (!retired) subscriber.onComplete();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+        T apply(ConnectorPlugin p) throws Exception;
+    }
+
+    private final String id;
+    private final Set<ActiveSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong reloads = new AtomicLong();
+    private volatile Generation current;
+
+    public ReloadableConnector(LoadedPlugin initial) {
+        this.id = initial.plugin().id();
+        this.current = new Generation(initial);
+    }
+
+    /**
+     * Swaps in {@code next} (already constructed, not yet initialized). Returns once the old instance is drained
+     * and stopped, or after {@code drainTimeout}, whichever comes first.
+     */
+    public synchronized void reload(LoadedPlugin next, Map<String, Object> cfg, Collection<Node> nodes,
+                                    Duration drainTimeout) throws Exception {
+        if (!id.equals(next.plugin().id())) {
+            throw new IllegalArgumentException("Cannot replace plugin '" + id + "' with '" + next.plugin().id() + "'");
+        }
+        var fresh = new Generation(next);
+        var plugin = fresh.plugin();
+        var old = current;
+        boolean exclusive = plugin instanceof ExclusiveTransport;
+        if (exclusive) {                    // the new instance cannot bind until the old one lets go
+            drain(old, drainTimeout);
+            old.plugin().stop();
+        }
+        try {
+            plugin.init(cfg);
+            plugin.start();
+            if (plugin instanceof NodeHandoff h) h.adoptNodes(nodes);
+        } catch (Exception e) {
+            abandon(plugin, next, exclusive ? old : null, e);
+            throw e;
+        }
+
+        // attach every live subscription to the new instance before the swap so no update is missed; all or nothing
+        var attached = new LinkedHashMap<ActiveSubscription, ActiveSubscription.Relay>();
+        try {
+            for (var s : subscriptions) attached.put(s, s.attach(plugin));
+        } catch (Exception | Error e) {
+            attached.forEach(ActiveSubscription::detach);
+            abandon(plugin, next, exclusive ? old : null, e);
+            throw e;
+        }
+
+        current = fresh;
+        reloads.incrementAndGet();
+
+        attached.forEach((s, r) -> {
+            var retired = s.current;
+            s.current = r;
+            if (retired != null) s.detach(retired);
+        });
+        try {
+            if (!exclusive) {
+                drain(old, drainTimeout);
+                old.plugin().stop();
+            }
+        } finally {
+            old.loaded.close();
+        }
+    }
+
+    private static void drain(Generation g, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (g.inFlight.get() > 0 && System.nanoTime() < deadline) Thread.sleep(10);
+    }
+
+    // tears down a new instance that failed to come up; an exclusive old one is started again
+    private static void abandon(ConnectorPlugin plugin, LoadedPlugin next, Generation restore, Throwable cause) {
+        try {
+            plugin.stop();
+        } catch (Exception e) {
+            cause.addSuppressed(e);
+        }
+        try {
+            next.close();
+        } catch (Exception e) {
+            cause.addSuppressed(e);
+        }
+        if (restore == null) return;
+        try {
+            restore.plugin().start();
+        } catch (Exception e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    public long reloads() {
+        return reloads.get();
+    }
+
+    public LoadedPlugin current() {
+        return current.loaded;
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @Override
+    public void init(Map<String, Object> config) {
+        current.plugin().init(config);
+    }
+
+    @Override
+    public void start() throws Exception {
+        current.plugin().start();
+    }
+
+    @Override
+    public void stop() throws Exception {
+        var g = current;
+        try {
+            g.plugin().stop();
+        } finally {
+            g.loaded.close();
+        }
+    }
+
+    @Override
+    public DiscoveryPort discovery() {
+        return new DiscoveryPort() {
+            @Override
+            public List<Device> discoverDevices(Duration timeout) throws Exception {
+                return call(p -> p.discovery().discoverDevices(timeout));
+            }
+
+            @Override
+            public List<Point> discoverPoints(Device device, Duration timeout) throws Exception {
+                return call(p -> p.discovery().discoverPoints(device, timeout));
+            }
+        };
+    }
+
+    @Override
+    public ReaderPort reader() {
+        return pointIds -> call(p -> p.reader().read(pointIds));
+    }
+
+    @Override
+    public WriterPort writer() {
+        return (pointId, value, options) -> call(p -> {
+            p.writer().write(pointId, value, options);
+            return null;
+        });
+    }
+
+    @Override
+    public SubscribePort subscribe() {
+        return (pointIds, subscriber) -> {
+            var s = new ActiveSubscription(pointIds, subscriber);
+            synchronized (this) {           // not concurrently with a reload's re-attach pass
+                s.current = call(s::attach);
+                subscriptions.add(s);
+            }
+            return s;
+        };
+    }
+
+    @Override
+    public HealthPort health() {
+        return () -> {
+            var g = current;
+            var h = g.plugin().health().health();
+            var m = new LinkedHashMap<String, Object>();
+            if (h.metrics() != null) m.putAll(h.metrics());
+            m.put("pluginSource", g.loaded.source() != null ? g.loaded.source().toString() : "classpath");
+            m.put("reloads", reloads.get());
+            m.put("activeSubscriptions", subscriptions.size());
+            return new HealthStatus(h.up(), m);
+        };
+    }
+
+    /** Empty when the current instance keeps no device-side history. */
+    @Override
+    public List<Value> backfill(Map<String, Long> fromByPoint, long toMs) throws Exception {
+        return call(p -> p instanceof HistoryBackfill b ? b.backfill(fromByPoint, toMs) : List.of());
+    }
+
+    private <T> T call(Call<T> body) throws Exception {
+        Generation g;
+        while (true) {                      // pin a generation; retry if a swap raced the increment
+            g = current;
+            g.inFlight.incrementAndGet();
+            if (g == current) break;
+            g.inFlight.decrementAndGet();
+        }
+        try {
+            return body.apply(g.plugin());
+        } finally {
+            g.inFlight.decrementAndGet();
+        }
+    }
+}
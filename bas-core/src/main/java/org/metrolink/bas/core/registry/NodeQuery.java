@@ -0,0 +1,29 @@
+package org.metrolink.bas.core.registry;
+
+import java.util.Map;
+
+/**
+ * Conjunctive node filter; {@code null} fields (and an empty meta map) match anything.
+ */
+public record NodeQuery(String deviceId, String type, Boolean writable, Map<String, Object> meta) {
+
+    public NodeQuery {
+        meta = (meta != null) ? Map.copyOf(meta) : Map.of();
+    }
+
+    public static NodeQuery all() {
+        return new NodeQuery(null, null, null, Map.of());
+    }
+
+    public NodeQuery withDevice(String deviceId) {
+        return new NodeQuery(deviceId, type, writable, meta);
+    }
+
+    public NodeQuery withType(String type) {
+        return new NodeQuery(deviceId, type, writable, meta);
+    }
+
+    public NodeQuery withWritable(Boolean writable) {
+        return new NodeQuery(deviceId, type, writable, meta);
+    }
+}
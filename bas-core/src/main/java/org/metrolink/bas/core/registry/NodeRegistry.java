@@ -0,0 +1,250 @@
+package org.metrolink.bas.core.registry;
+
+import org.metrolink.bas.core.model.Node;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Node store with secondary indexes by device, type, writability and selected meta keys.
+ * <p>
+ * Nodes live in lock-striped shards: reads and queries are lock-free, while a put/remove takes its shard's lock so
+ * the primary entry and its index entries change together. Index lookups return ids, so a query costs
+ * O(smallest matching index) rather than O(registry size).
+ */
+public final class NodeRegistry {
+    private static final int DEFAULT_SHARDS = 16;
+
+    private final Shard[] shards;
+    private final Set<String> indexedMetaKeys;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final Map<String, Set<String>> byDevice = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byType = new ConcurrentHashMap<>();
+    private final Set<String> writable = ConcurrentHashMap.newKeySet();
+    private final Map<String, Map<String, Set<String>>> byMeta = new ConcurrentHashMap<>();
+
+    private final Collection<Node> view = new AbstractCollection<>() {
+        @Override
+        public Iterator<Node> iterator() {
+            return Arrays.stream(shards).flatMap(s -> s.nodes.values().stream()).iterator();
+        }
+
+        @Override
+        public int size() {
+            return size.get();
+        }
+    };
+
+    public NodeRegistry() {
+        this(Set.of("units"));
+    }
+
+    public NodeRegistry(Set<String> indexedMetaKeys) {
+        this(indexedMetaKeys, DEFAULT_SHARDS);
+    }
+
+    public NodeRegistry(Set<String> indexedMetaKeys, int shardCount) {
+        this.indexedMetaKeys = Set.copyOf(indexedMetaKeys);
+        this.shards = new Shard[Integer.highestOneBit(Math.max(1, shardCount) * 2 - 1)];
+        for (int i = 0; i < shards.length; i++) shards[i] = new Shard();
+        for (var k : this.indexedMetaKeys) byMeta.put(k, new ConcurrentHashMap<>());
+    }
+
+    public Node put(Node n) {
+        var shard = shardOf(n.id());
+        synchronized (shard) {
+            var prev = shard.nodes.put(n.id(), n);
+            if (prev == null) size.incrementAndGet();
+            else unindex(prev);
+            index(n);
+            return prev;
+        }
+    }
+
+    public Node remove(String id) {
+        var shard = shardOf(id);
+        synchronized (shard) {
+            var prev = shard.nodes.remove(id);
+            if (prev != null) {
+                size.decrementAndGet();
+                unindex(prev);
+            }
+            return prev;
+        }
+    }
+
+    public Node get(String id) {
+        return shardOf(id).nodes.get(id);
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /** Live, weakly consistent view of every node; {@code size()} is O(1). */
+    public Collection<Node> all() {
+        return view;
+    }
+
+    public Set<String> deviceIds() {
+        return Collections.unmodifiableSet(byDevice.keySet());
+    }
+
+    public List<Node> byDevice(String deviceId) {
+        return resolve(byDevice.get(deviceId));
+    }
+
+    public List<Node> byType(String type) {
+        return resolve(byType.get(type));
+    }
+
+    public List<Node> writable() {
+        return resolve(writable);
+    }
+
+    public List<Node> byMeta(String key, Object value) {
+        return query(new NodeQuery(null, null, null, Map.of(key, value)));
+    }
+
+    public List<Node> query(NodeQuery q) {
+        Set<String> smallest = null;
+        boolean indexed = false;
+        if (q.deviceId() != null) {
+            smallest = pick(smallest, byDevice.get(q.deviceId()));
+            indexed = true;
+        }
+        if (q.type() != null) {
+            smallest = pick(smallest, byType.get(q.type()));
+            indexed = true;
+        }
+        if (Boolean.TRUE.equals(q.writable())) {
+            smallest = pick(smallest, writable);
+            indexed = true;
+        }
+        for (var e : q.meta().entrySet()) {
+            var idx = byMeta.get(e.getKey());
+            if (idx == null) continue;   // not an indexed key: filtered below
+            smallest = pick(smallest, idx.get(String.valueOf(e.getValue())));
+            indexed = true;
+        }
+
+        var out = new ArrayList<Node>();
+        if (indexed && smallest == null) return out;   // some index had no entry for the key
+        Iterable<Node> candidates = indexed ? resolve(smallest) : view;
+        for (var n : candidates) {
+            if (matches(n, q)) out.add(n);
+        }
+        return out;
+    }
+
+    /**
+     * Replaces the node set of one device with a fresh discovery result, touching only what changed.
+     * Nodes absent from {@code fresh} are removed; equal nodes are left alone.
+     */
+    public RegistryDelta replaceDevice(String deviceId, Collection<Node> fresh) {
+        var added = new ArrayList<Node>();
+        var changed = new ArrayList<Node>();
+        var removed = new ArrayList<Node>();
+
+        var freshIds = new HashMap<String, Node>(fresh.size() * 2);
+        for (var n : fresh) freshIds.put(n.id(), n);
+
+        for (var old : byDevice(deviceId)) {
+            if (!freshIds.containsKey(old.id()) && remove(old.id()) != null) removed.add(old);
+        }
+        for (var n : fresh) {
+            var prev = get(n.id());
+            if (n.equals(prev)) continue;
+            if (put(n) == null) added.add(n);
+            else changed.add(n);
+        }
+        return new RegistryDelta(added, changed, removed);
+    }
+
+    private boolean matches(Node n, NodeQuery q) {
+        if (q.deviceId() != null && !q.deviceId().equals(n.deviceId())) return false;
+        if (q.type() != null && !q.type().equals(n.type())) return false;
+        if (q.writable() != null && q.writable() != n.writable()) return false;
+        for (var e : q.meta().entrySet()) {
+            var actual = n.meta() != null ? n.meta().get(e.getKey()) : null;
+            if (actual == null || !String.valueOf(actual).equals(String.valueOf(e.getValue()))) return false;
+        }
+        return true;
+    }
+
+    private static Set<String> pick(Set<String> current, Set<String> candidate) {
+        if (candidate == null) return current == null ? null : Set.of();
+        return (current == null || candidate.size() < current.size()) ? candidate : current;
+    }
+
+    private List<Node> resolve(Set<String> ids) {
+        if (ids == null) return List.of();
+        var out = new ArrayList<Node>(ids.size());
+        for (var id : ids) {
+            var n = get(id);
+            if (n != null) out.add(n);
+        }
+        return out;
+    }
+
+    private void index(Node n) {
+        add(byDevice, n.deviceId(), n.id());
+        add(byType, n.type(), n.id());
+        if (n.writable()) writable.add(n.id());
+        if (n.meta() == null) return;
+        for (var k : indexedMetaKeys) {
+            var v = n.meta().get(k);
+            if (v != null) add(byMeta.get(k), String.valueOf(v), n.id());
+        }
+    }
+
+    private void unindex(Node n) {
+        drop(byDevice, n.deviceId(), n.id());
+        drop(byType, n.type(), n.id());
+        writable.remove(n.id());
+        if (n.meta() == null) return;
+        for (var k : indexedMetaKeys) {
+            var v = n.meta().get(k);
+            if (v != null) drop(byMeta.get(k), String.valueOf(v), n.id());
+        }
+    }
+
+    // compute()/computeIfPresent() keep "add to set" and "drop empty set" atomic per index key
+    private static void add(Map<String, Set<String>> index, String key, String id) {
+        if (key == null) return;
+        index.compute(key, (k, ids) -> {
+            if (ids == null) ids = ConcurrentHashMap.newKeySet();
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private static void drop(Map<String, Set<String>> index, String key, String id) {
+        if (key == null) return;
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private Shard shardOf(String id) {
+        int h = Objects.hashCode(id);
+        return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+    }
+
+    private static final class Shard {
+        final Map<String, Node> nodes = new ConcurrentHashMap<>();
+    }
+}
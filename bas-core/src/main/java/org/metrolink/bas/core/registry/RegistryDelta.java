@@ -0,0 +1,12 @@
+package org.metrolink.bas.core.registry;
+
+import org.metrolink.bas.core.model.Node;
+
+import java.util.List;
+
+public record RegistryDelta(List<Node> added, List<Node> changed, List<Node> removed) {
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,132 @@
+package org.metrolink.bas.core.replication;
+
+import org.metrolink.bas.core.model.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped batch of samples as shipped to the collector ({@value #MEDIA_TYPE}):
+ * {@code i32 magic · u8 version · utf gatewayId · i32 count · (utf pointId · u8 tag · payload · i64 ts)*}.
+ */
+public final class BatchCodec {
+    public static final String MEDIA_TYPE = "application/x-bas-batch";
+
+    private static final int MAGIC = 0x42415342; // "BASB"
+    private static final byte VERSION = 1;
+    private static final byte NULL = 0, F64 = 1, BOOL = 2, I64 = 3, STR = 4;
+    private static final long DEFAULT_MAX_INFLATED_BYTES = 64L * 1024 * 1024;
+    private static final int DEFAULT_MAX_SAMPLES = 1_000_000;
+
+    public record Batch(String gatewayId, List<Value> values) {
+    }
+
+    private BatchCodec() {
+    }
+
+    public static byte[] encode(String gatewayId, List<Value> values) throws IOException {
+        var bytes = new ByteArrayOutputStream(64 + values.size() * 24);
+        try (var out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(gatewayId);
+            out.writeInt(values.size());
+            for (var v : values) {
+                out.writeUTF(v.pointId());
+                var x = v.value();
+                if (x == null) {
+                    out.writeByte(NULL);
+                } else if (x instanceof Boolean b) {
+                    out.writeByte(BOOL);
+                    out.writeBoolean(b);
+                } else if (x instanceof Long || x instanceof Integer || x instanceof Short || x instanceof Byte) {
+                    out.writeByte(I64);
+                    out.writeLong(((Number) x).longValue());
+                } else if (x instanceof Number n) {
+                    out.writeByte(F64);
+                    out.writeDouble(n.doubleValue());
+                } else {
+                    out.writeByte(STR);
+                    out.writeUTF(String.valueOf(x));
+                }
+                out.writeLong(v.tsEpochMs());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Batch decode(byte[] body) throws IOException {
+        return decode(body, DEFAULT_MAX_INFLATED_BYTES, DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * Decodes a batch from an untrusted peer: inflation stops with {@link BatchTooLargeException} past
+     * {@code maxInflatedBytes}, as does a declared count above {@code maxSamples}, so a small gzip bomb cannot
+     * exhaust the heap.
+     */
+    public static Batch decode(byte[] body, long maxInflatedBytes, int maxSamples) throws IOException {
+        if (body.length > maxInflatedBytes) throw new BatchTooLargeException("Batch body over " + maxInflatedBytes);
+        var inflated = new CappedInputStream(new GZIPInputStream(new ByteArrayInputStream(body)), maxInflatedBytes);
+        try (var in = new DataInputStream(inflated)) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) throw new IOException("Not a " + MEDIA_TYPE + " body");
+            var gatewayId = in.readUTF();
+            int n = in.readInt();
+            if (n < 0) throw new IOException("Negative sample count " + n);
+            if (n > maxSamples) throw new BatchTooLargeException(n + " samples in one batch, limit " + maxSamples);
+            // n is untrusted and the body is compressed: pre-size by what was received, let the list grow past it
+            var values = new ArrayList<Value>(Math.min(n, body.length));
+            for (int i = 0; i < n; i++) {
+                var id = in.readUTF();
+                byte tag = in.readByte();
+                Object x = switch (tag) {
+                    case NULL -> null;
+                    case F64 -> in.readDouble();
+                    case BOOL -> in.readBoolean();
+                    case I64 -> in.readLong();
+                    case STR -> in.readUTF();
+                    default -> throw new IOException("Unknown value tag " + tag);
+                };
+                values.add(new Value(id, x, in.readLong()));
+            }
+            return new Batch(gatewayId, values);
+        }
+    }
+
+    private static final class CappedInputStream extends FilterInputStream {
+        private final long max;
+        private long read;
+
+        CappedInputStream(InputStream in, long max) {
+            super(in);
+            this.max = max;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        private void count(int n) throws BatchTooLargeException {
+            read += n;
+            if (read > max) throw new BatchTooLargeException("Batch inflates past " + max + " bytes");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.metrolink.bas.core.replication;
+
+import java.io.IOException;
+
+/**
+ * A replication batch over the receiver's limits (inflated size or sample count); rejected before it is buffered.
+ */
+public final class BatchTooLargeException extends IOException {
+
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
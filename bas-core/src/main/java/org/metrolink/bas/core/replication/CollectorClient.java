@@ -0,0 +1,6 @@
+package org.metrolink.bas.core.replication;
+
+public interface CollectorClient {
+    /** Delivers one encoded batch; must throw unless the collector durably accepted it. */
+    void push(String gatewayId, byte[] batch) throws Exception;
+}
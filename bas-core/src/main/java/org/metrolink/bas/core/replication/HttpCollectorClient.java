@@ -0,0 +1,34 @@
+package org.metrolink.bas.core.replication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+public final class HttpCollectorClient implements CollectorClient {
+    private final URI endpoint;
+    private final Duration timeout;
+    private final HttpClient http;
+
+    public HttpCollectorClient(URI endpoint, Duration timeout) {
+        this.endpoint = endpoint;
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void push(String gatewayId, byte[] batch) throws Exception {
+        var req = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", BatchCodec.MEDIA_TYPE)
+                .header("X-Bas-Gateway", gatewayId)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(batch))
+                .build();
+        var resp = http.send(req, HttpResponse.BodyHandlers.discarding());
+        if (resp.statusCode() / 100 != 2) {
+            throw new IOException("Collector " + endpoint + " answered " + resp.statusCode());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.metrolink.bas.core.replication;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Durable FIFO of opaque batches on local disk.
+ * <p>
+ * Batches are appended to segment files named by their base offset ({@code 00000000000000000000.seg});
+ * each record is {@code i32 length · i32 crc32 · payload}. The consumer position lives in {@code checkpoint}
+ * (rewritten atomically) and segments wholly behind it are deleted. On open, a torn record at the tail
+ * (crash mid-append) is truncated away; a corrupt record found later costs the rest of its segment, not the queue.
+ */
+public final class Outbox implements AutoCloseable {
+    private static final String SUFFIX = ".seg";
+    private static final int HEADER = 8;
+
+    private final Path dir;
+    private final long maxSegmentBytes;
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    private FileChannel active;
+    private long activeBase;
+    private long endOffset;
+    private long checkpoint;
+    private long corruptSegments;
+
+    public record Entry(long offset, long nextOffset, byte[] payload) {
+    }
+
+    public Outbox(Path dir, long maxSegmentBytes) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.maxSegmentBytes = maxSegmentBytes;
+
+        try (var files = Files.list(dir)) {
+            for (var f : files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                var name = f.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), f);
+            }
+        }
+        var cp = dir.resolve("checkpoint");
+        checkpoint = Files.exists(cp) ? Long.parseLong(Files.readString(cp).trim()) : 0L;
+
+        if (segments.isEmpty()) {
+            roll(checkpoint);
+        } else {
+            var last = segments.lastEntry();
+            activeBase = last.getKey();
+            active = FileChannel.open(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long valid = validLength(active);
+            active.truncate(valid);
+            active.position(valid);
+            endOffset = activeBase + valid;
+        }
+        if (checkpoint < segments.firstKey()) checkpoint = segments.firstKey();
+    }
+
+    public synchronized void append(byte[] payload) throws IOException {
+        if (endOffset - activeBase >= maxSegmentBytes) roll(endOffset);
+        var crc = new CRC32();
+        crc.update(payload);
+        var buf = ByteBuffer.allocate(HEADER + payload.length)
+                .putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (buf.hasRemaining()) active.write(buf);
+        active.force(false);
+        endOffset += HEADER + payload.length;
+    }
+
+    /**
+     * Oldest batch not yet committed, or {@code null} when caught up. A record that fails its length or CRC check
+     * cannot be resynchronised past, so the rest of its segment is quarantined ({@code .seg.corrupt}), the checkpoint
+     * moves to the next segment and reading carries on there.
+     */
+    public synchronized Entry peek() throws IOException {
+        long offset = checkpoint;
+        while (offset < endOffset) {
+            var seg = segments.floorEntry(offset);
+            long next;
+            try (var ch = FileChannel.open(seg.getValue(), StandardOpenOption.READ)) {
+                long pos = offset - seg.getKey();
+                long size = ch.size();
+                if (pos >= size) {                          // end of a sealed segment: continue in the next one
+                    var n = segments.higherKey(seg.getKey());
+                    if (n == null) return null;
+                    offset = n;
+                    continue;
+                }
+                if (pos + HEADER <= size) {
+                    var header = ByteBuffer.allocate(HEADER);
+                    ch.read(header, pos);
+                    header.flip();
+                    int len = header.getInt();
+                    int crc = header.getInt();
+                    if (len >= 0 && len <= size - pos - HEADER) {
+                        var payload = ByteBuffer.allocate(len);
+                        ch.read(payload, pos + HEADER);
+                        var c = new CRC32();
+                        c.update(payload.array());
+                        if ((int) c.getValue() == crc) return new Entry(offset, offset + HEADER + len, payload.array());
+                    }
+                }
+                if (seg.getKey() == activeBase) roll(endOffset);    // appends go on in a fresh segment
+                next = segments.higherKey(seg.getKey());
+            }
+            quarantine(seg.getKey(), next);
+            offset = next;
+        }
+        return null;
+    }
+
+    /** Segments set aside because of a corrupt record since open. */
+    public synchronized long corruptSegments() {
+        return corruptSegments;
+    }
+
+    /** Marks everything before {@code nextOffset} as delivered. */
+    public synchronized void commit(long nextOffset) throws IOException {
+        checkpoint = nextOffset;
+        var tmp = dir.resolve("checkpoint.tmp");
+        Files.writeString(tmp, Long.toString(nextOffset), StandardCharsets.US_ASCII);
+        Files.move(tmp, dir.resolve("checkpoint"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        List<Long> drop = new ArrayList<>();
+        for (var base : segments.keySet()) {
+            var next = segments.higherKey(base);
+            if (next != null && next <= nextOffset) drop.add(base);
+        }
+        for (var base : drop) Files.deleteIfExists(segments.remove(base));
+    }
+
+    public synchronized long backlogBytes() {
+        return endOffset - checkpoint;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.close();
+    }
+
+    private void roll(long base) throws IOException {
+        if (active != null) active.close();
+        var path = dir.resolve(String.format("%020d%s", base, SUFFIX));
+        active = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.put(base, path);
+        activeBase = base;
+        endOffset = base + active.size();
+        active.position(active.size());
+    }
+
+    private void quarantine(long base, long next) throws IOException {
+        corruptSegments++;
+        var seg = segments.remove(base);
+        Files.move(seg, seg.resolveSibling(seg.getFileName() + ".corrupt"), StandardCopyOption.REPLACE_EXISTING);
+        commit(next);
+    }
+
+    private static long validLength(FileChannel ch) throws IOException {
+        long pos = 0, size = ch.size();
+        var header = ByteBuffer.allocate(HEADER);
+        while (pos + HEADER <= size) {
+            header.clear();
+            ch.read(header, pos);
+            header.flip();
+            int len = header.getInt();
+            int crc = header.getInt();
+            if (len < 0 || pos + HEADER + len > size) break;
+            var payload = ByteBuffer.allocate(len);
+            ch.read(payload, pos + HEADER);
+            var c = new CRC32();
+            c.update(payload.array());
+            if ((int) c.getValue() != crc) break;
+            pos += HEADER + len;
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,21 @@
+package org.metrolink.bas.core.replication;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param maxBatchSamples     samples per outbox batch
+ * @param flushInterval       max time a sample waits in memory before it is written to the outbox
+ * @param maxPendingSamples   in-memory cap ahead of the outbox; beyond it new samples are dropped (and counted)
+ * @param maxBatchesPerSecond upload rate cap, which also paces catch-up after an outage
+ * @param maxBackoff          cap for the exponential retry delay while the collector is unreachable
+ */
+public record ReplicationConfig(String gatewayId,
+                                Path outboxDir,
+                                long maxSegmentBytes,
+                                int maxBatchSamples,
+                                Duration flushInterval,
+                                int maxPendingSamples,
+                                double maxBatchesPerSecond,
+                                Duration maxBackoff) {
+}
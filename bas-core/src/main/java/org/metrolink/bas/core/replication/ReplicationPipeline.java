@@ -0,0 +1,150 @@
+package org.metrolink.bas.core.replication;
+
+import org.metrolink.bas.core.model.Value;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Store-and-forward upstream replication: samples are queued in memory, flushed as compressed batches into a
+ * durable {@link Outbox}, and a sender thread pushes the outbox to the collector in order, committing the
+ * checkpoint only after each batch is accepted. A collector outage just grows the outbox; afterwards the backlog
+ * drains at {@code maxBatchesPerSecond}.
+ */
+public final class ReplicationPipeline implements Consumer<Value>, AutoCloseable {
+    private final ReplicationConfig cfg;
+    private final Outbox outbox;
+    private final CollectorClient collector;
+
+    private final Queue<Value> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong samplesQueued = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong lastSuccessMs = new AtomicLong();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        var t = new Thread(r, "replication-flush");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Thread sender;
+    private volatile boolean running = true;
+
+    public ReplicationPipeline(ReplicationConfig cfg, CollectorClient collector) throws IOException {
+        this.cfg = cfg;
+        this.collector = collector;
+        this.outbox = new Outbox(cfg.outboxDir(), cfg.maxSegmentBytes());
+
+        long flushMs = Math.max(10, cfg.flushInterval().toMillis());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMs, flushMs, TimeUnit.MILLISECONDS);
+        sender = new Thread(this::sendLoop, "replication-send");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @Override
+    public void accept(Value v) {
+        if (pendingCount.incrementAndGet() > cfg.maxPendingSamples()) {
+            pendingCount.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        pending.offer(v);
+        if (pendingCount.get() >= cfg.maxBatchSamples()) flusher.execute(this::flushQuietly);
+    }
+
+    public Map<String, Object> stats() {
+        var m = new LinkedHashMap<String, Object>();
+        m.put("pendingSamples", pendingCount.get());
+        m.put("outboxBacklogBytes", outbox.backlogBytes());
+        m.put("outboxCorruptSegments", outbox.corruptSegments());
+        m.put("samplesQueued", samplesQueued.get());
+        m.put("batchesSent", batchesSent.get());
+        m.put("sendFailures", failures.get());
+        m.put("droppedSamples", dropped.get());
+        m.put("lastSuccessEpochMs", lastSuccessMs.get());
+        return m;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+            flush();                 // whatever is still in memory goes to disk for the next run
+            sender.interrupt();
+            sender.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            outbox.close();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private synchronized void flush() throws IOException {
+        while (!pending.isEmpty()) {
+            var batch = new ArrayList<Value>(Math.min(pendingCount.get(), cfg.maxBatchSamples()));
+            Value v;
+            while (batch.size() < cfg.maxBatchSamples() && (v = pending.poll()) != null) batch.add(v);
+            if (batch.isEmpty()) return;
+            pendingCount.addAndGet(-batch.size());
+            outbox.append(BatchCodec.encode(cfg.gatewayId(), batch));
+            samplesQueued.addAndGet(batch.size());
+        }
+    }
+
+    private void sendLoop() {
+        long minGapNanos = (long) (1e9 / Math.max(0.01, cfg.maxBatchesPerSecond()));
+        long backoffMs = 250;
+        long lastSend = 0;
+        while (running) {
+            try {
+                var entry = outbox.peek();
+                if (entry == null) {
+                    Thread.sleep(100);
+                    continue;
+                }
+                long wait = lastSend + minGapNanos - System.nanoTime();
+                if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+                lastSend = System.nanoTime();
+
+                collector.push(cfg.gatewayId(), entry.payload());
+                outbox.commit(entry.nextOffset());
+                batchesSent.incrementAndGet();
+                lastSuccessMs.set(System.currentTimeMillis());
+                backoffMs = 250;
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, Math.max(250, cfg.maxBackoff().toMillis()));
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.metrolink.bas.core.scheduler;
+
+import java.time.Duration;
+
+/**
+ * Bounds for {@link AdaptivePoller}.
+ *
+ * @param minInterval          fastest a point is ever polled
+ * @param maxInterval          slowest (flat-lining, unwatched points)
+ * @param interestInterval     ceiling while someone reads or subscribes to the point
+ * @param interestTtl          how long a read/subscription keeps a point "interesting"
+ * @param budgetReadsPerSecond field-bus budget in point reads per second; 0 = unlimited
+ * @param defaultDeadband      change considered significant when the point has no deadband meta
+ * @param maxBatch             points per connector read
+ */
+public record AdaptivePollConfig(Duration minInterval, Duration maxInterval, Duration interestInterval,
+                                 Duration interestTtl, double budgetReadsPerSecond, double defaultDeadband,
+                                 int maxBatch) {
+
+    public AdaptivePollConfig {
+        if (minInterval.isNegative() || minInterval.isZero()) throw new IllegalArgumentException("minInterval <= 0");
+        if (maxInterval.compareTo(minInterval) < 0) throw new IllegalArgumentException("maxInterval < minInterval");
+        if (interestInterval.compareTo(minInterval) < 0) interestInterval = minInterval;
+        if (interestInterval.compareTo(maxInterval) > 0) interestInterval = maxInterval;
+        if (budgetReadsPerSecond < 0) throw new IllegalArgumentException("budgetReadsPerSecond < 0");
+        if (!(defaultDeadband > 0)) throw new IllegalArgumentException("defaultDeadband must be > 0");
+        if (maxBatch <= 0) maxBatch = Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,374 @@
+package org.metrolink.bas.core.scheduler;
+
+import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.time.Clock;
+import org.metrolink.bas.core.trace.SchedulerTickEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Polls each point at its own interval, re-planned every second from:
+ * <ul>
+ *   <li>volatility — EWMA of change per second in deadbands; the target is about one deadband of change per poll,
+ *       so flat-lining points drift to {@code maxInterval}</li>
+ *   <li>interest — a recent API read ({@link #touch}) or an open subscription ({@link #watch}) caps the interval at
+ *       {@code interestInterval}</li>
+ *   <li>alarm proximity — in [0, 1], pulls the interval toward {@code minInterval}; points with any proximity are
+ *       read as urgent</li>
+ * </ul>
+ * When the desired rates exceed the read budget, every point keeps its {@code maxInterval} floor and the remaining
+ * budget is shared in proportion to each point's excess demand, so it goes where it is needed.
+ * <p>
+ * All polling and planning runs on one thread; due points are taken from a priority queue, grouped per device (and
+ * urgent or not, so one point near alarm does not lift its whole device) and read in batches of at most
+ * {@code maxBatch}.
+ */
+public final class AdaptivePoller implements AutoCloseable {
+    private static final double ALPHA = 0.3;          // EWMA weight of the newest change-rate sample
+    private static final long REPLAN_MS = 1000;
+
+    /** Reads one batch of a single device; {@code urgent} when its points are near or in alarm. */
+    @FunctionalInterface
+    public interface BatchReader {
+        Map<String, Value> read(List<String> ids, boolean urgent) throws Exception;
+    }
+
+    public record Stats(int points, int interested, double plannedReadsPerSecond, double budgetReadsPerSecond,
+                        long minIntervalMs, long medianIntervalMs, long maxIntervalMs,
+                        long reads, long batches, long errors) {
+    }
+
+    private static final class PointState {
+        final String id;
+        final double deadband;
+        volatile long interestUntilMs;
+        volatile long intervalMs;
+        volatile boolean urgent;
+        long dueMs;
+        long lastPolledMs = -1;
+        double lastNumber = Double.NaN;
+        Object lastOther;
+        double ewma;                    // deadbands per second
+        boolean learned;                // at least one change-rate sample; until then poll at minInterval
+        boolean removed;
+
+        PointState(String id, double deadband, long intervalMs) {
+            this.id = id;
+            this.deadband = deadband;
+            this.intervalMs = intervalMs;
+        }
+    }
+
+    private final BatchReader reader;
+    private final AdaptivePollConfig cfg;
+    private final ToDoubleFunction<String> deadband;
+    private final ToDoubleFunction<String> alarmProximity;
+    private final Function<String, String> deviceOf;
+    private final Consumer<Map<String, Value>> onBatch;
+    private final Map<String, PointState> points = new ConcurrentHashMap<>();
+    private final Map<String, Integer> watchers = new ConcurrentHashMap<>();    // open subscriptions per point
+    private final PriorityQueue<PointState> due = new PriorityQueue<>((a, b) -> Long.compare(a.dueMs, b.dueMs));
+    private final Clock clock;
+    private final ScheduledExecutorService ses;
+    private final boolean ownsExecutor;
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final long tickMs;
+    private final long t0;
+    private long nextReplanMs;
+    private volatile ScheduledFuture<?> ticking;
+    private volatile Stats stats;
+
+    /**
+     * @param deadband       significant change per point (e.g. from node meta); values &lt;= 0 use the config default
+     * @param alarmProximity in [0, 1] per point, e.g. {@code RuleEngine::proximity}
+     * @param deviceOf       device of a point, so batches never span devices; {@code null} = one device
+     */
+    public AdaptivePoller(BatchReader reader, AdaptivePollConfig cfg, ToDoubleFunction<String> deadband,
+                          ToDoubleFunction<String> alarmProximity, Function<String, String> deviceOf,
+                          Consumer<Map<String, Value>> onBatch) {
+        this(reader, cfg, deadband, alarmProximity, deviceOf, onBatch, Clock.SYSTEM,
+                Executors.newSingleThreadScheduledExecutor(r -> {
+                    var t = new Thread(r, "adaptive-poller");
+                    t.setDaemon(true);
+                    return t;
+                }), true);
+    }
+
+    /**
+     * Runs on {@code ses} (which must be single-threaded) and reads time from {@code clock}, e.g. a
+     * {@code VirtualScheduler} and its clock. The executor stays the caller's: {@link #close()} only stops this
+     * poller's tick.
+     */
+    public AdaptivePoller(BatchReader reader, AdaptivePollConfig cfg, ToDoubleFunction<String> deadband,
+                          ToDoubleFunction<String> alarmProximity, Function<String, String> deviceOf,
+                          Consumer<Map<String, Value>> onBatch, Clock clock, ScheduledExecutorService ses) {
+        this(reader, cfg, deadband, alarmProximity, deviceOf, onBatch, clock, ses, false);
+    }
+
+    private AdaptivePoller(BatchReader reader, AdaptivePollConfig cfg, ToDoubleFunction<String> deadband,
+                           ToDoubleFunction<String> alarmProximity, Function<String, String> deviceOf,
+                           Consumer<Map<String, Value>> onBatch, Clock clock, ScheduledExecutorService ses,
+                           boolean ownsExecutor) {
+        this.clock = Objects.requireNonNull(clock);
+        this.ses = Objects.requireNonNull(ses);
+        this.ownsExecutor = ownsExecutor;
+        this.t0 = clock.nanoTime();
+        this.reader = Objects.requireNonNull(reader);
+        this.cfg = Objects.requireNonNull(cfg);
+        this.deadband = deadband != null ? deadband : id -> 0;
+        this.alarmProximity = alarmProximity != null ? alarmProximity : id -> 0;
+        this.deviceOf = deviceOf != null ? deviceOf : id -> "";
+        this.onBatch = Objects.requireNonNull(onBatch);
+        this.tickMs = Math.max(10, cfg.minInterval().toMillis() / 4);
+        this.stats = new Stats(0, 0, 0, cfg.budgetReadsPerSecond(), 0, 0, 0, 0, 0, 0);
+    }
+
+    public AdaptivePoller start() {
+        ticking = ses.scheduleWithFixedDelay(this::tick, 0, tickMs, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /** Replaces the polled set (e.g. after rediscovery); kept points keep their learned state. */
+    public void setPoints(Collection<String> ids) {
+        var copy = List.copyOf(ids);
+        ses.execute(() -> {
+            var keep = new HashSet<>(copy);
+            for (var it = points.values().iterator(); it.hasNext(); ) {
+                var s = it.next();
+                if (!keep.contains(s.id)) {
+                    s.removed = true;
+                    it.remove();
+                }
+            }
+            long now = nowMs();
+            long spread = cfg.minInterval().toMillis();
+            int i = 0;
+            for (var id : copy) {
+                if (points.containsKey(id)) continue;
+                double db = deadband.applyAsDouble(id);
+                var s = new PointState(id, db > 0 ? db : cfg.defaultDeadband(), cfg.minInterval().toMillis());
+                // first reads spread over one minInterval instead of one burst
+                s.dueMs = now + (i++ * spread) / Math.max(1, copy.size());
+                points.put(id, s);
+                due.add(s);
+            }
+            nextReplanMs = now;
+        });
+    }
+
+    /** Marks points as watched (API read, subscription); cheap, callable from any thread. */
+    public void touch(Collection<String> ids) {
+        long until = nowMs() + cfg.interestTtl().toMillis();
+        for (var id : ids) {
+            var s = points.get(id);
+            if (s != null) s.interestUntilMs = until;
+        }
+    }
+
+    /**
+     * Marks points as watched until the returned handle is closed (an open subscription); nests, callable from any
+     * thread.
+     */
+    public AutoCloseable watch(Collection<String> ids) {
+        var copy = List.copyOf(ids);
+        for (var id : copy) watchers.merge(id, 1, Integer::sum);
+        var closed = new AtomicBoolean();
+        return () -> {
+            if (!closed.compareAndSet(false, true)) return;
+            for (var id : copy) watchers.computeIfPresent(id, (k, n) -> n > 1 ? n - 1 : null);
+        };
+    }
+
+    /** The point is near or in alarm and read on the urgent path. */
+    public boolean urgent(String pointId) {
+        var s = points.get(pointId);
+        return s != null && s.urgent;
+    }
+
+    /** Current planned interval, or -1 when the point is not polled. */
+    public long intervalMs(String pointId) {
+        var s = points.get(pointId);
+        return s != null ? s.intervalMs : -1;
+    }
+
+    public Stats stats() {
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        var t = ticking;
+        if (t != null) t.cancel(false);
+        if (ownsExecutor) ses.shutdownNow();
+    }
+
+    private long nowMs() {
+        return (clock.nanoTime() - t0) / 1_000_000;
+    }
+
+    private void tick() {
+        long now = nowMs();
+        if (now >= nextReplanMs) {
+            nextReplanMs = now + REPLAN_MS;    // a failing replan must not be retried every tick
+            try {
+                replan(now);
+            } catch (Throwable t) {
+                t.printStackTrace();           // keep the previous intervals and poll anyway
+            }
+        }
+        try {
+            // (urgent, device) -> due points; "1…" sorts first in reverse order, so urgent groups are read first
+            var groups = new TreeMap<String, List<PointState>>(Comparator.reverseOrder());
+            while (!due.isEmpty() && due.peek().dueMs <= now) {
+                var s = due.poll();
+                if (s.removed) continue;
+                var key = (s.urgent ? "1" : "0") + deviceOf.apply(s.id);
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(s);
+            }
+            for (var ready : groups.values()) {
+                for (int from = 0; from < ready.size(); from += cfg.maxBatch()) {
+                    poll(ready.subList(from, Math.min(ready.size(), from + cfg.maxBatch())), now);
+                }
+            }
+        } catch (Throwable t) {
+            t.printStackTrace();   // never let the periodic task die
+        }
+    }
+
+    private void poll(List<PointState> chunk, long now) {
+        var ids = new ArrayList<String>(chunk.size());
+        boolean urgent = chunk.get(0).urgent;
+        long lag = 0;
+        for (var s : chunk) {
+            ids.add(s.id);
+            lag = Math.max(lag, now - s.dueMs);
+        }
+        var ev = new SchedulerTickEvent();
+        ev.begin();
+        Map<String, Value> batch = null;
+        try {
+            batch = reader.read(ids, urgent);
+        } catch (Exception e) {
+            errors.increment();
+            e.printStackTrace();
+        }
+        long done = nowMs();
+        for (var s : chunk) {
+            if (batch != null) observe(s, batch.get(s.id), done);
+            s.lastPolledMs = done;
+            s.dueMs = done + s.intervalMs;
+            due.add(s);
+        }
+        reads.add(ids.size());
+        batches.increment();
+        if (ev.shouldCommit()) {
+            ev.pointId = ids.get(0);
+            ev.pointCount = ids.size();
+            ev.lagMs = lag;
+            ev.intervalMs = chunk.get(0).intervalMs;
+            ev.commit();
+        }
+        if (batch != null) onBatch.accept(batch);
+    }
+
+    private static void observe(PointState s, Value v, long now) {
+        if (v == null) return;
+        double changed;
+        if (v.value() instanceof Number n) {
+            double x = n.doubleValue();
+            changed = Double.isNaN(s.lastNumber) ? Double.NaN : Math.abs(x - s.lastNumber) / s.deadband;
+            s.lastNumber = x;
+        } else {
+            changed = s.lastOther == null ? Double.NaN : (Objects.equals(s.lastOther, v.value()) ? 0 : 1);
+            s.lastOther = v.value();
+        }
+        long elapsed = now - s.lastPolledMs;
+        if (Double.isNaN(changed) || s.lastPolledMs < 0 || elapsed <= 0) return;
+        double rate = changed * 1000.0 / elapsed;
+        s.ewma = s.learned ? ALPHA * rate + (1 - ALPHA) * s.ewma : rate;
+        s.learned = true;
+    }
+
+    private void replan(long now) {
+        int n = points.size();
+        if (n == 0) {
+            stats = new Stats(0, 0, 0, cfg.budgetReadsPerSecond(), 0, 0, 0, reads.sum(), batches.sum(), errors.sum());
+            return;
+        }
+        double min = cfg.minInterval().toMillis();
+        double max = cfg.maxInterval().toMillis();
+        double interest = cfg.interestInterval().toMillis();
+        var states = points.values().toArray(new PointState[0]);
+        var rates = new double[states.length];   // desired reads per second
+        double sum = 0;
+        int interested = 0;
+        for (int i = 0; i < states.length; i++) {
+            var s = states[i];
+            double iv = !s.learned ? min : s.ewma > 0 ? 1000.0 / s.ewma : max;
+            iv = Math.max(min, Math.min(max, iv));
+            if (s.interestUntilMs > now || watchers.containsKey(s.id)) {
+                interested++;
+                iv = Math.min(iv, interest);
+            }
+            double p = alarmProximity.applyAsDouble(s.id);
+            s.urgent = p > 0;
+            if (p > 0) iv -= (iv - min) * Math.min(p, 1);
+            rates[i] = 1000.0 / iv;
+            sum += rates[i];
+        }
+
+        double budget = cfg.budgetReadsPerSecond();
+        if (budget > 0 && sum > budget) {
+            double floor = 1000.0 / max;
+            double spare = budget - floor * states.length;
+            double scale = spare > 0 ? spare / (sum - floor * states.length) : 0;
+            sum = 0;
+            for (int i = 0; i < rates.length; i++) {
+                rates[i] = floor + (rates[i] - floor) * scale;
+                sum += rates[i];
+            }
+        }
+
+        boolean sooner = false;
+        var intervals = new long[states.length];
+        for (int i = 0; i < states.length; i++) {
+            var s = states[i];
+            long iv = Math.round(1000.0 / rates[i]);
+            intervals[i] = iv;
+            s.intervalMs = iv;
+            if (s.lastPolledMs >= 0 && s.lastPolledMs + iv < s.dueMs) {
+                s.dueMs = s.lastPolledMs + iv;
+                sooner = true;
+            }
+        }
+        if (sooner) {   // some points became urgent; restore heap order, at most once per replan
+            var all = new ArrayList<>(due);
+            due.clear();
+            due.addAll(all);
+        }
+        Arrays.sort(intervals);
+        stats = new Stats(n, interested, sum, budget, intervals[0], intervals[intervals.length / 2],
+                intervals[intervals.length - 1], reads.sum(), batches.sum(), errors.sum());
+    }
+}
@@ -0,0 +1,16 @@
+package org.metrolink.bas.core.scheduler;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * One planned read: points of a single device (null = unplanned/mixed), polled every {@code interval} starting
+ * {@code phase} into the cycle.
+ */
+public record PollBatch(String deviceId, List<String> pointIds, Duration interval, Duration phase) {
+
+    public PollBatch {
+        pointIds = List.copyOf(pointIds);
+        if (phase == null) phase = Duration.ZERO;
+    }
+}
@@ -0,0 +1,90 @@
+package org.metrolink.bas.core.scheduler;
+
+import org.metrolink.bas.core.model.Node;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Turns the registry's points and their interval requirements into per-device {@link PollBatch}es.
+ * <p>
+ * Points are grouped by (interval, device) and cut into batches of at most {@code maxBatch}. Within each interval
+ * lane, batches are ordered by a hash of device id and batch index and then spaced evenly across the interval, so
+ * ticks never line up on one instant and the order stays stable when unrelated devices come and go. Lanes of
+ * different intervals are offset against each other within one slot gap.
+ */
+public final class PollPlanner {
+    /** Node meta key that overrides the default interval for one point (milliseconds). */
+    public static final String INTERVAL_META = "pollIntervalMs";
+
+    private final int maxBatch;
+    private final Function<Node, Duration> intervalOf;
+
+    public PollPlanner(int maxBatch, Function<Node, Duration> intervalOf) {
+        if (maxBatch <= 0) throw new IllegalArgumentException("maxBatch must be > 0");
+        this.maxBatch = maxBatch;
+        this.intervalOf = intervalOf;
+    }
+
+    /** Default requirement: the node's {@value #INTERVAL_META} meta, else {@code fallback}. */
+    public static Function<Node, Duration> metaOr(Duration fallback) {
+        return n -> n.meta() != null && n.meta().get(INTERVAL_META) instanceof Number ms && ms.longValue() > 0
+                ? Duration.ofMillis(ms.longValue())
+                : fallback;
+    }
+
+    public List<PollBatch> plan(Collection<Node> nodes) {
+        // interval -> device -> point ids (sorted for stable batch boundaries)
+        var lanes = new TreeMap<Duration, Map<String, List<String>>>();
+        for (var n : nodes) {
+            var interval = intervalOf.apply(n);
+            if (interval == null || interval.isZero() || interval.isNegative()) continue;
+            lanes.computeIfAbsent(interval, k -> new TreeMap<>())
+                    .computeIfAbsent(n.deviceId(), k -> new ArrayList<>())
+                    .add(n.id());
+        }
+
+        var out = new ArrayList<PollBatch>();
+        int laneIndex = 0;
+        for (var lane : lanes.entrySet()) {
+            var interval = lane.getKey();
+            var slots = new ArrayList<Slot>();
+            for (var dev : lane.getValue().entrySet()) {
+                var ids = dev.getValue();
+                ids.sort(null);
+                for (int from = 0, i = 0; from < ids.size(); from += maxBatch, i++) {
+                    var chunk = ids.subList(from, Math.min(ids.size(), from + maxBatch));
+                    slots.add(new Slot(mix(dev.getKey(), i), dev.getKey(), chunk));
+                }
+            }
+            slots.sort(Comparator.comparingLong(Slot::hash));
+            long periodNanos = interval.toNanos();
+            long gap = periodNanos / slots.size();
+            // lanes are shifted by a fraction of their slot gap so fast and slow lanes do not coincide either
+            long shift = gap * laneIndex++ / lanes.size();
+            for (int i = 0; i < slots.size(); i++) {
+                var s = slots.get(i);
+                var phase = Duration.ofNanos(periodNanos * i / slots.size() + shift);
+                out.add(new PollBatch(s.deviceId, s.ids, interval, phase));
+            }
+        }
+        return out;
+    }
+
+    private record Slot(long hash, String deviceId, List<String> ids) {
+    }
+
+    // 64-bit finalizer (splitmix) over the device id and batch index
+    private static long mix(String deviceId, int index) {
+        long z = (deviceId == null ? 0 : deviceId.hashCode()) * 0x9E3779B97F4A7C15L + index;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
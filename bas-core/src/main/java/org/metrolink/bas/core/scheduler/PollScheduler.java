@@ -2,11 +2,16 @@ package org.metrolink.bas.core.scheduler;
 
 import org.metrolink.bas.core.model.Value;
 import org.metrolink.bas.core.ports.ReaderPort;
+import org.metrolink.bas.core.time.Clock;
+import org.metrolink.bas.core.trace.SchedulerTickEvent;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -14,41 +19,103 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public final class PollScheduler implements AutoCloseable {
-    private final ScheduledExecutorService ses =
-            Executors.newSingleThreadScheduledExecutor(r -> {
-                var t = new Thread(r, "poll-scheduler");
-                t.setDaemon(true);
-                return t;
-            });
-    private ScheduledFuture<?> task;
+    private final Clock clock;
+    private final ScheduledExecutorService ses;
+    private final boolean ownsExecutor;
+    private final Set<ScheduledFuture<?>> tasks = ConcurrentHashMap.newKeySet();
+    private volatile long lastLagMs;   // how late the most recent batch fired; the executor is single-threaded
+
+    public PollScheduler() {
+        this(Clock.SYSTEM, Executors.newSingleThreadScheduledExecutor(r -> {
+            var t = new Thread(r, "poll-scheduler");
+            t.setDaemon(true);
+            return t;
+        }), true);
+    }
+
+    /**
+     * Runs on {@code ses} and stamps lag with {@code clock}, e.g. a {@code VirtualScheduler} and its clock. The
+     * executor stays the caller's: {@link #close()} only cancels this scheduler's batches.
+     */
+    public PollScheduler(Clock clock, ScheduledExecutorService ses) {
+        this(clock, ses, false);
+    }
+
+    private PollScheduler(Clock clock, ScheduledExecutorService ses, boolean ownsExecutor) {
+        this.clock = Objects.requireNonNull(clock);
+        this.ses = Objects.requireNonNull(ses);
+        this.ownsExecutor = ownsExecutor;
+    }
 
     public AutoCloseable start(ReaderPort reader,
                                List<String> pointIds,
                                Duration interval,
                                Consumer<Map<String, Value>> onBatch) {
+        return start(reader, new PollBatch(null, pointIds, interval, Duration.ZERO), onBatch);
+    }
+
+    /** Schedules one batch at its interval, first firing {@code batch.phase()} from now. Returns its own handle. */
+    public AutoCloseable start(ReaderPort reader,
+                               PollBatch batch,
+                               Consumer<Map<String, Value>> onBatch) {
         Objects.requireNonNull(reader);
-        Objects.requireNonNull(pointIds);
-        Objects.requireNonNull(interval);
+        Objects.requireNonNull(batch);
         Objects.requireNonNull(onBatch);
 
-        task = ses.scheduleAtFixedRate(() -> {
+        var pointIds = batch.pointIds();
+        long periodMs = batch.interval().toMillis();
+        long delayMs = batch.phase().toMillis();
+        var nextSlot = new long[]{clock.currentTimeMillis() + delayMs};
+        ScheduledFuture<?> task = ses.scheduleAtFixedRate(() -> {
+            var ev = new SchedulerTickEvent();
+            long lagMs = clock.currentTimeMillis() - nextSlot[0];
+            nextSlot[0] += periodMs;
+            lastLagMs = Math.max(0, lagMs);
+            ev.begin();
             try {
                 onBatch.accept(reader.read(pointIds));
             } catch (Exception e) {
                 e.printStackTrace();
             }
-        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+            if (ev.shouldCommit()) {
+                ev.deviceId = batch.deviceId();
+                ev.pointId = pointIds.isEmpty() ? null : pointIds.get(0);
+                ev.pointCount = pointIds.size();
+                ev.lagMs = Math.max(0, lagMs);
+                ev.intervalMs = periodMs;
+                ev.commit();
+            }
+        }, delayMs, periodMs, TimeUnit.MILLISECONDS);
+        tasks.add(task);
+
+        return () -> {
+            task.cancel(true);
+            tasks.remove(task);
+        };
+    }
+
+    /** Schedules every planned batch; the handle cancels them all. */
+    public AutoCloseable startAll(ReaderPort reader,
+                                  Collection<PollBatch> batches,
+                                  Consumer<Map<String, Value>> onBatch) {
+        var handles = batches.stream().map(b -> start(reader, b, onBatch)).toList();
+        return () -> {
+            for (var h : handles) h.close();
+        };
+    }
 
-        return this::stop;
+    public long lastLagMs() {
+        return lastLagMs;
     }
 
     private void stop() {
-        if (task != null) task.cancel(true);
+        for (var t : tasks) t.cancel(true);
+        tasks.clear();
     }
 
     @Override
     public void close() {
         stop();
-        ses.shutdownNow();
+        if (ownsExecutor) ses.shutdownNow();
     }
 }
@@ -0,0 +1,8 @@
+package org.metrolink.bas.core.spi;
+
+/**
+ * Optional plugin capability (marker): a running instance holds a resource a second instance cannot share, e.g. a
+ * fixed UDP port. A hot reload then stops the old instance before starting the new one instead of overlapping them.
+ */
+public interface ExclusiveTransport {
+}
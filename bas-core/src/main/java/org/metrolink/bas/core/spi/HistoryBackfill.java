@@ -0,0 +1,18 @@
+package org.metrolink.bas.core.spi;
+
+import org.metrolink.bas.core.model.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional plugin capability: recover samples the edge missed (e.g. while it was down) from history the devices keep
+ * themselves, such as BACnet TrendLogs, instead of catching up by polling.
+ */
+public interface HistoryBackfill {
+    /**
+     * Device-held samples for each point with {@code fromByPoint[id] <= ts < toMs}, in any order. Points without
+     * device-side history are simply absent from the result.
+     */
+    List<Value> backfill(Map<String, Long> fromByPoint, long toMs) throws Exception;
+}
@@ -0,0 +1,13 @@
+package org.metrolink.bas.core.spi;
+
+import org.metrolink.bas.core.model.Node;
+
+import java.util.Collection;
+
+/**
+ * Optional plugin capability: accept the node set registered against the previous instance during a hot reload,
+ * so the new instance can warm caches/bindings instead of rediscovering.
+ */
+public interface NodeHandoff {
+    void adoptNodes(Collection<Node> nodes);
+}
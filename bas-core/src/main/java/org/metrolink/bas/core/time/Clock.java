@@ -0,0 +1,28 @@
+package org.metrolink.bas.core.time;
+
+/**
+ * Time source for components that must also run on {@link VirtualClock} time (soak runs, replays).
+ */
+public interface Clock {
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    long currentTimeMillis();
+
+    /** Monotonic, for measuring intervals only (as {@link System#nanoTime()}). */
+    long nanoTime();
+
+    /** Lets {@code ms} of this clock's time pass: the system clock blocks, a {@link VirtualClock} moves forward. */
+    default void sleep(long ms) throws InterruptedException {
+        if (ms > 0) Thread.sleep(ms);
+    }
+}
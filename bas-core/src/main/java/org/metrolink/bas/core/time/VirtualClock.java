@@ -0,0 +1,37 @@
+package org.metrolink.bas.core.time;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock that only moves when told to; normally advanced by a {@link VirtualScheduler}.
+ */
+public final class VirtualClock implements Clock {
+    private final AtomicLong nowMs;
+    private final long originMs;
+
+    public VirtualClock(long startEpochMs) {
+        this.nowMs = new AtomicLong(startEpochMs);
+        this.originMs = startEpochMs;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return nowMs.get();
+    }
+
+    @Override
+    public long nanoTime() {
+        return (nowMs.get() - originMs) * 1_000_000L;
+    }
+
+    /** Advances by {@code ms} without blocking, so injected delays cost virtual time only. */
+    @Override
+    public void sleep(long ms) {
+        if (ms > 0) nowMs.addAndGet(ms);
+    }
+
+    /** Moves to {@code epochMs}; time never goes backwards. */
+    public void set(long epochMs) {
+        nowMs.accumulateAndGet(epochMs, Math::max);
+    }
+}
@@ -0,0 +1,199 @@
+package org.metrolink.bas.core.time;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ScheduledExecutorService} on {@link VirtualClock} time, for running days of scheduled work in seconds.
+ * <p>
+ * Nothing runs on its own: {@link #advanceBy}/{@link #advanceTo} run every task that falls due, in time order (ties
+ * in submission order), on the calling thread, setting the clock to each task's due time first. Fixed-rate tasks
+ * fire once per period however long they take, so a slow task shows up as work per virtual second rather than as
+ * drift. Tasks may schedule more tasks, including ones due before the target, which run in the same call.
+ */
+public final class VirtualScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private final class Task<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        private final long seq = sequence.getAndIncrement();
+        private final long periodMs;      // > 0 fixed rate, < 0 fixed delay, 0 one-shot
+        private long dueMs;
+
+        Task(Callable<V> c, long dueMs) {
+            super(c);
+            this.dueMs = dueMs;
+            this.periodMs = 0;
+        }
+
+        Task(Runnable r, long dueMs, long periodMs) {
+            super(r, null);
+            this.dueMs = dueMs;
+            this.periodMs = periodMs;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return periodMs != 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueMs - clock.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            if (o instanceof VirtualScheduler.Task<?> t) {
+                int c = Long.compare(dueMs, t.dueMs);
+                return c != 0 ? c : Long.compare(seq, t.seq);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (runAndReset()) {
+                dueMs = periodMs > 0 ? dueMs + periodMs : clock.currentTimeMillis() - periodMs;
+                enqueue(this);
+            }
+        }
+    }
+
+    private final VirtualClock clock;
+    private final AtomicLong sequence = new AtomicLong();
+    private final PriorityQueue<Task<?>> queue = new PriorityQueue<>();   // guarded by itself
+    private final AtomicLong executed = new AtomicLong();
+    private volatile boolean shutdown;
+
+    public VirtualScheduler(VirtualClock clock) {
+        this.clock = clock;
+    }
+
+    public VirtualClock clock() {
+        return clock;
+    }
+
+    /** Runs everything due up to {@code now + d}; returns the number of task runs. */
+    public long advanceBy(Duration d) {
+        return advanceTo(clock.currentTimeMillis() + d.toMillis());
+    }
+
+    /** Runs everything due up to {@code epochMs} and leaves the clock there; returns the number of task runs. */
+    public long advanceTo(long epochMs) {
+        long runs = 0;
+        while (true) {
+            Task<?> next;
+            synchronized (queue) {
+                next = queue.peek();
+                if (next == null || next.dueMs > epochMs) break;
+                queue.poll();
+            }
+            if (next.isCancelled()) continue;
+            clock.set(next.dueMs);
+            next.run();
+            runs++;
+        }
+        clock.set(epochMs);
+        executed.addAndGet(runs);
+        return runs;
+    }
+
+    /** Tasks waiting, including cancelled ones not yet reached. */
+    public int pending() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    public long executed() {
+        return executed.get();
+    }
+
+    // ---- ScheduledExecutorService ----
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return enqueue(new Task<>(Executors.callable(command), due(delay, unit)));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return enqueue(new Task<>(callable, due(delay, unit)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) throw new IllegalArgumentException("period must be > 0");
+        return enqueue(new Task<>(command, due(initialDelay, unit), Math.max(1, unit.toMillis(period))));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (delay <= 0) throw new IllegalArgumentException("delay must be > 0");
+        return enqueue(new Task<>(command, due(initialDelay, unit), -Math.max(1, unit.toMillis(delay))));
+    }
+
+    /** Runs at the current virtual time, i.e. on the next advance. */
+    @Override
+    public void execute(Runnable command) {
+        schedule(command, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        synchronized (queue) {
+            var out = new ArrayList<Runnable>(queue);
+            queue.clear();
+            return out;
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && pending() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return isTerminated();
+    }
+
+    private long due(long delay, TimeUnit unit) {
+        return clock.currentTimeMillis() + Math.max(0, unit.toMillis(delay));
+    }
+
+    private <V> Task<V> enqueue(Task<V> t) {
+        if (shutdown) {
+            t.cancel(false);
+            return t;
+        }
+        synchronized (queue) {
+            queue.add(t);
+        }
+        return t;
+    }
+}
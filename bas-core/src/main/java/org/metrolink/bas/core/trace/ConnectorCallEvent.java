@@ -0,0 +1,31 @@
+package org.metrolink.bas.core.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.metrolink.bas.ConnectorCall")
+@Label("Connector Call")
+@Category({"Metrolink", "Connector"})
+@Description("One call from the Kernel into a connector port")
+@StackTrace(false)
+public final class ConnectorCallEvent extends Event {
+    @Label("Operation")
+    public String op;
+
+    @Label("Device")
+    public String deviceId;
+
+    @Label("Point")
+    @Description("First point of the call; see pointCount for batches")
+    public String pointId;
+
+    @Label("Point Count")
+    public int pointCount;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,19 @@
+package org.metrolink.bas.core.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.metrolink.bas.HistorianAppend")
+@Label("Historian Append")
+@Category({"Metrolink", "Historian"})
+@StackTrace(false)
+public final class HistorianAppendEvent extends Event {
+    @Label("Point")
+    public String pointId;
+
+    @Label("Sample Time")
+    public long tsEpochMs;
+}
@@ -0,0 +1,34 @@
+package org.metrolink.bas.core.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("org.metrolink.bas.SchedulerTick")
+@Label("Scheduler Tick")
+@Category({"Metrolink", "Scheduler"})
+@Description("One poll group tick: read plus batch hand-off")
+@StackTrace(false)
+public final class SchedulerTickEvent extends Event {
+    @Label("Device")
+    public String deviceId;
+
+    @Label("Point")
+    public String pointId;
+
+    @Label("Point Count")
+    public int pointCount;
+
+    @Label("Lag")
+    @Description("How late the tick started versus its fixed-rate slot (time queued behind earlier work)")
+    @Timespan(Timespan.MILLISECONDS)
+    public long lagMs;
+
+    @Label("Interval")
+    @Timespan(Timespan.MILLISECONDS)
+    public long intervalMs;
+}
@@ -0,0 +1,27 @@
+package org.metrolink.bas.core.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("org.metrolink.bas.SubscriptionDelivery")
+@Label("Subscription Delivery")
+@Category({"Metrolink", "Connector"})
+@Description("Delivery of one COV value to a Kernel subscriber; duration is the subscriber's onNext")
+@StackTrace(false)
+public final class SubscriptionDeliveryEvent extends Event {
+    @Label("Device")
+    public String deviceId;
+
+    @Label("Point")
+    public String pointId;
+
+    @Label("Queue Wait")
+    @Description("Sample timestamp to delivery start")
+    @Timespan(Timespan.MILLISECONDS)
+    public long waitMs;
+}
@@ -6,15 +6,24 @@ import com.serotonin.bacnet4j.event.DeviceEventAdapter;
 import com.serotonin.bacnet4j.npdu.ip.IpNetwork;
 import com.serotonin.bacnet4j.npdu.ip.IpNetworkBuilder;
 import com.serotonin.bacnet4j.npdu.ip.IpNetworkUtils;
+import com.serotonin.bacnet4j.service.acknowledgement.AcknowledgementService;
+import com.serotonin.bacnet4j.service.confirmed.ConfirmedRequestService;
 import com.serotonin.bacnet4j.service.unconfirmed.WhoIsRequest;
 import com.serotonin.bacnet4j.transport.DefaultTransport;
+import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
 import org.metrolink.bas.core.model.Device;
 import org.metrolink.bas.core.model.HealthStatus;
 import org.metrolink.bas.core.model.Point;
+import org.metrolink.bas.core.model.Value;
 import org.metrolink.bas.core.ports.*;
+import org.metrolink.bas.core.model.Node;
 import org.metrolink.bas.core.spi.ConnectorPlugin;
+import org.metrolink.bas.core.spi.ExclusiveTransport;
+import org.metrolink.bas.core.spi.HistoryBackfill;
+import org.metrolink.bas.core.spi.NodeHandoff;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -22,7 +31,12 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 
-public final class BacnetConnector implements ConnectorPlugin {
+/**
+ * BACnet/IP connector. One instance owns the UDP port, so hot reloads stop the old instance first
+ * ({@link ExclusiveTransport}); the devices registered against it are handed over ({@link NodeHandoff}) and
+ * re-learned with a single Who-Is bounded to their instance range rather than a full rediscovery.
+ */
+public final class BacnetConnector implements ConnectorPlugin, HistoryBackfill, NodeHandoff, ExclusiveTransport {
 
     private static final org.slf4j.Logger LOG =
             org.slf4j.LoggerFactory.getLogger(BacnetConnector.class);
@@ -41,9 +55,16 @@ public final class BacnetConnector implements ConnectorPlugin {
     private boolean bbmdEnabled = false;     // reserved
     private double defaultCovIncrement = 0.1;// reserved
 
+    // per-network admission (MS/TP trunks behind routers); see NetworkThrottle
+    private NetworkThrottle.Config throttleCfg = NetworkThrottle.Config.defaults();
+    private int backfillParallelism = 4;     // devices read concurrently during a TrendLog backfill
+    private int backfillPageSize = 100;      // log records per ReadRange
+
     // ---- runtime ----
     private volatile LocalDevice localDevice;
     private volatile DefaultTransport transport;
+    private volatile NetworkThrottle throttle = new NetworkThrottle(throttleCfg);
+    private volatile TrendLogBackfill trendLogs;
     private volatile boolean initialized = false;
 
     @Override
@@ -68,6 +89,20 @@ public final class BacnetConnector implements ConnectorPlugin {
 
         this.bbmdEnabled = getBool("bbmdEnabled", false);
         this.defaultCovIncrement = getDouble("defaultCovIncrement", 0.1);
+
+        var d = NetworkThrottle.Config.defaults();
+        this.throttleCfg = new NetworkThrottle.Config(
+                getDouble("localRequestsPerSec", d.localMaxRatePerSec()),
+                getDouble("networkRequestsPerSec", d.remoteMaxRatePerSec()),
+                getDouble("networkMinRequestsPerSec", d.minRatePerSec()),
+                d.rateStep(),
+                getInt("networkBurst", d.burst()),
+                d.initialWindow(),
+                getInt("networkMaxInFlight", d.maxWindow()),
+                d.rttInflation(),
+                getInt("networkMaxQueueMs", (int) d.maxQueueMs()));
+        this.backfillParallelism = getInt("backfillParallelism", 4);
+        this.backfillPageSize = getInt("backfillPageSize", 100);
     }
 
     @Override
@@ -98,13 +133,20 @@ public final class BacnetConnector implements ConnectorPlugin {
         LocalDevice ld = new LocalDevice(deviceInstance, tx);
         ld.initialize();
 
-        // (Keep a global log-only listener so we can see I-Am chatter at startup)
+        // Global listener: log I-Am chatter and learn which network (and router) each device sits behind
+        NetworkThrottle th = new NetworkThrottle(throttleCfg);
         ld.getEventHandler().addListener(new DeviceEventAdapter() {
             @Override public void iAmReceived(RemoteDevice d) {
                 LOG.info("I-Am received: instance={} addr={}", d.getInstanceNumber(), d.getAddress());
+                int network = d.getAddress().getNetworkNumber();
+                var router = network != NetworkThrottle.LOCAL_NETWORK ? tx.getNetworkRouters().get(network) : null;
+                th.learn(d.getInstanceNumber(), network, router != null ? String.valueOf(router) : null);
             }
         });
 
+        this.throttle = th;
+        this.trendLogs = new TrendLogBackfill(this, backfillParallelism, backfillPageSize);
+
         this.transport = tx;
         this.localDevice = ld;
         this.initialized = true;
@@ -124,6 +166,58 @@ public final class BacnetConnector implements ConnectorPlugin {
         }
     }
 
+    /**
+     * The only path for confirmed requests: waits for the device's network to admit it, so a burst aimed at an
+     * MS/TP trunk queues here instead of in the router.
+     */
+    @SuppressWarnings("unchecked")
+    <T extends AcknowledgementService> T request(RemoteDevice rd, ConfirmedRequestService service) throws Exception {
+        LocalDevice ld = this.localDevice;
+        if (!(initialized && ld != null)) {
+            throw new IllegalStateException("BACnet LocalDevice not initialized");
+        }
+        return throttle.call(rd.getInstanceNumber(), () -> (T) ld.send(rd, service).get());
+    }
+
+    /** Pulls the missed range from the TrendLogs that record each point; see {@link TrendLogBackfill}. */
+    @Override
+    public List<Value> backfill(Map<String, Long> fromByPoint, long toMs) throws Exception {
+        LocalDevice ld = this.localDevice;
+        TrendLogBackfill tl = this.trendLogs;
+        if (!(initialized && ld != null && tl != null)) {
+            throw new IllegalStateException("BACnet LocalDevice not initialized");
+        }
+        return tl.backfill(ld, fromByPoint, toMs);
+    }
+
+    /**
+     * Learns the handed-over devices (ids {@code device:<instance>}) back into the LocalDevice cache and the network
+     * throttle: one Who-Is limited to their instance range, answered by I-Am like any other.
+     */
+    @Override
+    public void adoptNodes(Collection<Node> nodes) {
+        LocalDevice ld = this.localDevice;
+        if (!(initialized && ld != null)) return;
+        int low = Integer.MAX_VALUE, high = -1;
+        for (var n : nodes) {
+            var dev = n.deviceId();
+            if (dev == null || !dev.startsWith("device:")) continue;
+            try {
+                int instance = Integer.parseInt(dev.substring("device:".length()));
+                low = Math.min(low, instance);
+                high = Math.max(high, instance);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        if (high < 0) return;
+        try {
+            ld.sendGlobalBroadcast(new WhoIsRequest(new UnsignedInteger(low), new UnsignedInteger(high)));
+            LOG.info("Adopted devices {}..{} from the previous instance", low, high);
+        } catch (Exception e) {
+            LOG.warn("Who-Is for adopted devices failed: {}", e.toString());
+        }
+    }
+
     // -------- Ports --------
 
     @Override
@@ -247,6 +341,9 @@ public final class BacnetConnector implements ConnectorPlugin {
             m.put("bbmdEnabled", bbmdEnabled);
             m.put("covIncrement", defaultCovIncrement);
             m.put("cfgKeys", String.join(",", cfg.keySet()));
+            m.put("networks", throttle.stats());
+            var tl = trendLogs;
+            if (tl != null) m.put("backfill", tl.stats());
 
             boolean up = initialized && localDevice != null;
             m.put("localDevice", up ? "initialized" : "not-initialized");
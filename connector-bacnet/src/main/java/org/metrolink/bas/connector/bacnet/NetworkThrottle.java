@@ -0,0 +1,204 @@
+package org.metrolink.bas.connector.bacnet;
+
+import com.serotonin.bacnet4j.exception.BACnetTimeoutException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for confirmed requests, per BACnet network number.
+ * <p>
+ * Devices behind a router share one segment: an MS/TP trunk at 38.4 kbps with token passing carries a few dozen small
+ * APDUs per second, and requests beyond that only queue in the router until they time out and get retried. Each
+ * network therefore has
+ * <ul>
+ *   <li>a token bucket — requests per second, at most {@code burst} back to back</li>
+ *   <li>a window — requests in flight at once</li>
+ * </ul>
+ * Both adapt AIMD-style: every acknowledged request grows the window by {@code 1/window} and the rate by
+ * {@code rateStep/window} (about one step per window's worth of acks); a timeout, or a round trip beyond
+ * {@code rttInflation ×} the smallest one seen (the router queue is filling), halves both. Decreases happen at most
+ * once per smoothed RTT so one congestion event is not punished once per outstanding request. The local network
+ * (number 0, BACnet/IP) gets its own, much higher, ceiling.
+ */
+public final class NetworkThrottle {
+    public static final int LOCAL_NETWORK = 0;
+
+    public record Config(double localMaxRatePerSec, double remoteMaxRatePerSec, double minRatePerSec, double rateStep,
+                         int burst, int initialWindow, int maxWindow, double rttInflation, long maxQueueMs) {
+        public static Config defaults() {
+            return new Config(500, 40, 2, 1, 4, 2, 8, 3.0, 10_000);
+        }
+    }
+
+    public record NetworkStats(int network, String router, int devices, double ratePerSec, double window,
+                               int inFlight, int waiting, double srttMs, double minRttMs,
+                               long acked, long timeouts, long decreases, long rejected) {
+    }
+
+    private final class Net {
+        final int number;
+        final double maxRate;
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition changed = lock.newCondition();
+        volatile String router;
+        double rate;
+        double window;
+        double tokens;
+        long refilledNanos = System.nanoTime();
+        int inFlight;
+        int waiting;
+        double srttNanos;
+        long minRttNanos = Long.MAX_VALUE;
+        long lastDecreaseNanos;
+        long acked, timeouts, decreases, rejected;
+
+        Net(int number, double maxRate) {
+            this.number = number;
+            this.maxRate = maxRate;
+            this.rate = maxRate;
+            this.window = cfg.initialWindow();
+            this.tokens = cfg.burst();
+        }
+
+        void refill(long now) {
+            tokens = Math.min(cfg.burst(), tokens + (now - refilledNanos) / 1e9 * rate);
+            refilledNanos = now;
+        }
+
+        void onAck(long rttNanos) {
+            acked++;
+            minRttNanos = Math.min(minRttNanos, rttNanos);
+            srttNanos = srttNanos == 0 ? rttNanos : 0.875 * srttNanos + 0.125 * rttNanos;
+            if (rttNanos > cfg.rttInflation() * minRttNanos) {
+                decrease(System.nanoTime());
+            } else {
+                window = Math.min(cfg.maxWindow(), window + 1 / window);
+                rate = Math.min(maxRate, rate + cfg.rateStep() / window);
+            }
+        }
+
+        void onTimeout() {
+            timeouts++;
+            decrease(System.nanoTime());
+        }
+
+        private void decrease(long now) {
+            if (now - lastDecreaseNanos < Math.max(srttNanos, 1e6)) return;
+            lastDecreaseNanos = now;
+            decreases++;
+            window = Math.max(1, window / 2);
+            rate = Math.max(cfg.minRatePerSec(), rate / 2);
+            tokens = Math.min(tokens, 1);
+        }
+    }
+
+    private final Config cfg;
+    private final Map<Integer, Net> networks = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> networkOfDevice = new ConcurrentHashMap<>();
+
+    public NetworkThrottle(Config cfg) {
+        this.cfg = cfg;
+    }
+
+    /** Records where a device lives (from its I-Am); {@code router} may be null when not known (yet). */
+    public void learn(int deviceInstance, int network, String router) {
+        networkOfDevice.put(deviceInstance, network);
+        var net = net(network);
+        if (router != null) net.router = router;
+    }
+
+    /** Runs one confirmed request for {@code deviceInstance} once its network admits it (unknown devices: local). */
+    public <T> T call(int deviceInstance, Callable<T> request) throws Exception {
+        var net = net(networkOfDevice.getOrDefault(deviceInstance, LOCAL_NETWORK));
+        acquire(net);
+        long t0 = System.nanoTime();
+        boolean timedOut = false;
+        try {
+            return request.call();
+        } catch (Exception e) {
+            timedOut = isTimeout(e);
+            throw e;
+        } finally {
+            long rtt = System.nanoTime() - t0;
+            net.lock.lock();
+            try {
+                net.inFlight--;
+                if (timedOut) net.onTimeout();
+                else net.onAck(rtt);       // an error reply is still a round trip
+                net.changed.signalAll();
+            } finally {
+                net.lock.unlock();
+            }
+        }
+    }
+
+    public List<NetworkStats> stats() {
+        var out = new ArrayList<NetworkStats>();
+        var devices = new HashMap<Integer, Integer>();
+        networkOfDevice.values().forEach(n -> devices.merge(n, 1, Integer::sum));
+        for (var net : networks.values()) {
+            net.lock.lock();
+            try {
+                out.add(new NetworkStats(net.number, net.router, devices.getOrDefault(net.number, 0), net.rate,
+                        net.window, net.inFlight, net.waiting, net.srttNanos / 1e6,
+                        net.minRttNanos == Long.MAX_VALUE ? 0 : net.minRttNanos / 1e6,
+                        net.acked, net.timeouts, net.decreases, net.rejected));
+            } finally {
+                net.lock.unlock();
+            }
+        }
+        out.sort(Comparator.comparingInt(NetworkStats::network));
+        return out;
+    }
+
+    private Net net(int network) {
+        return networks.computeIfAbsent(network,
+                n -> new Net(n, n == LOCAL_NETWORK ? cfg.localMaxRatePerSec() : cfg.remoteMaxRatePerSec()));
+    }
+
+    private void acquire(Net net) throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cfg.maxQueueMs());
+        net.lock.lock();
+        net.waiting++;
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                net.refill(now);
+                if (net.inFlight < (int) net.window && net.tokens >= 1) {
+                    net.tokens -= 1;
+                    net.inFlight++;
+                    return;
+                }
+                long left = deadline - now;
+                if (left <= 0) {
+                    net.rejected++;
+                    throw new TimeoutException("BACnet network " + net.number + " saturated: " + net.inFlight
+                            + " in flight, " + net.waiting + " waiting");
+                }
+                // a completion signals; otherwise wake when the next token is due
+                long untilToken = net.tokens >= 1 ? left : (long) ((1 - net.tokens) / net.rate * 1e9) + 1;
+                net.changed.awaitNanos(Math.min(left, untilToken));
+            }
+        } finally {
+            net.waiting--;
+            net.lock.unlock();
+        }
+    }
+
+    private static boolean isTimeout(Throwable t) {
+        for (; t != null; t = t.getCause()) {
+            if (t instanceof BACnetTimeoutException || t instanceof TimeoutException) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,197 @@
+package org.metrolink.bas.connector.bacnet;
+
+import com.serotonin.bacnet4j.LocalDevice;
+import com.serotonin.bacnet4j.RemoteDevice;
+import com.serotonin.bacnet4j.service.acknowledgement.AcknowledgementService;
+import com.serotonin.bacnet4j.service.acknowledgement.ReadPropertyAck;
+import com.serotonin.bacnet4j.service.acknowledgement.ReadRangeAck;
+import com.serotonin.bacnet4j.service.confirmed.ConfirmedRequestService;
+import com.serotonin.bacnet4j.service.confirmed.ReadPropertyRequest;
+import com.serotonin.bacnet4j.service.confirmed.ReadRangeRequest;
+import com.serotonin.bacnet4j.type.Encodable;
+import com.serotonin.bacnet4j.type.constructed.DateTime;
+import com.serotonin.bacnet4j.type.constructed.DeviceObjectPropertyReference;
+import com.serotonin.bacnet4j.type.constructed.LogRecord;
+import com.serotonin.bacnet4j.type.constructed.SequenceOf;
+import com.serotonin.bacnet4j.type.enumerated.ObjectType;
+import com.serotonin.bacnet4j.type.enumerated.PropertyIdentifier;
+import com.serotonin.bacnet4j.type.primitive.Enumerated;
+import com.serotonin.bacnet4j.type.primitive.ObjectIdentifier;
+import com.serotonin.bacnet4j.type.primitive.Real;
+import com.serotonin.bacnet4j.type.primitive.SignedInteger;
+import com.serotonin.bacnet4j.type.primitive.UnsignedInteger;
+import org.metrolink.bas.core.model.Value;
+
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Recovers missed samples from the TrendLog objects controllers keep themselves.
+ * <p>
+ * Point ids have the form {@code device:<instance>/<objectTypeId>:<objectInstance>} (e.g. {@code device:1001/0:3} for
+ * analog-input 3); others are ignored. Per device:
+ * <ol>
+ *   <li>object-list → TrendLog objects → each one's log-device-object-property, giving the object whose
+ *       present-value it records (cached per device until the connector restarts)</li>
+ *   <li>for every requested point with a TrendLog, {@code ReadRange} by time on log-buffer from the gap start,
+ *       {@code pageSize} records per request, continuing after the last timestamp until the gap end</li>
+ * </ol>
+ * Devices are worked on {@code parallelism} at a time, one request at a time within a device, and every request
+ * goes through the connector's per-network throttle, so a backfill shares trunks with live polling instead of
+ * flooding them. TrendLog timestamps carry no zone; they are read in the edge's default time zone.
+ */
+final class TrendLogBackfill {
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(TrendLogBackfill.class);
+    private static final Pattern POINT_ID = Pattern.compile("device:(\\d+)/(\\d+):(\\d+)");
+
+    private record Target(String pointId, ObjectIdentifier object, long fromMs) {
+    }
+
+    private final BacnetConnector connector;
+    private final int parallelism;
+    private final int pageSize;
+    // device instance → monitored object → TrendLog recording its present-value
+    private final Map<Integer, Map<ObjectIdentifier, ObjectIdentifier>> trendLogs = new ConcurrentHashMap<>();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failedDevices = new AtomicLong();
+
+    TrendLogBackfill(BacnetConnector connector, int parallelism, int pageSize) {
+        this.connector = connector;
+        this.parallelism = Math.max(1, parallelism);
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    List<Value> backfill(LocalDevice ld, Map<String, Long> fromByPoint, long toMs) throws Exception {
+        var byDevice = new LinkedHashMap<Integer, List<Target>>();
+        fromByPoint.forEach((id, from) -> {
+            var m = POINT_ID.matcher(id);
+            if (!m.matches() || from >= toMs) return;
+            var oid = new ObjectIdentifier(ObjectType.forId(Integer.parseInt(m.group(2))),
+                    Integer.parseInt(m.group(3)));
+            byDevice.computeIfAbsent(Integer.parseInt(m.group(1)), k -> new ArrayList<>())
+                    .add(new Target(id, oid, from));
+        });
+        if (byDevice.isEmpty()) return List.of();
+
+        var pool = Executors.newFixedThreadPool(Math.min(parallelism, byDevice.size()), r -> {
+            var t = new Thread(r, "bacnet-backfill");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            var futures = new LinkedHashMap<Integer, Future<List<Value>>>();
+            byDevice.forEach((device, targets) -> futures.put(device,
+                    pool.submit((Callable<List<Value>>) () -> device(ld, device, targets, toMs))));
+            var out = new ArrayList<Value>();
+            for (var e : futures.entrySet()) {
+                try {
+                    out.addAll(e.getValue().get());
+                } catch (ExecutionException ex) {
+                    failedDevices.incrementAndGet();
+                    LOG.warn("TrendLog backfill of device {} failed: {}", e.getKey(), ex.getCause().toString());
+                }
+            }
+            recovered.addAndGet(out.size());
+            return out;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    Map<String, Object> stats() {
+        var m = new LinkedHashMap<String, Object>();
+        m.put("recovered", recovered.get());
+        m.put("requests", requests.get());
+        m.put("failedDevices", failedDevices.get());
+        m.put("devicesMapped", trendLogs.size());
+        return m;
+    }
+
+    private List<Value> device(LocalDevice ld, int instance, List<Target> targets, long toMs) throws Exception {
+        RemoteDevice rd = ld.getRemoteDeviceBlocking(instance);
+        var logs = trendLogs.get(instance);
+        if (logs == null) {
+            logs = mapTrendLogs(rd);
+            trendLogs.put(instance, logs);
+        }
+        var out = new ArrayList<Value>();
+        for (var t : targets) {
+            var log = logs.get(t.object());
+            if (log != null) readRange(rd, log, t, toMs, out);
+        }
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<ObjectIdentifier, ObjectIdentifier> mapTrendLogs(RemoteDevice rd) throws Exception {
+        ReadPropertyAck list = request(rd, new ReadPropertyRequest(rd.getObjectIdentifier(),
+                PropertyIdentifier.objectList));
+        var out = new LinkedHashMap<ObjectIdentifier, ObjectIdentifier>();
+        for (var oid : (SequenceOf<ObjectIdentifier>) list.getValue()) {
+            if (!ObjectType.trendLog.equals(oid.getObjectType())) continue;
+            ReadPropertyAck ref = request(rd, new ReadPropertyRequest(oid, PropertyIdentifier.logDeviceObjectProperty));
+            if (!(ref.getValue() instanceof DeviceObjectPropertyReference r)) continue;
+            boolean local = r.getDeviceIdentifier() == null || r.getDeviceIdentifier().equals(rd.getObjectIdentifier());
+            if (local && PropertyIdentifier.presentValue.equals(r.getPropertyIdentifier())) {
+                out.putIfAbsent(r.getObjectIdentifier(), oid);
+            }
+        }
+        LOG.debug("device {}: {} TrendLogs on present-value", rd.getInstanceNumber(), out.size());
+        return out;
+    }
+
+    private void readRange(RemoteDevice rd, ObjectIdentifier log, Target t, long toMs, List<Value> out)
+            throws Exception {
+        // by-time returns records strictly after the reference time
+        long after = t.fromMs() - 1;
+        while (after < toMs - 1) {
+            ReadRangeAck ack = request(rd, new ReadRangeRequest(log, PropertyIdentifier.logBuffer, null,
+                    new ReadRangeRequest.ByTime(dateTime(after), new SignedInteger(pageSize))));
+            int items = 0;
+            long last = after;
+            for (Encodable e : ack.getItemData()) {
+                items++;
+                if (!(e instanceof LogRecord rec)) continue;
+                long ts = rec.getTimestamp().getGC().getTimeInMillis();
+                last = Math.max(last, ts);
+                var v = datum(rec.getDatum());
+                if (v != null && ts >= t.fromMs() && ts < toMs) out.add(new Value(t.pointId(), v, ts));
+            }
+            if (items < pageSize || last <= after) break;   // log exhausted, or no progress
+            after = last;
+        }
+    }
+
+    private <T extends AcknowledgementService> T request(RemoteDevice rd, ConfirmedRequestService service)
+            throws Exception {
+        requests.incrementAndGet();
+        return connector.request(rd, service);
+    }
+
+    private static DateTime dateTime(long epochMs) {
+        var gc = new GregorianCalendar();
+        gc.setTimeInMillis(epochMs);
+        return new DateTime(gc);
+    }
+
+    // status, failure and time-change records carry no sample
+    private static Object datum(Encodable d) {
+        if (d instanceof Real r) return (double) r.floatValue();
+        if (d instanceof com.serotonin.bacnet4j.type.primitive.Boolean b) return b.booleanValue();
+        if (d instanceof Enumerated e) return e.intValue();
+        if (d instanceof UnsignedInteger u) return u.longValue();
+        if (d instanceof SignedInteger s) return s.longValue();
+        return null;
+    }
+}
@@ -6,21 +6,45 @@ import org.metrolink.bas.core.model.Point;
 import org.metrolink.bas.core.model.Value;
 import org.metrolink.bas.core.ports.*;
 import org.metrolink.bas.core.spi.ConnectorPlugin;
+import org.metrolink.bas.core.time.Clock;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.*;
 
+/**
+ * Fake field bus: {@code devices} devices ("dev1".."devN"), each with {@code analogInputsPerDevice} drifting
+ * inputs ("devN/AI1"..) and one writable output ("devN/AO1"). Every {@code periodMs} each input drifts and is pushed
+ * to subscribers. Defaults give the classic single device with AI1/AO1. Time and timers come from the injected
+ * {@link Clock} and executor, so the simulator can run on virtual time.
+ */
 public final class SimConnector implements ConnectorPlugin {
-    private final Random rnd = new Random();
+    private final Clock clock;
+    private final ScheduledExecutorService injected;
     private final Map<String, Double> state = new ConcurrentHashMap<>();
+    private final List<String> inputs = new CopyOnWriteArrayList<>();
     private final List<Flow.Subscriber<? super Value>> subscribers = new CopyOnWriteArrayList<>();
+    private Random rnd = new Random();
     private ScheduledExecutorService ses;
+    private ScheduledFuture<?> ticker;
     private volatile double drift = 0.2;
     private volatile long periodMs = 1000;
+    private volatile int devices = 1;
+    private volatile int inputsPerDevice = 1;
+
+    public SimConnector() {
+        this(Clock.SYSTEM, null);
+    }
+
+    /** {@code ses} (null = an own thread) runs the drift timer; it is not shut down by {@link #stop()}. */
+    public SimConnector(Clock clock, ScheduledExecutorService ses) {
+        this.clock = clock;
+        this.injected = ses;
+    }
 
     @Override
     public String id() {
@@ -34,9 +58,18 @@ public final class SimConnector implements ConnectorPlugin {
         double start = ((Number) config.getOrDefault("ai1Start", 21.0)).doubleValue();
         this.drift = ((Number) config.getOrDefault("ai1Drift", 0.2)).doubleValue();
         this.periodMs = ((Number) config.getOrDefault("periodMs", 1000)).longValue();
+        this.devices = Math.max(1, ((Number) config.getOrDefault("devices", 1)).intValue());
+        this.inputsPerDevice = Math.max(1, ((Number) config.getOrDefault("analogInputsPerDevice", 1)).intValue());
+        if (config.get("seed") instanceof Number seed) rnd = new Random(seed.longValue());
 
-        state.putIfAbsent("dev1/AI1", start);
-        state.putIfAbsent("dev1/AO1", 0.0);
+        inputs.clear();
+        for (int d = 1; d <= devices; d++) {
+            for (int i = 1; i <= inputsPerDevice; i++) {
+                inputs.add("dev" + d + "/AI" + i);
+                state.putIfAbsent("dev" + d + "/AI" + i, start);
+            }
+            state.putIfAbsent("dev" + d + "/AO1", 0.0);
+        }
     }
 
     @Override
@@ -44,16 +77,20 @@ public final class SimConnector implements ConnectorPlugin {
         // seed some state
         state.putIfAbsent("dev1/AI1", 21.0);   // Room Temp
         state.putIfAbsent("dev1/AO1", 0.0);    // Damper Cmd (writable)
-        ses = Executors.newSingleThreadScheduledExecutor();
-        ses.scheduleAtFixedRate(() -> {
-            double cur = state.getOrDefault("dev1/AI1", 21.0);
-            double next = cur + (rnd.nextDouble() - 0.5) * drift; // use configured drift
-            state.put("dev1/AI1", next);
-            Value v = new Value("dev1/AI1", next, System.currentTimeMillis());
-            for (var s : subscribers) {
-                try {
-                    s.onNext(v);
-                } catch (Throwable ignored) {
+        if (inputs.isEmpty()) inputs.add("dev1/AI1");
+        ses = injected != null ? injected : Executors.newSingleThreadScheduledExecutor();
+        ticker = ses.scheduleAtFixedRate(() -> {
+            long now = clock.currentTimeMillis();
+            for (var id : inputs) {
+                double cur = state.getOrDefault(id, 21.0);
+                double next = cur + (rnd.nextDouble() - 0.5) * drift; // use configured drift
+                state.put(id, next);
+                Value v = new Value(id, next, now);
+                for (var s : subscribers) {
+                    try {
+                        s.onNext(v);
+                    } catch (Throwable ignored) {
+                    }
                 }
             }
         }, 0, periodMs, TimeUnit.MILLISECONDS); // use configured period
@@ -61,7 +98,8 @@ public final class SimConnector implements ConnectorPlugin {
 
     @Override
     public void stop() {
-        if (ses != null) ses.shutdownNow();
+        if (ticker != null) ticker.cancel(false);
+        if (ses != null && ses != injected) ses.shutdownNow();
     }
 
     // ---- Ports ----
@@ -70,15 +108,20 @@ public final class SimConnector implements ConnectorPlugin {
         return new DiscoveryPort() {
             @Override
             public List<Device> discoverDevices(Duration timeout) {
-                return List.of(new Device("dev1", "Sim Device 1", Map.of()));
+                var out = new ArrayList<Device>(devices);
+                for (int d = 1; d <= devices; d++) out.add(new Device("dev" + d, "Sim Device " + d, Map.of()));
+                return out;
             }
 
             @Override
             public List<Point> discoverPoints(Device d, Duration timeout) {
-                return List.of(
-                        new Point("dev1/AI1", d.id(), "Room Temp", "analogInput", false, Map.of("units", "°C")),
-                        new Point("dev1/AO1", d.id(), "Damper Cmd", "analogOutput", true, Map.of("units", "%"))
-                );
+                var out = new ArrayList<Point>(inputsPerDevice + 1);
+                for (int i = 1; i <= inputsPerDevice; i++) {
+                    out.add(new Point(d.id() + "/AI" + i, d.id(), i == 1 ? "Room Temp" : "Room Temp " + i,
+                            "analogInput", false, Map.of("units", "°C")));
+                }
+                out.add(new Point(d.id() + "/AO1", d.id(), "Damper Cmd", "analogOutput", true, Map.of("units", "%")));
+                return out;
             }
         };
     }
@@ -87,7 +130,7 @@ public final class SimConnector implements ConnectorPlugin {
     public ReaderPort reader() {
         return pointIds -> {
             Map<String, Value> out = new HashMap<>();
-            long now = System.currentTimeMillis();
+            long now = clock.currentTimeMillis();
             for (String id : pointIds) {
                 double v = state.getOrDefault(id, 0.0);
                 out.put(id, new Value(id, v, now));
@@ -99,8 +142,8 @@ public final class SimConnector implements ConnectorPlugin {
     @Override
     public WriterPort writer() {
         return (pointId, value, options) -> {
-            if (!pointId.equals("dev1/AO1")) {
-                throw new IllegalArgumentException("Only dev1/AO1 is writable in simulator");
+            if (!pointId.endsWith("/AO1") || !state.containsKey(pointId)) {
+                throw new IllegalArgumentException("Only devN/AO1 is writable in simulator");
             }
             double v = ((Number) value).doubleValue();
             state.put(pointId, v);
@@ -0,0 +1,18 @@
+package org.metrolink.bas.testkit;
+
+public record CheckResult(String name, Status status, String detail, long durationMs) {
+
+    public enum Status {PASS, FAIL, SKIP}
+
+    static CheckResult pass(String name, String detail, long durationMs) {
+        return new CheckResult(name, Status.PASS, detail, durationMs);
+    }
+
+    static CheckResult fail(String name, String detail, long durationMs) {
+        return new CheckResult(name, Status.FAIL, detail, durationMs);
+    }
+
+    static CheckResult skip(String name, String detail) {
+        return new CheckResult(name, Status.SKIP, detail, 0);
+    }
+}
@@ -0,0 +1,99 @@
+package org.metrolink.bas.testkit;
+
+import org.metrolink.bas.core.spi.ConnectorPlugin;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Runs the contract and performance suites against every {@link ConnectorPlugin} on the classpath and writes a
+ * JSON report.
+ * <pre>
+ * ./gradlew :connector-testkit:run --args="[report.json] [pluginId]"
+ * </pre>
+ * Plugin config comes from system properties {@code -Dtestkit.<pluginId>.<key>=<value>} (numbers are parsed).
+ * Write checks touch real equipment, so they only run against the point named by
+ * {@code -Dtestkit.<pluginId>.writePoint=<pointId>}, whose value is restored afterwards.
+ */
+public final class ConformanceMain {
+    static final String WRITE_POINT = "writePoint";
+
+    public static void main(String[] args) throws Exception {
+        var report = Path.of(args.length > 0 ? args[0] : "build/conformance-report.json");
+        var only = args.length > 1 ? args[1] : null;
+
+        var plugins = new ArrayList<Map<String, Object>>();
+        boolean failed = false;
+        for (var provider : ServiceLoader.load(ConnectorPlugin.class).stream().toList()) {
+            var plugin = provider.get();
+            if (only != null && !only.equals(plugin.id())) continue;
+            var result = certify(plugin);
+            failed |= Boolean.FALSE.equals(result.get("contractPassed"));
+            plugins.add(result);
+            System.out.println(plugin.id() + ": contract " + (Boolean.TRUE.equals(result.get("contractPassed")) ? "PASS" : "FAIL"));
+        }
+
+        var doc = new LinkedHashMap<String, Object>();
+        doc.put("generatedAt", Instant.now().toString());
+        doc.put("java", System.getProperty("java.version"));
+        doc.put("cpus", Runtime.getRuntime().availableProcessors());
+        doc.put("plugins", plugins);
+        if (report.getParent() != null) Files.createDirectories(report.getParent());
+        Files.writeString(report, Json.write(doc));
+        System.out.println("Report: " + report.toAbsolutePath());
+        if (failed) System.exit(1);
+    }
+
+    public static Map<String, Object> certify(ConnectorPlugin plugin) {
+        var out = new LinkedHashMap<String, Object>();
+        out.put("id", plugin.id());
+        out.put("class", plugin.getClass().getName());
+        try {
+            plugin.init(configFor(plugin.id()));
+            plugin.start();
+        } catch (Exception e) {
+            out.put("contractPassed", false);
+            out.put("error", "start failed: " + e);
+            return out;
+        }
+        try {
+            var writePoint = System.getProperty("testkit." + plugin.id() + "." + WRITE_POINT);
+            var contract = new ContractSuite(plugin, Duration.ofSeconds(5), writePoint);
+            var checks = contract.run();
+            out.put("contractPassed", checks.stream().noneMatch(c -> c.status() == CheckResult.Status.FAIL));
+            out.put("checks", checks.stream().map(c -> Map.<String, Object>of(
+                    "name", c.name(), "status", c.status().name(), "detail", String.valueOf(c.detail()),
+                    "durationMs", c.durationMs())).toList());
+            out.put("performance", new PerformanceSuite(plugin, Duration.ofSeconds(1), Duration.ofSeconds(3),
+                    writePoint).run(contract.points()));
+        } finally {
+            try {
+                plugin.stop();
+            } catch (Exception ignored) {
+            }
+        }
+        return out;
+    }
+
+    private static Map<String, Object> configFor(String id) {
+        var prefix = "testkit." + id + ".";
+        var cfg = new LinkedHashMap<String, Object>();
+        for (var name : System.getProperties().stringPropertyNames()) {
+            if (!name.startsWith(prefix) || name.equals(prefix + WRITE_POINT)) continue;
+            var raw = System.getProperty(name);
+            Object v = raw;
+            try {
+                v = raw.contains(".") ? (Object) Double.parseDouble(raw) : (Object) Long.parseLong(raw);
+            } catch (NumberFormatException ignored) {
+            }
+            cfg.put(name.substring(prefix.length()), v);
+        }
+        return cfg;
+    }
+}
@@ -0,0 +1,248 @@
+package org.metrolink.bas.testkit;
+
+import org.metrolink.bas.core.model.Device;
+import org.metrolink.bas.core.model.Point;
+import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.spi.ConnectorPlugin;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Functional contract every {@link ConnectorPlugin} must meet (ARCHITECTURE.md §11): discovery → read → write →
+ * subscribe. Runs against a started plugin; checks that cannot apply (e.g. no writable point) are skipped. Write
+ * checks run only when a {@code writePoint} is given and put back the value they found.
+ */
+public final class ContractSuite {
+    private final ConnectorPlugin plugin;
+    private final Duration timeout;
+    private final String writePoint;        // null = write checks skipped
+    private final List<CheckResult> results = new ArrayList<>();
+
+    private List<Device> devices = List.of();
+    private final List<Point> points = new ArrayList<>();
+
+    public ContractSuite(ConnectorPlugin plugin, Duration timeout, String writePoint) {
+        this.plugin = plugin;
+        this.timeout = timeout;
+        this.writePoint = writePoint;
+    }
+
+    /** Points found by the discovery checks (available after {@link #run()}). */
+    public List<Point> points() {
+        return points;
+    }
+
+    public List<CheckResult> run() {
+        check("discovery.devices", this::discoverDevices);
+        check("discovery.points", this::discoverPoints);
+        check("read.allPoints", this::readAll);
+        check("read.unknownPoint", this::readUnknown);
+        check("write.roundTrip", this::writeRoundTrip);
+        check("write.readOnlyRejected", this::writeReadOnly);
+        check("subscribe.delivery", this::subscribeDelivery);
+        check("subscribe.close", this::subscribeClose);
+        check("health", this::health);
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        String run() throws Exception;   // detail on pass; throw Skip/AssertionError/Exception otherwise
+    }
+
+    private static final class Skip extends RuntimeException {
+        Skip(String msg) {
+            super(msg);
+        }
+    }
+
+    private void check(String name, Check c) {
+        long t0 = System.nanoTime();
+        try {
+            var detail = c.run();
+            results.add(CheckResult.pass(name, detail, (System.nanoTime() - t0) / 1_000_000));
+        } catch (Skip s) {
+            results.add(CheckResult.skip(name, s.getMessage()));
+        } catch (Throwable t) {
+            results.add(CheckResult.fail(name, String.valueOf(t), (System.nanoTime() - t0) / 1_000_000));
+        }
+    }
+
+    private static void require(boolean cond, String msg) {
+        if (!cond) throw new AssertionError(msg);
+    }
+
+    private String discoverDevices() throws Exception {
+        devices = plugin.discovery().discoverDevices(timeout);
+        require(devices != null, "discoverDevices returned null");
+        var ids = new HashSet<String>();
+        for (var d : devices) require(d.id() != null && ids.add(d.id()), "duplicate or null device id " + d.id());
+        return devices.size() + " devices";
+    }
+
+    private String discoverPoints() throws Exception {
+        if (devices.isEmpty()) throw new Skip("no devices");
+        var ids = new HashSet<String>();
+        for (var d : devices) {
+            var ps = plugin.discovery().discoverPoints(d, timeout);
+            require(ps != null, "discoverPoints returned null for " + d.id());
+            for (var p : ps) {
+                require(p.id() != null && ids.add(p.id()), "duplicate or null point id " + p.id());
+                require(d.id().equals(p.deviceId()), p.id() + " reports device " + p.deviceId() + ", expected " + d.id());
+                points.add(p);
+            }
+        }
+        return points.size() + " points";
+    }
+
+    private String readAll() throws Exception {
+        if (points.isEmpty()) throw new Skip("no points");
+        var ids = points.stream().map(Point::id).toList();
+        var values = plugin.reader().read(ids);
+        require(values != null, "read returned null");
+        for (var id : ids) {
+            var v = values.get(id);
+            require(v != null, "no value for " + id);
+            require(id.equals(v.pointId()), "value keyed " + id + " carries pointId " + v.pointId());
+            require(v.tsEpochMs() > 0, "value for " + id + " has no timestamp");
+        }
+        return ids.size() + " values";
+    }
+
+    private String readUnknown() {
+        try {
+            var values = plugin.reader().read(List.of("__testkit/does-not-exist"));
+            require(values != null, "read returned null");
+            return "answered with " + values.size() + " entries";
+        } catch (Exception e) {
+            return "rejected: " + e.getClass().getSimpleName();
+        }
+    }
+
+    private String writeRoundTrip() throws Exception {
+        if (writePoint == null) throw new Skip("opt-in: -Dtestkit." + plugin.id() + ".writePoint=<point id>");
+        var target = points.stream().filter(p -> p.id().equals(writePoint)).findFirst()
+                .orElseThrow(() -> new AssertionError("writePoint " + writePoint + " was not discovered"));
+        require(target.writable(), "writePoint " + writePoint + " is read-only");
+        var before = readOne(target.id());
+        double wanted = before != null && before.value() instanceof Number n && n.doubleValue() == 42.5 ? 43.5 : 42.5;
+        try {
+            plugin.writer().write(target.id(), wanted, Map.of());
+            var back = readOne(target.id());
+            require(back != null && back.value() instanceof Number n && n.doubleValue() == wanted,
+                    "wrote " + wanted + " to " + target.id() + ", read back " + back);
+        } finally {
+            restore(before);
+        }
+        return target.id() + (before != null ? ", restored " + before.value() : "");
+    }
+
+    private String writeReadOnly() throws Exception {
+        if (writePoint == null) throw new Skip("opt-in: -Dtestkit." + plugin.id() + ".writePoint=<point id>");
+        var target = points.stream().filter(p -> !p.writable()).findFirst()
+                .orElseThrow(() -> new Skip("no read-only point"));
+        var before = readOne(target.id());
+        try {
+            plugin.writer().write(target.id(), 1.0, Map.of());
+        } catch (Exception expected) {
+            return target.id() + " rejected with " + expected.getClass().getSimpleName();
+        }
+        restore(before);
+        throw new AssertionError("write to read-only " + target.id() + " was accepted");
+    }
+
+    private Value readOne(String id) throws Exception {
+        return plugin.reader().read(List.of(id)).get(id);
+    }
+
+    private void restore(Value before) throws Exception {
+        if (before != null && before.value() != null) plugin.writer().write(before.pointId(), before.value(), Map.of());
+    }
+
+    private String subscribeDelivery() throws Exception {
+        if (points.isEmpty()) throw new Skip("no points");
+        var ids = new HashSet<>(points.stream().map(Point::id).toList());
+        var got = new CopyOnWriteArrayList<Value>();
+        var subscribedFirst = new AtomicBoolean();
+        var subscribed = new AtomicBoolean();
+        var latch = new CountDownLatch(1);
+
+        var handle = plugin.subscribe().subscribe(List.copyOf(ids), new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscribed.set(true);
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Value item) {
+                if (!subscribed.get()) subscribedFirst.set(true);
+                got.add(item);
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        try {
+            require(subscribed.get(), "onSubscribe not called before subscribe() returned");
+            if (!latch.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) throw new Skip("no updates within " + timeout);
+            require(!subscribedFirst.get(), "onNext before onSubscribe");
+            for (var v : got) require(ids.contains(v.pointId()), "delivered unrequested point " + v.pointId());
+            return got.size() + " updates";
+        } finally {
+            handle.close();
+        }
+    }
+
+    private String subscribeClose() throws Exception {
+        if (points.isEmpty()) throw new Skip("no points");
+        var count = new AtomicInteger();
+        var handle = plugin.subscribe().subscribe(points.stream().map(Point::id).toList(), new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Value item) {
+                count.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        handle.close();
+        int atClose = count.get();
+        Thread.sleep(Math.min(timeout.toMillis(), 2000));
+        require(count.get() <= atClose + 1, (count.get() - atClose) + " updates after close()");
+        return "quiet after close";
+    }
+
+    private String health() {
+        var h = plugin.health().health();
+        require(h != null, "health() returned null");
+        require(h.up(), "connector reports down: " + h.metrics());
+        return h.metrics() != null ? h.metrics().size() + " metrics" : "no metrics";
+    }
+}
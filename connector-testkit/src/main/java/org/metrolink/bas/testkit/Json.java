@@ -0,0 +1,70 @@
+package org.metrolink.bas.testkit;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Minimal JSON writer for the report (keeps the kit dependency-free).
+ */
+final class Json {
+    private Json() {
+    }
+
+    static String write(Object o) {
+        var sb = new StringBuilder();
+        write(sb, o, 0);
+        return sb.append('\n').toString();
+    }
+
+    private static void write(StringBuilder sb, Object o, int indent) {
+        if (o == null) {
+            sb.append("null");
+        } else if (o instanceof Number n) {
+            double d = n.doubleValue();
+            sb.append(Double.isFinite(d) ? n.toString() : "null");
+        } else if (o instanceof Boolean b) {
+            sb.append(b);
+        } else if (o instanceof Map<?, ?> m) {
+            sb.append('{');
+            int i = 0;
+            for (var e : m.entrySet()) {
+                sb.append(i++ == 0 ? "\n" : ",\n").append("  ".repeat(indent + 1));
+                string(sb, String.valueOf(e.getKey()));
+                sb.append(": ");
+                write(sb, e.getValue(), indent + 1);
+            }
+            if (i > 0) sb.append('\n').append("  ".repeat(indent));
+            sb.append('}');
+        } else if (o instanceof Collection<?> c) {
+            sb.append('[');
+            int i = 0;
+            for (var e : c) {
+                sb.append(i++ == 0 ? "\n" : ",\n").append("  ".repeat(indent + 1));
+                write(sb, e, indent + 1);
+            }
+            if (i > 0) sb.append('\n').append("  ".repeat(indent));
+            sb.append(']');
+        } else {
+            string(sb, String.valueOf(o));
+        }
+    }
+
+    private static void string(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
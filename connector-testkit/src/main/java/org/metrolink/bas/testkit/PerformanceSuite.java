@@ -0,0 +1,173 @@
+package org.metrolink.bas.testkit;
+
+import org.metrolink.bas.core.metrics.LatencyHistogram;
+import org.metrolink.bas.core.model.Point;
+import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.spi.ConnectorPlugin;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Throughput/latency/allocation profile of a started plugin. Each measurement runs for a fixed wall-clock window
+ * after a warm-up, on the calling thread, so numbers are comparable across connectors on the same machine. Writes
+ * are measured only on an explicit {@code writePoint}, rewriting the value it held before the run.
+ */
+public final class PerformanceSuite {
+    private final ConnectorPlugin plugin;
+    private final Duration warmup;
+    private final Duration window;
+    private final String writePoint;        // null = writes not measured
+
+    public PerformanceSuite(ConnectorPlugin plugin, Duration warmup, Duration window, String writePoint) {
+        this.plugin = plugin;
+        this.warmup = warmup;
+        this.window = window;
+        this.writePoint = writePoint;
+    }
+
+    public Map<String, Object> run(List<Point> points) {
+        var out = new LinkedHashMap<String, Object>();
+        if (points.isEmpty()) {
+            out.put("skipped", "no points");
+            return out;
+        }
+        var ids = points.stream().map(Point::id).toList();
+        out.put("readSingle", measure(() -> plugin.reader().read(List.of(ids.get(0))), 1));
+        out.put("readBatch", measure(() -> plugin.reader().read(ids), ids.size()));
+        if (writePoint != null && points.stream().anyMatch(p -> p.writable() && p.id().equals(writePoint))) {
+            out.put("write", writes(writePoint));
+        }
+        out.put("subscribe", subscription(ids, 16));
+        return out;
+    }
+
+    // rewrites the current value, so the point ends where it started
+    private Map<String, Object> writes(String id) {
+        Value before;
+        try {
+            before = plugin.reader().read(List.of(id)).get(id);
+        } catch (Exception e) {
+            return Map.of("error", String.valueOf(e));
+        }
+        if (before == null || before.value() == null) return Map.of("skipped", "no current value for " + id);
+        return measure(() -> {
+            plugin.writer().write(id, before.value(), Map.of());
+            return null;
+        }, 1);
+    }
+
+    @FunctionalInterface
+    private interface Op {
+        Object call() throws Exception;
+    }
+
+    private Map<String, Object> measure(Op op, int pointsPerCall) {
+        var m = new LinkedHashMap<String, Object>();
+        try {
+            loop(op, warmup, null);
+            var hist = new LatencyHistogram();
+            long bytes0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            long calls = loop(op, window, hist);
+            double seconds = (System.nanoTime() - t0) / 1e9;
+            long bytes = allocatedBytes() - bytes0;
+
+            m.put("calls", calls);
+            m.put("callsPerSecond", calls / seconds);
+            m.put("pointsPerSecond", calls * pointsPerCall / seconds);
+            m.put("p50Us", hist.percentileNanos(0.50) / 1e3);
+            m.put("p99Us", hist.percentileNanos(0.99) / 1e3);
+            m.put("maxUs", hist.maxNanos() / 1e3);
+            m.put("allocBytesPerCall", bytes >= 0 && calls > 0 ? bytes / calls : -1);
+        } catch (Exception e) {
+            m.put("error", String.valueOf(e));
+        }
+        return m;
+    }
+
+    private static long loop(Op op, Duration d, LatencyHistogram hist) throws Exception {
+        long end = System.nanoTime() + d.toNanos();
+        long calls = 0;
+        while (System.nanoTime() < end) {
+            long t = System.nanoTime();
+            op.call();
+            if (hist != null) hist.record(System.nanoTime() - t);
+            calls++;
+        }
+        return calls;
+    }
+
+    /**
+     * Subscribes with bounded demand ({@code request(batch)} refilled as items arrive) and reports the delivery rate
+     * plus how many items arrived beyond outstanding demand, i.e. whether the connector honours backpressure.
+     */
+    private Map<String, Object> subscription(List<String> ids, int batch) {
+        var m = new LinkedHashMap<String, Object>();
+        var delivered = new AtomicLong();
+        var outstanding = new AtomicLong();
+        var violations = new AtomicLong();
+        var lags = new LatencyHistogram();
+        var sub = new AtomicReference<Flow.Subscription>();
+        try {
+            var handle = plugin.subscribe().subscribe(ids, new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription s) {
+                    sub.set(s);
+                    outstanding.set(batch);
+                    s.request(batch);
+                }
+
+                @Override
+                public void onNext(Value item) {
+                    delivered.incrementAndGet();
+                    lags.record(Math.max(0, System.currentTimeMillis() - item.tsEpochMs()) * 1_000_000);
+                    if (outstanding.decrementAndGet() < 0) {
+                        violations.incrementAndGet();
+                        outstanding.set(0);
+                    }
+                    if (outstanding.get() <= batch / 2) {   // refill in halves, like a typical reactive consumer
+                        outstanding.addAndGet(batch);
+                        sub.get().request(batch);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+            long t0 = System.nanoTime();
+            Thread.sleep(window.toMillis());
+            handle.close();
+            double seconds = (System.nanoTime() - t0) / 1e9;
+
+            m.put("requestBatch", batch);
+            m.put("delivered", delivered.get());
+            m.put("deliveriesPerSecond", delivered.get() / seconds);
+            m.put("demandViolations", violations.get());
+            m.put("p99DeliveryLagMs", lags.percentileNanos(0.99) / 1e6);
+        } catch (Exception e) {
+            m.put("error", String.valueOf(e));
+        }
+        return m;
+    }
+
+    // per-thread allocation counter (HotSpot); -1 when the JVM does not support it
+    private static long allocatedBytes() {
+        var bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean hs && hs.isThreadAllocatedMemorySupported()) {
+            return hs.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
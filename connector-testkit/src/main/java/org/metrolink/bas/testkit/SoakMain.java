@@ -0,0 +1,307 @@
+package org.metrolink.bas.testkit;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.metrolink.bas.connector.sim.SimConnector;
+import org.metrolink.bas.core.Kernel;
+import org.metrolink.bas.core.historian.InMemoryHistorian;
+import org.metrolink.bas.core.historian.RollupHistorian;
+import org.metrolink.bas.core.historian.RollupTier;
+import org.metrolink.bas.core.metrics.ConnectorMetrics;
+import org.metrolink.bas.core.model.Node;
+import org.metrolink.bas.core.model.Value;
+import org.metrolink.bas.core.registry.NodeRegistry;
+import org.metrolink.bas.core.scheduler.PollPlanner;
+import org.metrolink.bas.core.scheduler.PollScheduler;
+import org.metrolink.bas.core.time.VirtualClock;
+import org.metrolink.bas.core.time.VirtualScheduler;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accelerated-time soak of the core ingest path: the simulator (polling + COV) feeds a retention-bounded
+ * {@link InMemoryHistorian} behind {@link RollupHistorian}, all timers on a {@link VirtualScheduler}, so days of
+ * operation run in minutes. Every {@code sampleEvery} of simulated time it records heap, GC pauses, throughput and
+ * store sizes; once the longest retention has passed (steady state) anything that still grows is reported as a leak.
+ * <pre>
+ * ./gradlew :connector-testkit:soak -Dsoak.days=14 -Dsoak.speed=500 [--args="report.json"]
+ * </pre>
+ * Settings ({@code -Dsoak.<key>}): days (7), speed (0 = as fast as possible, else × real time), devices (20),
+ * inputsPerDevice (10), pollInterval (1m), covPeriod (10s), retention (1d; "none" = unbounded demo historian),
+ * maxSamplesPerPoint (200000), tiers ("1m:1d,15m:2d,1h:3d"), sampleEvery (1h), step (1m),
+ * maxHeapGrowthMbPerDay (16). Exits 1 when a leak is found.
+ */
+public final class SoakMain {
+
+    private record Sample(double simHours, long realMs, long heapUsed, long heapAfterGc, long gcCount, long gcMs,
+                          long maxPauseMs, long samples, double samplesPerSec, long rawRetained, long rollupBuckets,
+                          int timers) {
+        Map<String, Object> toMap() {
+            var m = new LinkedHashMap<String, Object>();
+            m.put("simHours", simHours);
+            m.put("realMs", realMs);
+            m.put("heapUsedMb", heapUsed / 1048576.0);
+            m.put("heapAfterGcMb", heapAfterGc / 1048576.0);
+            m.put("gcCount", gcCount);
+            m.put("gcMs", gcMs);
+            m.put("maxPauseMs", maxPauseMs);
+            m.put("samples", samples);
+            m.put("samplesPerSec", samplesPerSec);
+            m.put("rawRetained", rawRetained);
+            m.put("rollupBuckets", rollupBuckets);
+            m.put("timers", timers);
+            return m;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        var report = Path.of(args.length > 0 ? args[0] : "build/soak-report.json");
+        long days = longProp("days", 7);
+        double speed = Double.parseDouble(prop("speed", "0"));
+        int devices = (int) longProp("devices", 20);
+        int inputs = (int) longProp("inputsPerDevice", 10);
+        var pollInterval = duration(prop("pollInterval", "1m"));
+        var covPeriod = duration(prop("covPeriod", "10s"));
+        var retentionSpec = prop("retention", "1d");
+        var retention = retentionSpec.equals("none") ? null : duration(retentionSpec);
+        int maxSamples = (int) longProp("maxSamplesPerPoint", retention == null ? Integer.MAX_VALUE : 200_000);
+        var tiers = tiers(prop("tiers", "1m:1d,15m:2d,1h:3d"));
+        long sampleEveryMs = duration(prop("sampleEvery", "1h")).toMillis();
+        long stepMs = duration(prop("step", "1m")).toMillis();
+        double maxGrowthMbPerDay = Double.parseDouble(prop("maxHeapGrowthMbPerDay", "16"));
+
+        var clock = new VirtualClock(System.currentTimeMillis());
+        var timers = new VirtualScheduler(clock);
+        var raw = retention == null ? new InMemoryHistorian() : new InMemoryHistorian(retention, maxSamples);
+        var historian = new RollupHistorian(raw, tiers);
+        var samples = new LongAdder();
+
+        var sim = new SimConnector(clock, timers);
+        sim.init(Map.of("devices", devices, "analogInputsPerDevice", inputs, "periodMs", covPeriod.toMillis(),
+                "seed", 42L));
+        sim.start();
+        var kernel = new Kernel(sim.discovery(), sim.reader(), sim.writer(), sim.subscribe(), sim.health(),
+                new ConnectorMetrics(), new NodeRegistry(), clock);
+        var nodes = kernel.discoverAndRegister();
+        var ids = nodes.stream().map(Node::id).toList();
+        var polls = new PollScheduler(clock, timers);
+        polls.startAll(kernel::readNow, new PollPlanner(50, PollPlanner.metaOr(pollInterval)).plan(nodes), batch -> {
+            for (var v : batch.values()) historian.append(v);
+            samples.add(batch.size());
+        });
+        var cov = kernel.subscribe(ids, new Flow.Subscriber<Value>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Value v) {
+                historian.append(v);
+                samples.increment();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                t.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        var maxPause = new AtomicLong();
+        watchGcPauses(maxPause);
+        System.out.printf("Soak: %d points, %d simulated days, speed %s%n", ids.size(), days,
+                speed > 0 ? speed + "x" : "unthrottled");
+
+        long simStart = clock.currentTimeMillis();
+        long simEnd = simStart + Duration.ofDays(days).toMillis();
+        long realStart = System.nanoTime();
+        var series = new ArrayList<Sample>();
+        long nextSample = simStart + sampleEveryMs;
+        long lastSamples = 0, lastGcCount = gcCount(), lastGcMs = gcMillis(), lastReal = realStart;
+        while (clock.currentTimeMillis() < simEnd) {
+            timers.advanceTo(Math.min(simEnd, clock.currentTimeMillis() + stepMs));
+            if (speed > 0) {
+                long dueNs = (long) ((clock.currentTimeMillis() - simStart) * 1e6 / speed);
+                long aheadNs = dueNs - (System.nanoTime() - realStart);
+                if (aheadNs > 0) Thread.sleep(aheadNs / 1_000_000, (int) (aheadNs % 1_000_000));
+            }
+            if (clock.currentTimeMillis() < nextSample) continue;
+            nextSample += sampleEveryMs;
+
+            long now = System.nanoTime();
+            long total = samples.sum(), gcs = gcCount(), gcMs = gcMillis();
+            long buckets = 0;
+            for (long b : historian.bucketCounts()) buckets += b;
+            var s = new Sample((clock.currentTimeMillis() - simStart) / 3_600_000.0, (now - realStart) / 1_000_000,
+                    Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory(), heapAfterGc(),
+                    gcs - lastGcCount, gcMs - lastGcMs, maxPause.getAndSet(0), total,
+                    (total - lastSamples) * 1e9 / Math.max(1, now - lastReal), raw.sampleCount(), buckets,
+                    timers.pending());
+            series.add(s);
+            lastSamples = total;
+            lastGcCount = gcs;
+            lastGcMs = gcMs;
+            lastReal = now;
+            System.out.printf("t=%6.1fh heap=%6.1fMB afterGc=%6.1fMB gc=%d/%dms maxPause=%dms %,.0f samples/s "
+                            + "raw=%,d buckets=%,d%n", s.simHours(), s.heapUsed() / 1048576.0,
+                    s.heapAfterGc() / 1048576.0, s.gcCount(), s.gcMs(), s.maxPauseMs(), s.samplesPerSec(),
+                    s.rawRetained(), s.rollupBuckets());
+        }
+        cov.close();
+        polls.close();
+        sim.stop();
+
+        // steady state: after the longest retention in play, every store should be flat
+        long warmupMs = tiers.stream().mapToLong(t -> t.retention().toMillis()).max().orElse(0);
+        if (retention != null) warmupMs = Math.max(warmupMs, retention.toMillis());
+        double warmupHours = warmupMs / 3_600_000.0 + sampleEveryMs / 3_600_000.0;
+        var steady = series.stream().filter(s -> s.simHours() > warmupHours).toList();
+        var checks = new ArrayList<Map<String, Object>>();
+        boolean leak = false;
+        if (steady.size() < 3) {
+            checks.add(check("steadyState", "SKIP", "run shorter than warm-up of " + warmupHours + " h"));
+        } else {
+            var first = steady.get(0);
+            var last = steady.get(steady.size() - 1);
+            boolean rawGrows = last.rawRetained() > first.rawRetained() * 1.05;
+            boolean bucketsGrow = last.rollupBuckets() > first.rollupBuckets() * 1.05;
+            boolean timersGrow = last.timers() > first.timers() * 1.05 + 16;
+            double slope = slopeMbPerDay(steady);
+            boolean heapGrows = slope > maxGrowthMbPerDay;
+            checks.add(check("rawRetained", rawGrows ? "FAIL" : "PASS",
+                    first.rawRetained() + " -> " + last.rawRetained() + " samples"));
+            checks.add(check("rollupBuckets", bucketsGrow ? "FAIL" : "PASS",
+                    first.rollupBuckets() + " -> " + last.rollupBuckets() + " buckets"));
+            checks.add(check("timers", timersGrow ? "FAIL" : "PASS",
+                    first.timers() + " -> " + last.timers() + " pending timers"));
+            checks.add(check("heapAfterGc", heapGrows ? "FAIL" : "PASS",
+                    String.format("%.1f MB/simulated day (limit %.1f)", slope, maxGrowthMbPerDay)));
+            leak = rawGrows || bucketsGrow || timersGrow || heapGrows;
+        }
+        for (var c : checks) System.out.println(c.get("name") + ": " + c.get("status") + " (" + c.get("detail") + ")");
+
+        long realMs = (System.nanoTime() - realStart) / 1_000_000;
+        var doc = new LinkedHashMap<String, Object>();
+        doc.put("generatedAt", Instant.now().toString());
+        doc.put("java", System.getProperty("java.version"));
+        doc.put("points", ids.size());
+        doc.put("simulatedDays", days);
+        doc.put("realMs", realMs);
+        doc.put("speedup", Duration.ofDays(days).toMillis() / (double) Math.max(1, realMs));
+        doc.put("samples", samples.sum());
+        doc.put("timerRuns", timers.executed());
+        doc.put("leak", leak);
+        doc.put("checks", checks);
+        doc.put("series", series.stream().map(Sample::toMap).toList());
+        if (report.getParent() != null) Files.createDirectories(report.getParent());
+        Files.writeString(report, Json.write(doc));
+        System.out.printf("%d simulated days in %.1f s (%.0fx); report: %s%n", days, realMs / 1000.0,
+                doc.get("speedup"), report.toAbsolutePath());
+        if (leak) System.exit(1);
+    }
+
+    private static Map<String, Object> check(String name, String status, String detail) {
+        var m = new LinkedHashMap<String, Object>();
+        m.put("name", name);
+        m.put("status", status);
+        m.put("detail", detail);
+        return m;
+    }
+
+    // least-squares slope of live heap over simulated time
+    private static double slopeMbPerDay(List<Sample> s) {
+        double n = s.size(), sx = 0, sy = 0, sxx = 0, sxy = 0;
+        for (var p : s) {
+            double x = p.simHours() / 24, y = (p.heapAfterGc() > 0 ? p.heapAfterGc() : p.heapUsed()) / 1048576.0;
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            sxy += x * y;
+        }
+        double d = n * sxx - sx * sx;
+        return d == 0 ? 0 : (n * sxy - sx * sy) / d;
+    }
+
+    private static long heapAfterGc() {
+        long used = 0;
+        for (var p : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (p.getType() != MemoryType.HEAP || !p.isCollectionUsageThresholdSupported()) continue;
+            var u = p.getCollectionUsage();
+            if (u != null) used += u.getUsed();
+        }
+        return used;
+    }
+
+    private static long gcCount() {
+        long n = 0;
+        for (var gc : ManagementFactory.getGarbageCollectorMXBeans()) n += Math.max(0, gc.getCollectionCount());
+        return n;
+    }
+
+    private static long gcMillis() {
+        long n = 0;
+        for (var gc : ManagementFactory.getGarbageCollectorMXBeans()) n += Math.max(0, gc.getCollectionTime());
+        return n;
+    }
+
+    // longest single collection per sample interval (HotSpot notifications; absent elsewhere)
+    private static void watchGcPauses(AtomicLong maxPause) {
+        for (var gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter emitter)) continue;
+            emitter.addNotificationListener((n, h) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(n.getType())) return;
+                var info = GarbageCollectionNotificationInfo.from((CompositeData) n.getUserData());
+                maxPause.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+            }, null, null);
+        }
+    }
+
+    private static List<RollupTier> tiers(String spec) {
+        var out = new ArrayList<RollupTier>();
+        for (var t : spec.split(",")) {
+            var parts = t.trim().split(":");
+            out.add(new RollupTier(duration(parts[0]), duration(parts[1])));
+        }
+        return out;
+    }
+
+    // "500ms", "10s", "5m", "6h", "2d" or ISO-8601
+    static Duration duration(String s) {
+        s = s.trim();
+        if (s.startsWith("P") || s.startsWith("p")) return Duration.parse(s);
+        if (s.endsWith("ms")) return Duration.ofMillis(Long.parseLong(s.substring(0, s.length() - 2)));
+        long n = Long.parseLong(s.substring(0, s.length() - 1));
+        return switch (s.charAt(s.length() - 1)) {
+            case 's' -> Duration.ofSeconds(n);
+            case 'm' -> Duration.ofMinutes(n);
+            case 'h' -> Duration.ofHours(n);
+            case 'd' -> Duration.ofDays(n);
+            default -> throw new IllegalArgumentException("bad duration: " + s);
+        };
+    }
+
+    private static String prop(String key, String def) {
+        return System.getProperty("soak." + key, def);
+    }
+
+    private static long longProp(String key, long def) {
+        return Long.parseLong(prop(key, String.valueOf(def)));
+    }
+}